@@ -1,42 +1,110 @@
 package com.plantgame.server.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Configuration class for enabling asynchronous processing and defining
  * a custom thread pool executor for handling specific asynchronous tasks.
  * <p>
  * This class leverages Spring's @EnableAsync annotation to enable asynchronous
- * method execution and configures a thread pool with a predefined core size,
- * maximum thread count, queue capacity, and thread name prefix.
+ * method execution and configures a thread pool with a configurable size,
+ * queue capacity, and thread name prefix.
  */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    @Value("${plant.update.parallelism:5}")
+    private int plantUpdateParallelism;
+
+    @Value("${plant.update.queue-capacity:20}")
+    private int plantUpdateQueueCapacity;
+
+    @Value("${user.scan.segments:4}")
+    private int userScanSegments;
+
+    @Value("${dynamodb.batch-write.concurrency:4}")
+    private int batchWriteConcurrency;
+
     /**
      * Creates and returns a thread pool executor designed for executing tasks
-     * related to plant updates. The executor is configured with a core pool size
-     * of 2 threads, a maximum pool size of 5 threads, and a task queue capacity
-     * of 20. All threads are prefixed with "PlantUpdate-" for easier identification
-     * in logs or debugging scenarios.
+     * related to plant updates. The pool runs up to "plant.update.parallelism" threads
+     * (5 by default) with a task queue of "plant.update.queue-capacity" (20 by default).
+     * When both are saturated the submitting thread runs the task itself, which slows
+     * the producer down instead of dropping work. All threads are prefixed with
+     * "PlantUpdate-" for easier identification in logs or debugging scenarios.
      *
      * @return an instance of Executor configured as a thread pool for managing plant update tasks
      */
     @Bean(name = "plantUpdateExecutor")
     public Executor plantUpdateExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2); // Number of threads to keep in the pool
-        executor.setMaxPoolSize(5); // Maximum number of threads
-        executor.setQueueCapacity(20); // Queue capacity for tasks
+        executor.setCorePoolSize(plantUpdateParallelism); // Number of threads to keep in the pool
+        executor.setMaxPoolSize(plantUpdateParallelism); // Maximum number of threads
+        executor.setQueueCapacity(plantUpdateQueueCapacity); // Queue capacity for tasks
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
         executor.setThreadNamePrefix("PlantUpdate-");
         executor.initialize();
         return executor;
     }
 
-}
\ No newline at end of file
+    /**
+     * Creates and returns a thread pool executor for the segments of a parallel scan of the
+     * Users table. It runs one thread per segment ("user.scan.segments", 4 by default) so every
+     * segment is streamed concurrently. All threads are prefixed with "UserScan-".
+     *
+     * @return an instance of Executor configured as a thread pool for scanning user segments
+     */
+    @Bean(name = "userScanExecutor")
+    public Executor userScanExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(userScanSegments, 1));
+        executor.setMaxPoolSize(Math.max(userScanSegments, 1));
+        executor.setThreadNamePrefix("UserScan-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Creates and returns a single-threaded executor that runs the write stage of the offline
+     * plant update pipeline, so plants are persisted while users are still being scanned and
+     * simulated. The thread is named with the "PlantWrite-" prefix.
+     *
+     * @return an instance of Executor for the plant update write stage
+     */
+    @Bean(name = "plantWriteExecutor")
+    public Executor plantWriteExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("PlantWrite-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Creates and returns a thread pool executor from which BatchWriter sends its retries once their
+     * backoff has elapsed. The calls themselves go through the DynamoDbAsyncClient and do not hold these
+     * threads. The pool runs "dynamodb.batch-write.concurrency" threads (4 by default),
+     * and all threads are prefixed with "BatchWrite-".
+     *
+     * @return an instance of Executor configured as a thread pool for DynamoDB batch writes
+     */
+    @Bean(name = "batchWriteExecutor")
+    public Executor batchWriteExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(batchWriteConcurrency, 1));
+        executor.setMaxPoolSize(Math.max(batchWriteConcurrency, 1));
+        executor.setThreadNamePrefix("BatchWrite-");
+        executor.initialize();
+        return executor;
+    }
+
+}
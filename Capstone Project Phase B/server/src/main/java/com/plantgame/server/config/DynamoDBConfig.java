@@ -5,12 +5,15 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
 
 import java.net.URI;
 
@@ -20,6 +23,10 @@ import java.net.URI;
  * for the DynamoDB client and enhanced client with appropriate properties
  * such as endpoint, access key, secret key, and region.
  * It supports both static and default credential providers.
+ * <p>
+ * Non-blocking counterparts (DynamoDbAsyncClient and DynamoDbEnhancedAsyncClient) are configured
+ * the same way. They run on a Netty event loop, so in-flight calls do not hold a thread each; at most
+ * "amazon.dynamodb.async.max-concurrency" requests are sent concurrently.
  */
 @Configuration
 public class DynamoDBConfig {
@@ -35,6 +42,9 @@ public class DynamoDBConfig {
 	@Value("${amazon.aws.region}")
 	private String amazonAWSRegion;
 
+	@Value("${amazon.dynamodb.async.max-concurrency:500}")
+	private int asyncMaxConcurrency;
+
 	/**
 	 * Configures and provides a DynamoDbClient bean.
 	 * The method sets up the AWS DynamoDB client with the specified region,
@@ -46,21 +56,29 @@ public class DynamoDBConfig {
 	 */
 	@Bean
 	public DynamoDbClient dynamoDbClient() {
-		DynamoDbClientBuilder builder = DynamoDbClient.builder()
+		return DynamoDbClient.builder()
 				.region(Region.of(amazonAWSRegion))
-				.endpointOverride(URI.create(amazonDynamoDBEndpoint));
-
-		if (!amazonAWSAccessKey.isEmpty() && !amazonAWSSecretKey.isEmpty()) {
-			builder.credentialsProvider(
-					StaticCredentialsProvider.create(
-							AwsBasicCredentials.create(amazonAWSAccessKey, amazonAWSSecretKey)
-					)
-			);
-		} else {
-			builder.credentialsProvider(DefaultCredentialsProvider.create());
-		}
+				.endpointOverride(URI.create(amazonDynamoDBEndpoint))
+				.credentialsProvider(credentialsProvider())
+				.build();
+	}
 
-		return builder.build();
+	/**
+	 * Configures and provides a DynamoDbAsyncClient bean with the same region, endpoint,
+	 * and credentials as the synchronous client. Requests are sent through a Netty
+	 * HTTP client limited to "amazon.dynamodb.async.max-concurrency" concurrent requests.
+	 *
+	 * @return a configured instance of DynamoDbAsyncClient
+	 */
+	@Bean
+	public DynamoDbAsyncClient dynamoDbAsyncClient() {
+		return DynamoDbAsyncClient.builder()
+				.region(Region.of(amazonAWSRegion))
+				.endpointOverride(URI.create(amazonDynamoDBEndpoint))
+				.credentialsProvider(credentialsProvider())
+				.httpClientBuilder(NettyNioAsyncHttpClient.builder()
+						.maxConcurrency(asyncMaxConcurrency))
+				.build();
 	}
 
 	/**
@@ -78,4 +96,33 @@ public class DynamoDBConfig {
 				.dynamoDbClient(dynamoDbClient)
 				.build();
 	}
+
+	/**
+	 * Configures and provides a DynamoDbEnhancedAsyncClient bean, the non-blocking
+	 * counterpart of the enhanced client, on top of the DynamoDbAsyncClient.
+	 *
+	 * @param dynamoDbAsyncClient the asynchronous DynamoDB client used by the enhanced client
+	 * @return a configured instance of DynamoDbEnhancedAsyncClient
+	 */
+	@Bean
+	public DynamoDbEnhancedAsyncClient enhancedAsyncClient(DynamoDbAsyncClient dynamoDbAsyncClient) {
+		return DynamoDbEnhancedAsyncClient.builder()
+				.dynamoDbClient(dynamoDbAsyncClient)
+				.build();
+	}
+
+	/**
+	 * Returns static credentials if an access key and secret key are configured,
+	 * and the default credentials provider otherwise.
+	 *
+	 * @return the credentials provider shared by the DynamoDB clients
+	 */
+	private AwsCredentialsProvider credentialsProvider() {
+		if (!amazonAWSAccessKey.isEmpty() && !amazonAWSSecretKey.isEmpty()) {
+			return StaticCredentialsProvider.create(
+					AwsBasicCredentials.create(amazonAWSAccessKey, amazonAWSSecretKey)
+			);
+		}
+		return DefaultCredentialsProvider.create();
+	}
 }
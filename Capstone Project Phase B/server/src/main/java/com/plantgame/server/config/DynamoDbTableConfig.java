@@ -3,6 +3,8 @@ package com.plantgame.server.config;
 import com.plantgame.server.models.*;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
@@ -22,6 +24,9 @@ import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
  * - GameProgress table: Tracks game progress for users.
  * - FertilizerType table: Manages data about different fertilizer types.
  * - Mission table: Stores mission-related data.
+ * <p>
+ * Every table is also defined as a DynamoDbAsyncTable on the DynamoDbEnhancedAsyncClient, which
+ * the repositories use for non-blocking access.
  */
 @Configuration
 public class DynamoDbTableConfig {
@@ -54,4 +59,34 @@ public class DynamoDbTableConfig {
     public DynamoDbTable<Mission> missionTable(DynamoDbEnhancedClient enhancedClient) {
         return enhancedClient.table("Missions", TableSchema.fromBean(Mission.class));
     }
+
+    @Bean
+    public DynamoDbAsyncTable<User> userAsyncTable(DynamoDbEnhancedAsyncClient enhancedAsyncClient) {
+        return enhancedAsyncClient.table("Users", TableSchema.fromBean(User.class));
+    }
+
+    @Bean
+    public DynamoDbAsyncTable<Plant> plantAsyncTable(DynamoDbEnhancedAsyncClient enhancedAsyncClient) {
+        return enhancedAsyncClient.table("Plants", TableSchema.fromBean(Plant.class));
+    }
+
+    @Bean
+    public DynamoDbAsyncTable<PlantType> plantTypeAsyncTable(DynamoDbEnhancedAsyncClient enhancedAsyncClient) {
+        return enhancedAsyncClient.table("PlantTypes", TableSchema.fromBean(PlantType.class));
+    }
+
+    @Bean
+    public DynamoDbAsyncTable<GameProgress> gameProgressAsyncTable(DynamoDbEnhancedAsyncClient enhancedAsyncClient) {
+        return enhancedAsyncClient.table("GameProgress", TableSchema.fromBean(GameProgress.class));
+    }
+
+    @Bean
+    public DynamoDbAsyncTable<FertilizerType> fertilizerTypeAsyncTable(DynamoDbEnhancedAsyncClient enhancedAsyncClient) {
+        return enhancedAsyncClient.table("FertilizerTypes", TableSchema.fromBean(FertilizerType.class));
+    }
+
+    @Bean
+    public DynamoDbAsyncTable<Mission> missionAsyncTable(DynamoDbEnhancedAsyncClient enhancedAsyncClient) {
+        return enhancedAsyncClient.table("Missions", TableSchema.fromBean(Mission.class));
+    }
 }
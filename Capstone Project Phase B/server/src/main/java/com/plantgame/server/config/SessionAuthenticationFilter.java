@@ -0,0 +1,52 @@
+package com.plantgame.server.config;
+
+import com.plantgame.server.services.SessionService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter that authenticates every request carrying an "Authorization" header.
+ * <p>
+ * The token is resolved once per request through the SessionService cache, and the user is
+ * stored in the request attribute {@link #AUTHENTICATED_USER}, which the controllers read with
+ * `@RequestAttribute`. The attribute is absent when the token is not valid; each endpoint then
+ * answers with its own 401 response.
+ * <p>
+ * Exception Management:
+ * - A `DynamoDbException` while resolving the token is logged and answered with a 503 response.
+ */
+@Component
+public class SessionAuthenticationFilter extends OncePerRequestFilter {
+
+    /** Name of the request attribute holding the authenticated User. */
+    public static final String AUTHENTICATED_USER = "authenticatedUser";
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = request.getHeader("Authorization");
+        if (token != null) {
+            try {
+                request.setAttribute(AUTHENTICATED_USER, sessionService.getUserByToken(token));
+            } catch (DynamoDbException e) {
+                System.err.println("Error resolving session token: " + e.getMessage());
+                response.setStatus(503);
+                response.setContentType("application/json");
+                response.getWriter().write("{\"message\":\"Database error\"}");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -1,21 +1,22 @@
 package com.plantgame.server.controllers;
 
+import com.plantgame.server.config.SessionAuthenticationFilter;
 import com.plantgame.server.models.GameProgress;
 import com.plantgame.server.models.User;
+import com.plantgame.server.services.SessionService;
+import com.plantgame.server.services.UserScanService;
 import com.plantgame.server.utils.LoginResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
-import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 /**
@@ -39,27 +40,16 @@ public class AuthController {
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
-    /**
-     * Retrieves a User object based on the provided token.
-     * Queries the DynamoDB "token-index" to find a user associated with the given token.
-     *
-     * @param token the token associated with the user to be retrieved
-     * @return the User object associated with the given token, or null if no such user is found
-     */
-    private User getUserByToken(String token) {
-        DynamoDbIndex<User> tokenIndex = userTable.index("token-index");
+    @Autowired
+    private SessionService sessionService;
 
-        QueryConditional queryConditional = QueryConditional.keyEqualTo(
-                Key.builder().partitionValue(token).build()
-        );
+    @Autowired
+    private UserScanService userScanService;
 
-        List<User> users = tokenIndex.query(queryConditional)
-                .stream()
-                .flatMap(page -> page.items().stream())
-                .toList();
+    @Autowired
+    private DynamoDbClient dynamoDbClient;
 
-        return users.isEmpty() ? null : users.get(0);
-    }
+    private static final String USER_TABLE_NAME = "Users";
 
     /**
      * Handles user registration by creating a new user record in the database and initializing the
@@ -144,11 +134,13 @@ public class AuthController {
             if (user.getIsPlaying())
                 return ResponseEntity.status(401).body(new LoginResponse(null, "User is already logged in."));
 
-            String token = UUID.randomUUID().toString();
+            String token = sessionService.issueToken(username);
             user.setToken(token);
             user.setIsPlaying(true);
-            user.setLastActiveTime(ZonedDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-            userTable.putItem(user);
+            user.setLastActiveTimeEpoch(System.currentTimeMillis());
+            user.setSimulationBucket(userScanService.simulationBucketFor(username));
+            updateSessionState(user);
+            sessionService.cacheSession(token, user);
 
             return ResponseEntity.ok(new LoginResponse(token, "Login successful."));
         } catch (DynamoDbException e) {
@@ -161,20 +153,24 @@ public class AuthController {
      * Handles the logout process for a user by invalidating their session token.
      * Updates the user's record in the database to reflect the logout status.
      *
-     * @param token the authorization token provided by the user for authentication
+     * @param user the user authenticated from the "Authorization" header, or null if the token is invalid
      * @return a ResponseEntity containing a success message if the logout is successful,
      *         or a relevant error message if the token is invalid or a database error occurs
      */
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, Object>> logout(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<Map<String, Object>> logout(@RequestAttribute(name = SessionAuthenticationFilter.AUTHENTICATED_USER, required = false) User user) {
         try {
-            User user = getUserByToken(token);
             if (user == null)
                 return ResponseEntity.status(401).body(Map.of("message", "Invalid Token"));
 
+            String token = user.getToken();
             user.setToken(null);
             user.setIsPlaying(false);
-            userTable.putItem(user);
+            user.setLastActiveTimeEpoch(System.currentTimeMillis());
+            user.setSimulationBucket(userScanService.simulationBucketFor(user.getUsername()));
+            updateSessionState(user);
+            sessionService.revokeToken(token);
+            sessionService.invalidateUser(user.getUsername());
 
             return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
         } catch (DynamoDbException e) {
@@ -182,6 +178,35 @@ public class AuthController {
             return ResponseEntity.status(503).body(Map.of("message", "Database error"));
         }
     }
-}
 
+    /**
+     * Writes the session attributes of a user (token, isPlaying, lastActiveTime, lastActiveTimeEpoch and
+     * simulationBucket) with a single UpdateItem. The other attributes are left untouched, so nothing
+     * written concurrently by the presence flush or the idle detection is overwritten. A null token is removed.
+     *
+     * @param user the user whose session attributes are written
+     */
+    private void updateSessionState(User user) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":playing", AttributeValue.builder().bool(user.getIsPlaying()).build());
+        values.put(":time", AttributeValue.builder().s(user.getLastActiveTime()).build());
+        values.put(":epoch", AttributeValue.builder().n(String.valueOf(user.getLastActiveTimeEpoch())).build());
+        values.put(":bucket", AttributeValue.builder().s(user.getSimulationBucket()).build());
+        String updateExpression = "SET isPlaying = :playing, lastActiveTime = :time, lastActiveTimeEpoch = :epoch, simulationBucket = :bucket";
+        if (user.getToken() != null) {
+            values.put(":token", AttributeValue.builder().s(user.getToken()).build());
+            updateExpression += ", #token = :token";
+        } else {
+            updateExpression += " REMOVE #token";
+        }
 
+        dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(USER_TABLE_NAME)
+                .key(Map.of("username", AttributeValue.builder().s(user.getUsername()).build()))
+                .updateExpression(updateExpression)
+                .conditionExpression("attribute_exists(username)")
+                .expressionAttributeNames(Map.of("#token", "token"))
+                .expressionAttributeValues(values)
+                .build());
+    }
+}
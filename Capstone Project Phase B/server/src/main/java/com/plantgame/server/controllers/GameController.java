@@ -3,19 +3,28 @@ package com.plantgame.server.controllers;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import com.plantgame.server.config.MissionConfig;
+import com.plantgame.server.config.SessionAuthenticationFilter;
 import com.plantgame.server.models.*;
+import com.plantgame.server.repositories.GameProgressRepository;
+import com.plantgame.server.repositories.MissionRepository;
+import com.plantgame.server.repositories.PlantRepository;
+import com.plantgame.server.services.BatchWriter;
+import com.plantgame.server.services.PlantSimulationService;
+import com.plantgame.server.services.SimulationCadencePolicy;
+import com.plantgame.server.services.SteadyStateDetector;
+import com.plantgame.server.utils.FutureUtils;
 import com.plantgame.server.utils.Vector3;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
-import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
 import static com.plantgame.server.config.MissionConfig.MISSION_TEMPLATES;
@@ -23,7 +32,7 @@ import static com.plantgame.server.config.MissionConfig.MISSION_TEMPLATES;
 /**
  * The GameController class is responsible for handling REST endpoints related to game functionality,
  * including managing user actions, saving and loading game data, and providing mission details. It
- * interacts with AWS DynamoDB via the injected DynamoDbClient to persist and retrieve game-related
+ * interacts with AWS DynamoDB via the injected DynamoDB tables and BatchWriter to persist and retrieve game-related
  * data for users.
  * <p>
  * This class includes methods for user management, saving game progress, retrieving user information,
@@ -41,15 +50,37 @@ public class GameController {
     private DynamoDbTable<GameProgress> gameProgressTable;
 
     @Autowired
-    private DynamoDbTable<Plant> plantTable;
+    private BatchWriter batchWriter;
 
     @Autowired
-    private DynamoDbTable<Mission> missionTable;
+    private SteadyStateDetector steadyStateDetector;
 
     @Autowired
-    private DynamoDbClient dynamoDbClient;
+    private PlantSimulationService plantSimulationService;
+
+    @Autowired
+    private SimulationCadencePolicy simulationCadencePolicy;
+
+    @Autowired
+    private GameProgressRepository gameProgressRepository;
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private MissionRepository missionRepository;
+
+    @Autowired
+    @Qualifier("plantUpdateExecutor")
+    private Executor plantUpdateExecutor;
 
     private static final String PLANT_TABLE_NAME = "Plants";
+
+    /**
+     * Plant attributes that the client refreshes on every save, whether or not the plant changed.
+     * They are ignored when deciding if a saved plant differs from the stored one.
+     */
+    private static final Set<String> SAVE_TIME_ATTRIBUTES = Set.of("lastGrowthUpdate", "lastGrowthUpdateEpoch");
     /**
      * A constant set of valid tool names used within the application for game-related functionalities.
      * This set defines the permissible tools that a user can use or interact with in the system.
@@ -60,39 +91,19 @@ public class GameController {
             "InsecticideSoap", "ShadeTent", "NeemOil", "Fertilizer"
     ));
 
-    /**
-     * Retrieves a User object from the DynamoDB table based on the provided token.
-     * The method queries the "token-index" secondary index to find a matching User entry.
-     *
-     * @param token The token used to identify the user in the "token-index".
-     * @return The User object associated with the given token, or null if no match is found.
-     */
-    private User getUserByToken(String token) {
-        DynamoDbIndex<User> tokenIndex = userTable.index("token-index");
-        QueryConditional queryConditional = QueryConditional.keyEqualTo(
-                Key.builder().partitionValue(token).build()
-        );
-        List<User> users = tokenIndex.query(queryConditional)
-                .stream()
-                .flatMap(page -> page.items().stream())
-                .toList();
-        return users.isEmpty() ? null : users.get(0);
-    }
-
 
     /**
      * Handles a GET request to retrieve user information based on the provided token in the Authorization header.
      * This method validates the token, retrieves the user, and returns their details if authenticated.
      * In case of invalid token or database errors, an appropriate error response is returned.
      *
-     * @param token The Authorization token provided in the request header for identifying the user.
+     * @param user The user authenticated from the "Authorization" header, or null if the token is invalid.
      * @return A ResponseEntity containing a map with user data if the token is valid, or a map with an error message
      *         if the token is invalid or an error occurs during processing.
      */
     @GetMapping("/user")
-    public ResponseEntity<Map<String, Object>> getUser(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<Map<String, Object>> getUser(@RequestAttribute(name = SessionAuthenticationFilter.AUTHENTICATED_USER, required = false) User user) {
         try {
-            User user = getUserByToken(token);
             if (user == null)
                 return ResponseEntity.status(401).body(Map.of("message", "Invalid Token"));
 
@@ -130,7 +141,7 @@ public class GameController {
      * plants, and mission data. Upon successful saving, a response containing a success message is returned.
      * If any errors occur during the process, an appropriate error response is generated.
      *
-     * @param token The Authorization token provided in the header to authenticate the user.
+     * @param user The user authenticated from the "Authorization" header, or null if the token is invalid.
      * @param saveData A map containing the game data to be saved, including:
      *                 - "gameProgress": a map representing the game progress data
      *                 - "plants": a list of maps representing plant data
@@ -140,12 +151,18 @@ public class GameController {
      *         - A map with an error message if an error occurs (e.g., invalid token, database error).
      */
     @PostMapping("/save")
-    public ResponseEntity<Map<String, Object>> saveGame(@RequestHeader("Authorization") String token, @RequestBody Map<String, Object> saveData) {
+    public ResponseEntity<Map<String, Object>> saveGame(@RequestAttribute(name = SessionAuthenticationFilter.AUTHENTICATED_USER, required = false) User user, @RequestBody Map<String, Object> saveData) {
         try {
-            User user = getUserByToken(token);
             if (user == null)
                 return ResponseEntity.status(401).body(Map.of("message", "Invalid Token"));
 
+            // The saved garden may wake up plants that were dormant, and is the new start of its simulation
+            steadyStateDetector.clearUser(user.getUsername());
+            simulationCadencePolicy.clearUser(user.getUsername());
+
+            // Read the stored plants while the game progress is being saved
+            CompletableFuture<List<Plant>> storedPlantsFuture = plantRepository.findByUsername(user.getUsername());
+
             // Save GameProgress
             Map<String, Object> progressData = (Map<String, Object>) saveData.get("gameProgress");
             ResponseEntity<Map<String, Object>> progressResult = saveGameProgress(user, progressData);
@@ -155,7 +172,7 @@ public class GameController {
 
             // Save Plants
             List<Map<String, Object>> plantsData = (List<Map<String, Object>>) saveData.get("plants");
-            ResponseEntity<Map<String, Object>> plantsResult = savePlants(user, plantsData);
+            ResponseEntity<Map<String, Object>> plantsResult = savePlants(user, plantsData, storedPlantsFuture);
             if (plantsResult.getStatusCode().isError()) {
                 return plantsResult;
             }
@@ -200,6 +217,7 @@ public class GameController {
             }
 
             // Update GameProgress fields
+            progress.setLastSaveTimeEpoch(System.currentTimeMillis());
             progress.setLastWeatherUpdate((String) progressData.get("lastWeatherUpdate"));
             progress.setHouseLightsOn((Boolean) progressData.get("houseLightsOn"));
             progress.setHouseAirConditionersOn((Boolean) progressData.get("houseAirConditionersOn"));
@@ -262,132 +280,78 @@ public class GameController {
     }
 
     /**
-     * Saves plant data for a given user. This method handles deleting plants from the database
-     * that are not included in the client request, as well as saving or updating plant data
-     * from the client request. The plant data is processed in batch operations for efficiency.
+     * Saves plant data for a given user. The plants sent by the client are compared with the plants
+     * stored in the database, and only the writes that are actually needed are issued:
+     * - stored plants that are not included in the client request are deleted,
+     * - new plants and plants whose attributes differ from the stored item are put,
+     * - plants identical to the stored item are not written at all.
+     * The growth timestamp, which the client sets to the time of the save on every plant, is not
+     * compared. A plant that is not written keeps its stored timestamp, and the save time recorded in
+     * the GameProgress (see saveGameProgress) tells the simulation that it grew up to the save.
+     * The deletes and puts are sent together in batch operations for efficiency.
      *
      * @param user The user associated with the plant data to be saved.
      * @param plantsData A list of plant data represented as maps, where each map contains
      *                   key-value pairs representing the properties of a plant.
+     * @param storedPlantsFuture The read of the user's stored plants, started by saveGame through the
+     *                           asynchronous PlantRepository so it overlaps with the game progress save.
      * @return A ResponseEntity containing a map with a message indicating the result of the operation.
      */
-    private ResponseEntity<Map<String, Object>> savePlants(User user, List<Map<String, Object>> plantsData) {
+    private ResponseEntity<Map<String, Object>> savePlants(User user, List<Map<String, Object>> plantsData,
+                                                           CompletableFuture<List<Plant>> storedPlantsFuture) {
         try {
-            // Fetch existing plants from database
-            Key plantKey = Key.builder().partitionValue(user.getUsername()).build();
-            QueryConditional queryConditional = QueryConditional.keyEqualTo(plantKey);
-            List<Plant> existingPlants = plantTable.query(queryConditional)
+            // Fetch existing plants from database, indexed by plant ID
+            Map<String, Map<String, AttributeValue>> existingPlants = FutureUtils.join(storedPlantsFuture)
                     .stream()
-                    .flatMap(page -> page.items().stream())
-                    .toList();
+                    .collect(Collectors.toMap(Plant::getPlantId, plant -> withoutSaveTime(plant.toAttributeMap()), (first, second) -> second));
 
-            // Get plant IDs from client request
-            Set<String> clientPlantIds = plantsData != null
-                    ? plantsData.stream()
-                    .map(plantData -> (String) plantData.get("plantId"))
-                    .collect(Collectors.toSet())
-                    : new HashSet<>();
+            // Build plants from client request
+            List<Plant> plants = plantsData != null
+                    ? plantsData.stream().map(plantData -> createPlant(user, plantData)).toList()
+                    : new ArrayList<>();
+            Set<String> clientPlantIds = plants.stream()
+                    .map(Plant::getPlantId)
+                    .collect(Collectors.toSet());
 
             // Identify plants to delete (in database but not in client request)
-            List<WriteRequest> deleteRequests = existingPlants.stream()
-                    .filter(plant -> !clientPlantIds.contains(plant.getPlantId()))
-                    .map(plant -> WriteRequest.builder()
+            List<WriteRequest> writeRequests = existingPlants.keySet().stream()
+                    .filter(plantId -> !clientPlantIds.contains(plantId))
+                    .map(plantId -> WriteRequest.builder()
                             .deleteRequest(DeleteRequest.builder()
                                     .key(Map.of(
-                                            "username", AttributeValue.builder().s(plant.getUsername()).build(),
-                                            "plantId", AttributeValue.builder().s(plant.getPlantId()).build()
+                                            "username", AttributeValue.builder().s(user.getUsername()).build(),
+                                            "plantId", AttributeValue.builder().s(plantId).build()
                                     ))
                                     .build())
                             .build())
                     .collect(Collectors.toList());
-
-            // Perform batch deletes
-            if (!deleteRequests.isEmpty()) {
-                List<List<WriteRequest>> deleteBatches = new ArrayList<>();
-                for (int i = 0; i < deleteRequests.size(); i += 25) {
-                    deleteBatches.add(deleteRequests.subList(i, Math.min(i + 25, deleteRequests.size())));
+            int deletedPlants = writeRequests.size();
+
+            // Identify plants to put (new or different from the stored item)
+            int unchangedPlants = 0;
+            for (Plant plant : plants) {
+                Map<String, AttributeValue> item = plant.toAttributeMap();
+                if (withoutSaveTime(item).equals(existingPlants.get(plant.getPlantId()))) {
+                    unchangedPlants++;
+                    continue;
                 }
-
-                for (List<WriteRequest> batch : deleteBatches) {
-                    try {
-                        BatchWriteItemResponse response = dynamoDbClient.batchWriteItem(
-                                BatchWriteItemRequest.builder()
-                                        .requestItems(Map.of(PLANT_TABLE_NAME, batch))
-                                        .build()
-                        );
-                        if (!response.unprocessedItems().isEmpty()) {
-                            System.err.println("Unprocessed delete items: " + response.unprocessedItems());
-                        } else {
-                            System.out.println("Deleted " + batch.size() + " plants for user " + user.getUsername());
-                        }
-                    } catch (DynamoDbException e) {
-                        System.err.println("Error batch deleting plants: " + e.getMessage());
-                    }
-                }
-            }
-
-            // Save or update plants from the client
-            if (plantsData != null && !plantsData.isEmpty()) {
-                List<Plant> plants = plantsData.stream().map(plantData -> {
-                    Plant plant = new Plant();
-                    plant.setUsername(user.getUsername());
-                    plant.setPlantId((String) plantData.get("plantId"));
-                    plant.setPlantName((String) plantData.get("plantName"));
-                    plant.setPlantingLocationType((String) plantData.get("plantingLocationType"));
-                    Map<String, Object> position = (Map<String, Object>) plantData.get("position");
-                    plant.setPosition(new Vector3(
-                            ((Number) position.get("x")).floatValue(),
-                            ((Number) position.get("y")).floatValue(),
-                            ((Number) position.get("z")).floatValue()
-                    ));
-                    plant.setScale(((Number) plantData.get("scale")).doubleValue());
-                    plant.setMoistureLevel(((Number) plantData.get("moistureLevel")).floatValue());
-                    plant.setLastGrowthUpdate((String) plantData.get("lastGrowthUpdate"));
-                    plant.setLastDiseaseCheck((String) plantData.get("lastDiseaseCheck"));
-                    plant.setDisease((String) plantData.get("disease"));
-                    plant.setDiseaseProgress(((Number) plantData.get("diseaseProgress")).floatValue());
-                    plant.setDiseaseSlowingGrowthFactor(((Number) plantData.get("diseaseSlowingGrowthFactor")).floatValue());
-                    plant.setShadeTentCounter(((Number) plantData.getOrDefault("shadeTentCounter", 0)).floatValue());
-                    plant.setPlantableArea((String) plantData.get("plantableArea"));
-                    plant.setReachedMaxScale((Boolean) plantData.get("reachedMaxScale"));
-                    plant.setNutrientLevel(((Number) plantData.getOrDefault("nutrientLevel", 0)).floatValue());
-                    plant.setRemainingEffectTime(((Number) plantData.getOrDefault("remainingEffectTime", 0)).floatValue());
-                            plant.setFertilizerName((String) plantData.get("fertilizerName"));
-                    return plant;
-                }).toList();
-
-                // Batch-write plants
-                List<WriteRequest> writeRequests = plants.stream()
-                        .map(plant -> WriteRequest.builder()
-                                .putRequest(PutRequest.builder()
-                                        .item(plant.toAttributeMap())
-                                        .build())
+                writeRequests.add(WriteRequest.builder()
+                        .putRequest(PutRequest.builder()
+                                .item(item)
                                 .build())
-                        .collect(Collectors.toList());
-
-                // Split into batches of 25
-                List<List<WriteRequest>> batches = new ArrayList<>();
-                for (int i = 0; i < writeRequests.size(); i += 25) {
-                    batches.add(writeRequests.subList(i, Math.min(i + 25, writeRequests.size())));
-                }
+                        .build());
+            }
 
-                // Perform batch writes
-                for (List<WriteRequest> batch : batches) {
-                    try {
-                        BatchWriteItemResponse response = dynamoDbClient.batchWriteItem(
-                                BatchWriteItemRequest.builder()
-                                        .requestItems(Map.of(PLANT_TABLE_NAME, batch))
-                                        .build()
-                        );
-                        if (!response.unprocessedItems().isEmpty()) {
-                            System.err.println("Unprocessed write items: " + response.unprocessedItems());
-                        }
-                    } catch (DynamoDbException e) {
-                        System.err.println("Error batch writing plants: " + e.getMessage());
-                        return ResponseEntity.status(503).body(Map.of("message", "Error saving plants"));
-                    }
+            // Perform batch writes (batches of 25, unprocessed items are retried)
+            if (!writeRequests.isEmpty()) {
+                BatchWriter.Result writeResult = batchWriter.writeAll(PLANT_TABLE_NAME, writeRequests);
+                if (!writeResult.isSuccessful()) {
+                    System.err.println("Failed to write " + writeResult.getItemsFailed() + " plants for user " + user.getUsername());
+                    return ResponseEntity.status(503).body(Map.of("message", "Error saving plants"));
                 }
             }
+            System.out.println("Saved plants for user " + user.getUsername() + ": " + (writeRequests.size() - deletedPlants) +
+                    " new or changed, " + deletedPlants + " deleted, " + unchangedPlants + " unchanged");
 
             return ResponseEntity.ok(Map.of("message", "Plants saved successfully"));
         } catch (DynamoDbException e) {
@@ -396,6 +360,53 @@ public class GameController {
         }
     }
 
+    /**
+     * Returns a copy of a plant item without the attributes that change on every save.
+     *
+     * @param item The attribute map of a plant.
+     * @return The attribute map without the SAVE_TIME_ATTRIBUTES.
+     */
+    private static Map<String, AttributeValue> withoutSaveTime(Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> state = new HashMap<>(item);
+        state.keySet().removeAll(SAVE_TIME_ATTRIBUTES);
+        return state;
+    }
+
+    /**
+     * Creates a plant of the given user from the plant data sent by the client.
+     *
+     * @param user The user who owns the plant.
+     * @param plantData A map containing key-value pairs representing the properties of the plant.
+     * @return The plant built from the client data.
+     */
+    private Plant createPlant(User user, Map<String, Object> plantData) {
+        Plant plant = new Plant();
+        plant.setUsername(user.getUsername());
+        plant.setPlantId((String) plantData.get("plantId"));
+        plant.setPlantName((String) plantData.get("plantName"));
+        plant.setPlantingLocationType((String) plantData.get("plantingLocationType"));
+        Map<String, Object> position = (Map<String, Object>) plantData.get("position");
+        plant.setPosition(new Vector3(
+                ((Number) position.get("x")).floatValue(),
+                ((Number) position.get("y")).floatValue(),
+                ((Number) position.get("z")).floatValue()
+        ));
+        plant.setScale(((Number) plantData.get("scale")).doubleValue());
+        plant.setMoistureLevel(((Number) plantData.get("moistureLevel")).floatValue());
+        plant.setLastGrowthUpdate((String) plantData.get("lastGrowthUpdate"));
+        plant.setLastDiseaseCheck((String) plantData.get("lastDiseaseCheck"));
+        plant.setDisease((String) plantData.get("disease"));
+        plant.setDiseaseProgress(((Number) plantData.get("diseaseProgress")).floatValue());
+        plant.setDiseaseSlowingGrowthFactor(((Number) plantData.get("diseaseSlowingGrowthFactor")).floatValue());
+        plant.setShadeTentCounter(((Number) plantData.getOrDefault("shadeTentCounter", 0)).floatValue());
+        plant.setPlantableArea((String) plantData.get("plantableArea"));
+        plant.setReachedMaxScale((Boolean) plantData.get("reachedMaxScale"));
+        plant.setNutrientLevel(((Number) plantData.getOrDefault("nutrientLevel", 0)).floatValue());
+        plant.setRemainingEffectTime(((Number) plantData.getOrDefault("remainingEffectTime", 0)).floatValue());
+        plant.setFertilizerName((String) plantData.get("fertilizerName"));
+        return plant;
+    }
+
     /**
      * Saves mission data for the specified user. This method initializes missions if none exist for the user,
      * updates the mission progress based on the provided data, and saves the updated missions to the database.
@@ -413,15 +424,10 @@ public class GameController {
     private ResponseEntity<Map<String, Object>> saveMissions(User user, List<Map<String, Object>> missionsData) {
         try {
             // Initialize missions if none exist
-            List<Mission> missions = loadMissions(user.getUsername());
-            if (missions.isEmpty()) {
-                missions = initializeMissions(user.getUsername());
-                for (Mission mission : missions) {
-                    missionTable.putItem(mission);
-                }
-            }
+            List<Mission> missions = FutureUtils.join(loadOrInitializeMissions(user.getUsername()));
 
-            // Update mission progress
+            // Update mission progress, writing the changed missions concurrently
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
             if (missionsData != null) {
                 for (Map<String, Object> missionData : missionsData) {
                     String missionId = (String) missionData.get("missionId");
@@ -446,9 +452,10 @@ public class GameController {
                     Number targetProgress = (Number) missionData.get("targetProgress");
                     if (targetProgress != null) mission.setTargetProgress(targetProgress.intValue());
 
-                    missionTable.putItem(mission);
+                    writes.add(missionRepository.save(mission));
                 }
             }
+            FutureUtils.join(CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])));
 
             return ResponseEntity.ok(Map.of("message", "Missions saved successfully"));
         } catch (DynamoDbException e) {
@@ -462,78 +469,84 @@ public class GameController {
      * This method validates the user's token, checks the mission's eligibility for claiming,
      * updates the user's game progress based on points earned, and resets or progresses the mission status.
      * It returns appropriate error messages for invalid inputs, database errors, or ineligible missions.
+     * The mission and the game progress are read concurrently, and written concurrently, through the
+     * asynchronous repositories.
      *
-     * @param token The Authorization token provided in the request header to authenticate the user.
+     * @param user The user authenticated from the "Authorization" header, or null if the token is invalid.
      * @param request A map containing the mission details, expected to include:
      *                - "missionId": The unique identifier of the mission being claimed.
-     * @return A ResponseEntity containing:
+     * @return A future completed with a ResponseEntity containing:
      *         - A map with a success message, the updated total points, and the mission details if the claim is successful.
      *         - A map with an error message and an appropriate HTTP status if the claim operation fails (e.g., invalid token,
      *           missing missionId, mission not found, mission not completed, mission already claimed, database error).
      */
     @PostMapping("/claim-mission")
-    public ResponseEntity<Map<String, Object>> claimMission(@RequestHeader("Authorization") String token, @RequestBody Map<String, String> request) {
-        try {
-            User user = getUserByToken(token);
-            if (user == null)
-                return ResponseEntity.status(401).body(Map.of("message", "Invalid Token"));
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> claimMission(@RequestAttribute(name = SessionAuthenticationFilter.AUTHENTICATED_USER, required = false) User user, @RequestBody Map<String, String> request) {
+        if (user == null)
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body(Map.of("message", "Invalid Token")));
 
-            String missionId = request.get("missionId");
-            if (missionId == null)
-                return ResponseEntity.status(400).body(Map.of("message", "Missing missionId"));
+        String missionId = request.get("missionId");
+        if (missionId == null)
+            return CompletableFuture.completedFuture(ResponseEntity.status(400).body(Map.of("message", "Missing missionId")));
 
-            Key missionKey = Key.builder()
-                    .partitionValue(user.getUsername())
-                    .sortValue(missionId)
-                    .build();
-            Mission mission = missionTable.getItem(missionKey);
-            if (mission == null)
-                return ResponseEntity.status(404).body(Map.of("message", "Mission not found"));
+        // Read the mission and the game progress concurrently
+        CompletableFuture<Mission> missionFuture = missionRepository.findById(user.getUsername(), missionId);
+        CompletableFuture<GameProgress> progressFuture = gameProgressRepository.findByUsername(user.getUsername());
 
-            if (!mission.isCompleted())
-                return ResponseEntity.status(400).body(Map.of("message", "Mission not completed"));
-            if (mission.getPointsReward() == 0)
-                return ResponseEntity.status(400).body(Map.of("message", "Mission already claimed"));
+        return missionFuture.thenCombine(progressFuture, (mission, progress) -> claimMission(missionId, mission, progress))
+                .thenCompose(claim -> claim)
+                .exceptionally(error -> databaseError(error, "Error claiming mission", Map.of("message", "Database error")));
+    }
 
-            // Update points in GameProgress
-            Key progressKey = Key.builder().partitionValue(user.getUsername()).sortValue("default").build();
-            GameProgress progress = gameProgressTable.getItem(progressKey);
-            if (progress == null)
-                return ResponseEntity.status(404).body(Map.of("message", "Game progress not found"));
-
-            progress.setPoints(progress.getPoints() + mission.getPointsReward());
-            mission.setPointsReward(0);
-
-            // Handle mission progression
-            if (mission.getType().equals("Permanent")) {
-                MissionConfig.MissionTemplate template = MISSION_TEMPLATES.stream()
-                        .filter(t -> t.missionId.equals(missionId))
-                        .findFirst()
-                        .orElse(null);
-                if (template != null) {
-                    int currentIndex = Arrays.binarySearch(template.targetProgress, mission.getTargetProgress());
-                    if (currentIndex >= 0 && currentIndex + 1 < template.targetProgress.length) {
-                        mission.setTargetProgress(template.targetProgress[currentIndex + 1]);
-                        mission.setDescription(String.format(template.descriptionFormat, mission.getTargetProgress()));
-                        mission.setPointsReward(template.pointsReward);
-                        mission.setCompleted(false);
-                    }
+    /**
+     * Claims a mission once it and the user's game progress have been read, and writes both back.
+     *
+     * @param missionId the id of the mission being claimed
+     * @param mission the stored mission, or null if the user has no such mission
+     * @param progress the stored game progress, or null if the user has none
+     * @return a future completed with the response once the mission and the game progress have been written
+     */
+    private CompletableFuture<ResponseEntity<Map<String, Object>>> claimMission(String missionId, Mission mission, GameProgress progress) {
+        if (mission == null)
+            return CompletableFuture.completedFuture(ResponseEntity.status(404).body(Map.of("message", "Mission not found")));
+
+        if (!mission.isCompleted())
+            return CompletableFuture.completedFuture(ResponseEntity.status(400).body(Map.of("message", "Mission not completed")));
+        if (mission.getPointsReward() == 0)
+            return CompletableFuture.completedFuture(ResponseEntity.status(400).body(Map.of("message", "Mission already claimed")));
+
+        // Update points in GameProgress
+        if (progress == null)
+            return CompletableFuture.completedFuture(ResponseEntity.status(404).body(Map.of("message", "Game progress not found")));
+
+        progress.setPoints(progress.getPoints() + mission.getPointsReward());
+        mission.setPointsReward(0);
+
+        // Handle mission progression
+        if (mission.getType().equals("Permanent")) {
+            MissionConfig.MissionTemplate template = MISSION_TEMPLATES.stream()
+                    .filter(t -> t.missionId.equals(missionId))
+                    .findFirst()
+                    .orElse(null);
+            if (template != null) {
+                int currentIndex = Arrays.binarySearch(template.targetProgress, mission.getTargetProgress());
+                if (currentIndex >= 0 && currentIndex + 1 < template.targetProgress.length) {
+                    mission.setTargetProgress(template.targetProgress[currentIndex + 1]);
+                    mission.setDescription(String.format(template.descriptionFormat, mission.getTargetProgress()));
+                    mission.setPointsReward(template.pointsReward);
+                    mission.setCompleted(false);
                 }
-            } else {
-                mission.setCompleted(false);
             }
-
-            gameProgressTable.putItem(progress);
-            missionTable.putItem(mission);
-            return ResponseEntity.ok(Map.of(
-                    "message", "Mission claimed",
-                    "points", progress.getPoints(),
-                    "mission", mission
-            ));
-        } catch (DynamoDbException e) {
-            System.err.println("Error claiming mission: " + e.getMessage());
-            return ResponseEntity.status(503).body(Map.of("message", "Database error"));
+        } else {
+            mission.setCompleted(false);
         }
+
+        return CompletableFuture.allOf(gameProgressRepository.save(progress), missionRepository.save(mission))
+                .thenApply(done -> ResponseEntity.ok(Map.of(
+                        "message", "Mission claimed",
+                        "points", progress.getPoints(),
+                        "mission", mission
+                )));
     }
 
     /**
@@ -543,48 +556,56 @@ public class GameController {
      * for the user. Returns appropriate error responses for invalid tokens or issues
      * with database interaction.
      *
-     * @param token The Authorization token provided in the request header to authenticate the user.
-     * @return A ResponseEntity containing:
+     * @param user The user authenticated from the "Authorization" header, or null if the token is invalid.
+     * @return A future completed with a ResponseEntity containing:
      *         - A list of missions associated with the authenticated user if successful.
      *         - A null body and HTTP status 401 if the token is invalid or the user is not authenticated.
      *         - A null body and HTTP status 503 if a database error occurs while retrieving missions.
      */
     @GetMapping("/missions")
-    public ResponseEntity<List<Mission>> getMissions(@RequestHeader("Authorization") String token) {
-        try {
-            User user = getUserByToken(token);
-            if (user == null)
-                return ResponseEntity.status(401).body(null);
-
-            // Load missions
-            List<Mission> missions = loadMissions(user.getUsername());
-            if (missions.isEmpty()) {
-                missions = initializeMissions(user.getUsername());
-                for (Mission mission : missions) {
-                    missionTable.putItem(mission);
-                }
-            }
-            return ResponseEntity.ok(missions);
-        } catch (DynamoDbException e) {
-            System.err.println("Error loading missions: " + e.getMessage());
-            return ResponseEntity.status(503).build();
-        }
+    public CompletableFuture<ResponseEntity<List<Mission>>> getMissions(@RequestAttribute(name = SessionAuthenticationFilter.AUTHENTICATED_USER, required = false) User user) {
+        if (user == null)
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body(null));
+
+        return loadOrInitializeMissions(user.getUsername())
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(error -> databaseError(error, "Error loading missions", null));
     }
 
     /**
-     * Loads the list of missions associated with the specified username from the database.
-     * This method queries the mission table using the provided username as a key.
+     * Loads the missions of a user through the MissionRepository. A user without missions gets the
+     * missions of the templates, which are written concurrently before the future completes.
      *
      * @param username The username used to retrieve the missions from the database.
-     * @return A list of Mission objects associated with the specified username.
+     * @return A future completed with the Mission objects associated with the specified username.
+     */
+    private CompletableFuture<List<Mission>> loadOrInitializeMissions(String username) {
+        return missionRepository.findByUsername(username).thenCompose(missions -> {
+            if (!missions.isEmpty())
+                return CompletableFuture.completedFuture(missions);
+            List<Mission> newMissions = initializeMissions(username);
+            return CompletableFuture.allOf(newMissions.stream()
+                            .map(missionRepository::save)
+                            .toArray(CompletableFuture[]::new))
+                    .thenApply(done -> newMissions);
+        });
+    }
+
+    /**
+     * Answers a failed asynchronous request. A DynamoDbException is logged and answered with a 503
+     * status; any other exception is rethrown.
+     *
+     * @param error the exception the request failed with
+     * @param message the message logged with the DynamoDbException
+     * @param body the body of the 503 response
+     * @return the 503 response
      */
-    private List<Mission> loadMissions(String username) {
-        Key key = Key.builder().partitionValue(username).build();
-        QueryConditional queryConditional = QueryConditional.keyEqualTo(key);
-        return missionTable.query(queryConditional)
-                .stream()
-                .flatMap(page -> page.items().stream())
-                .toList();
+    private static <T> ResponseEntity<T> databaseError(Throwable error, String message, T body) {
+        RuntimeException cause = FutureUtils.unwrap(error);
+        if (!(cause instanceof DynamoDbException))
+            throw cause;
+        System.err.println(message + ": " + cause.getMessage());
+        return ResponseEntity.status(503).body(body);
     }
 
     /**
@@ -620,49 +641,42 @@ public class GameController {
      * The method retrieves game progress, plants, and missions associated with the user and
      * constructs the complete game state. If no game progress is found, an empty game state
      * is returned. If no missions are found, new missions are initialized and saved.
+     * The game progress, plants and missions do not depend on each other, so they are read
+     * concurrently through the asynchronous repositories, and the response is composed from their
+     * futures: no thread is held while the reads and writes are in flight, and the load takes about
+     * one round trip.
+     * In on-read simulation mode, the plants are first brought up to date with the stored weather
+     * and the changes are written back before the response is sent. The simulation runs on the
+     * "plantUpdateExecutor" pool rather than on the SDK thread that completed the plant read.
      *
-     * @param token the authorization token identifying the user whose game state is to be loaded
-     * @return a ResponseEntity containing the complete GameState object for the user, or an empty
-     *         GameState if no progress exists. Returns a 401 status if the user cannot be authenticated
-     *         and a 503 status if a DynamoDB error occurs.
+     * @param user the user authenticated from the "Authorization" header, or null if the token is invalid
+     * @return a future completed with a ResponseEntity containing the complete GameState object for the user,
+     *         or an empty GameState if no progress exists. Returns a 401 status if the user cannot be
+     *         authenticated and a 503 status if a DynamoDB error occurs.
      */
     @GetMapping("/load")
-    public ResponseEntity<GameState> loadGame(@RequestHeader("Authorization") String token) {
-        try {
-            // Authenticate user using token
-            User user = getUserByToken(token);
-            if (user == null)
-                return ResponseEntity.status(401).body(null);
+    public CompletableFuture<ResponseEntity<GameState>> loadGame(@RequestAttribute(name = SessionAuthenticationFilter.AUTHENTICATED_USER, required = false) User user) {
+        if (user == null)
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body(null));
 
-            // Load GameProgress
-            Key progressKey = Key.builder().partitionValue(user.getUsername()).sortValue("default").build();
-            GameProgress progress = gameProgressTable.getItem(progressKey);
+        // Load GameProgress, Plants and Missions concurrently
+        String username = user.getUsername();
+        CompletableFuture<GameProgress> progressFuture = gameProgressRepository.findByUsername(username);
+        CompletableFuture<List<Plant>> plantsFuture = plantRepository.findByUsername(username);
+        CompletableFuture<List<Mission>> missionsFuture = loadOrInitializeMissions(username);
+
+        return progressFuture.thenCompose(progress -> {
             if (progress == null)
-                return ResponseEntity.ok(new GameState()); // Return an empty GameState if no progress exists
+                return CompletableFuture.completedFuture(ResponseEntity.ok(new GameState())); // Return an empty GameState if no progress exists
 
-            // Load Plants
-            Key plantKey = Key.builder().partitionValue(user.getUsername()).build();
-            QueryConditional queryConditional = QueryConditional.keyEqualTo(plantKey);
-            List<Plant> plants = plantTable.query(queryConditional)
-                    .stream()
-                    .flatMap(page -> page.items().stream())
-                    .toList();
-
-            List<Mission> missions = loadMissions(user.getUsername());
-            if (missions.isEmpty()) {
-                missions = initializeMissions(user.getUsername());
-                for (Mission mission : missions) {
-                    missionTable.putItem(mission);
-                }
-            }
+            CompletableFuture<List<Plant>> loadedPlants = simulationCadencePolicy.isOnReadMode()
+                    ? plantsFuture.thenComposeAsync(plants -> plantSimulationService.catchUpOnRead(username, progress, plants).thenApply(done -> plants),
+                            plantUpdateExecutor)
+                    : plantsFuture;
 
             // Construct GameState
-            GameState gameState = getGameState(progress, plants, missions);
-            return ResponseEntity.ok(gameState);
-        } catch (DynamoDbException e) {
-            System.err.println("DynamoDB error while loading game state: " + e.getMessage());
-            return ResponseEntity.status(503).build();
-        }
+            return loadedPlants.thenCombine(missionsFuture, (plants, missions) -> ResponseEntity.ok(getGameState(progress, plants, missions)));
+        }).exceptionally(error -> databaseError(error, "DynamoDB error while loading game state", null));
     }
 
     /**
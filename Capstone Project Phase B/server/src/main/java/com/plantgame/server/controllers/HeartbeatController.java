@@ -1,22 +1,15 @@
 package com.plantgame.server.controllers;
 
+import com.plantgame.server.config.SessionAuthenticationFilter;
 import com.plantgame.server.models.User;
+import com.plantgame.server.services.PresenceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.Key;
-import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
-import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -28,55 +21,27 @@ import java.util.Map;
 public class HeartbeatController {
 
     @Autowired
-    private DynamoDbTable<User> userTable;
-
-    /**
-     * Retrieves a user associated with the specified token by querying the "token-index" in the DynamoDB table.
-     *
-     * @param token the unique token used to identify the user in the "token-index"
-     * @return the User object associated with the token, or null if no matching user is found
-     */
-    private User getUserByToken(String token) {
-        DynamoDbIndex<User> tokenIndex = userTable.index("token-index");
-
-        QueryConditional queryConditional = QueryConditional.keyEqualTo(
-                Key.builder().partitionValue(token).build()
-        );
-
-        List<User> users = tokenIndex.query(queryConditional)
-                .stream()
-                .flatMap(page -> page.items().stream())
-                .toList();
-
-        return users.isEmpty() ? null : users.get(0);
-    }
+    private PresenceService presenceService;
 
     /**
      * Handles a POST request to verify a user's session and update their last activity timestamp.
-     * If the provided token is valid, the method updates the user's last active time in the database
-     * and returns a response indicating success. If the token is invalid or a database error occurs,
-     * appropriate error responses are returned.
+     * If the provided token is valid, the method records the user's last active time with the
+     * PresenceService, which writes it to the database with its next periodic flush, and returns a
+     * response indicating success. If the token is invalid, an error response is returned.
      *
-     * @param token the authorization token of the user sent in the "Authorization" header
+     * @param user the user authenticated from the "Authorization" header, or null if the token is invalid
      * @return a ResponseEntity containing:
      *         - a success message with a timestamp if the operation succeeds
-     *         - an error message if the token is invalid or if a database error occurs
+     *         - an error message if the token is invalid
      */
     @PostMapping
-    public ResponseEntity<?> ping(@RequestHeader("Authorization") String token) {
-        try {
-            User user = getUserByToken(token);
-            if (user == null)
-                return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+    public ResponseEntity<?> ping(@RequestAttribute(name = SessionAuthenticationFilter.AUTHENTICATED_USER, required = false) User user) {
+        if (user == null)
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
 
-            String now = ZonedDateTime.now(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-            user.setLastActiveTime(now);
-            userTable.putItem(user);
+        presenceService.recordHeartbeat(user, System.currentTimeMillis());
 
-            return ResponseEntity.ok(Map.of("status", "pong", "timestamp", now));
-        } catch (DynamoDbException e) {
-            return ResponseEntity.status(503).body(Map.of("error", "Database error"));
-        }
+        return ResponseEntity.ok(Map.of("status", "pong", "timestamp", user.getLastActiveTime()));
     }
 
 }
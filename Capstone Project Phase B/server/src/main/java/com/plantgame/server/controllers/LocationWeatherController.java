@@ -2,7 +2,9 @@ package com.plantgame.server.controllers;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plantgame.server.config.SessionAuthenticationFilter;
 import com.plantgame.server.models.*;
+import com.plantgame.server.services.SessionService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -29,11 +31,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
-import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 
 /**
  * The LocationWeatherController handles API endpoints for setting user location
@@ -47,7 +50,10 @@ import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 public class LocationWeatherController {
 
     @Autowired
-    private DynamoDbTable<User> userTable;
+    private DynamoDbClient dynamoDbClient;
+
+    @Autowired
+    private SessionService sessionService;
 
     @Autowired
     private DynamoDbTable<GameProgress> gameProgressTable;
@@ -58,48 +64,26 @@ public class LocationWeatherController {
     @Value("${weatherapi.api.key}")
     private String WEATHERAPI_API_KEY;
 
+    private static final String USER_TABLE_NAME = "Users";
+
     private final HttpClient httpClient = HttpClient.newHttpClient();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    /**
-     * Retrieves a User object from the database using the provided token. The token is used as a
-     * partition key to query the "token-index" secondary index in the DynamoDB table.
-     *
-     * @param token the token associated with a user, used as the partition key for the query
-     * @return the user associated with the token, or null if no user is found
-     */
-    private User getUserByToken(String token) {
-        DynamoDbIndex<User> tokenIndex = userTable.index("token-index");
-
-        QueryConditional queryConditional = QueryConditional.keyEqualTo(
-                Key.builder().partitionValue(token).build()
-        );
-
-        List<User> users = tokenIndex.query(queryConditional)
-                .stream()
-                .flatMap(page -> page.items().stream())
-                .toList();
-
-        return users.isEmpty() ? null : users.get(0);
-    }
-
     /**
      * Sets the location information (country, city, latitude, and longitude) for the user based on the input
      * data and updates it in the database. If the location is already set and matches the input data, it
      * retrieves the cached location values. Otherwise, the method uses the OpenWeatherMap API for geocoding
      * to fetch latitude and longitude and stores them for the user.
      *
-     * @param token the authorization token used to identify the user in the database
+     * @param user the user authenticated from the "Authorization" header, or null if the token is invalid
      * @param locationData a map containing "country" and "city" strings to represent the user's location
      * @return a ResponseEntity containing a map with the updated location details or an error message
      */
     @PostMapping("/location")
     public ResponseEntity<Map<String, Object>> setLocation(
-            @RequestHeader("Authorization") String token,
+            @RequestAttribute(name = SessionAuthenticationFilter.AUTHENTICATED_USER, required = false) User user,
             @RequestBody Map<String, String> locationData) {
         try {
-            // Fetch user by token
-            User user = getUserByToken(token);
             if (user == null)
                 return ResponseEntity.status(401).body(Map.of("message", "Invalid token"));
 
@@ -139,12 +123,25 @@ public class LocationWeatherController {
             double latitude = geocodingResult.get(0).get("lat").asDouble();
             double longitude = geocodingResult.get(0).get("lon").asDouble();
 
-            // Update user with location
-            user.setCountry(country);
-            user.setCity(city);
-            user.setLatitude(latitude);
-            user.setLongitude(longitude);
-            userTable.putItem(user);
+            // Update user with location, writing only the location attributes
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(USER_TABLE_NAME)
+                    .key(Map.of("username", AttributeValue.builder().s(user.getUsername()).build()))
+                    .updateExpression("SET country = :country, city = :city, latitude = :latitude, longitude = :longitude")
+                    .conditionExpression("attribute_exists(username)")
+                    .expressionAttributeValues(Map.of(
+                            ":country", AttributeValue.builder().s(country).build(),
+                            ":city", AttributeValue.builder().s(city).build(),
+                            ":latitude", AttributeValue.builder().n(String.valueOf(latitude)).build(),
+                            ":longitude", AttributeValue.builder().n(String.valueOf(longitude)).build()
+                    ))
+                    .build());
+            sessionService.updateCachedUser(user.getUsername(), cachedUser -> {
+                cachedUser.setCountry(country);
+                cachedUser.setCity(city);
+                cachedUser.setLatitude(latitude);
+                cachedUser.setLongitude(longitude);
+            });
 
             Map<String, Object> result = new HashMap<>();
             result.put("country", country);
@@ -167,14 +164,13 @@ public class LocationWeatherController {
      * the authorization token, fetches location details, retrieves weather data from an external
      * service, processes it, and returns the weather information along with relevant statistics.
      *
-     * @param token the authorization token used to authenticate the user and retrieve their details
+     * @param user the user authenticated from the "Authorization" header, or null if the token is invalid
      * @return a ResponseEntity containing a map with weather information or an appropriate error message
      */
     @GetMapping("/weather")
-    public ResponseEntity<Map<String, Object>> getWeather(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<Map<String, Object>> getWeather(@RequestAttribute(name = SessionAuthenticationFilter.AUTHENTICATED_USER, required = false) User user) {
         try {
-            // Step 1: Validate token and fetch user
-            User user = getUserByToken(token);
+            // Step 1: Validate the user resolved from the token
             if (user == null)
                 return ResponseEntity.status(401).body(Map.of("message", "Invalid token"));
 
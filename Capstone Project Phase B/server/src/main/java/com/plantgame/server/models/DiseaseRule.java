@@ -0,0 +1,257 @@
+package com.plantgame.server.models;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compiled disease rule: the condition under which a disease can start and progress, the
+ * probability that it starts at an hourly check, and how much it slows growth at full progress.
+ * <p>
+ * The condition is a conjunction of clauses, each comparing one input of the check (effective
+ * moisture, effective humidity, temperature or natural light level) with a threshold. A rule can
+ * additionally be limited to plants planted in the Ground; that limit only applies to onset.
+ * <p>
+ * Rules are compiled per plant type from PlantType.diseaseThresholds, so diseases and species can
+ * be added in the PlantTypes table without a redeploy. Keys have the form "Disease.setting":
+ * - "RootRot.moisture.above", "SpiderMites.humidity.below", "Mealybugs.temperature.above",
+ *   "LeafBurn.light.above": a clause of the condition.
+ * - "RootRot.probability": the onset probability per check (0 if absent).
+ * - "RootRot.slowdown": the growth lost at full progress, e.g. 0.5 for a factor going from 1 to 0.5.
+ * - "RootRot.order": the position of the rule among the plant type's rules (rules are tried in order).
+ * - "LeafBurn.groundOnly": 1 if the disease can only start on plants in the Ground.
+ * Plant types without such keys use the built-in catalog bundled as "disease-catalog.properties",
+ * which holds the original rules of each species in the same form. Its clauses may name a legacy
+ * threshold key of the plant type (e.g. "rootRotMoistureThreshold") instead of a number.
+ * Unknown settings are ignored, and each is logged once per plant type rather than on every compile.
+ * A plant type with neither kind of rules is logged once as having no diseases.
+ */
+public class DiseaseRule {
+    public static final int MOISTURE = 0;
+    public static final int HUMIDITY = 1;
+    public static final int TEMPERATURE = 2;
+    public static final int LIGHT = 3;
+
+    private static final DiseaseRule[] NO_RULES = new DiseaseRule[0];
+    private static final String BUILT_IN_CATALOG_RESOURCE = "/disease-catalog.properties";
+    private static final Map<String, Map<String, String>> BUILT_IN_CATALOG = loadBuiltInCatalog();
+    private static final Set<String> reportedUnknownSettings = ConcurrentHashMap.newKeySet();
+    private static final Set<String> reportedPlantsWithoutRules = ConcurrentHashMap.newKeySet();
+
+    private final String disease;
+    private final float probability;
+    private final float slowdown;
+    private final boolean groundOnly;
+    private final int[] inputs;
+    private final boolean[] above;
+    private final float[] thresholds;
+
+    private DiseaseRule(String disease, float probability, float slowdown, boolean groundOnly, List<float[]> clauses) {
+        this.disease = disease;
+        this.probability = probability;
+        this.slowdown = slowdown;
+        this.groundOnly = groundOnly;
+        this.inputs = new int[clauses.size()];
+        this.above = new boolean[clauses.size()];
+        this.thresholds = new float[clauses.size()];
+        for (int i = 0; i < clauses.size(); i++) {
+            float[] clause = clauses.get(i);
+            inputs[i] = (int) clause[0];
+            above[i] = clause[1] > 0;
+            thresholds[i] = clause[2];
+        }
+    }
+
+    public String getDisease() {
+        return disease;
+    }
+
+    public float getProbability() {
+        return probability;
+    }
+
+    /**
+     * Returns the growth slowing factor of a plant with this disease at the given progress,
+     * interpolating from 1 at no progress to 1 - slowdown at full progress.
+     *
+     * @param diseaseProgress the disease progress, from 0 to 1
+     * @return the growth slowing factor
+     */
+    public float getSlowingGrowthFactor(float diseaseProgress) {
+        return 1f - (diseaseProgress * slowdown);
+    }
+
+    /**
+     * Checks whether the disease can start on a plant under the given conditions.
+     *
+     * @param groundPlant whether the plant is planted in the Ground
+     * @param moisture the effective moisture of the plant
+     * @param humidity the effective humidity of the plant's location
+     * @param temperature the temperature of the current hour
+     * @param light the natural light level of the current hour
+     * @return true if the condition holds and the rule applies to the plant's location
+     */
+    public boolean canStart(boolean groundPlant, float moisture, float humidity, float temperature, float light) {
+        return (!groundOnly || groundPlant) && conditionHolds(moisture, humidity, temperature, light);
+    }
+
+    /**
+     * Checks whether every clause of the rule's condition holds. A NaN threshold never holds.
+     *
+     * @param moisture the effective moisture of the plant
+     * @param humidity the effective humidity of the plant's location
+     * @param temperature the temperature of the current hour
+     * @param light the natural light level of the current hour
+     * @return true if the disease progresses under these conditions
+     */
+    public boolean conditionHolds(float moisture, float humidity, float temperature, float light) {
+        for (int i = 0; i < inputs.length; i++) {
+            float value = switch (inputs[i]) {
+                case MOISTURE -> moisture;
+                case HUMIDITY -> humidity;
+                case TEMPERATURE -> temperature;
+                default -> light;
+            };
+            if (above[i] ? !(value > thresholds[i]) : !(value < thresholds[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compiles the disease rules of a plant type, in evaluation order.
+     *
+     * @param plantType the plant type
+     * @return the compiled rules; empty if the plant type has no rules
+     */
+    public static DiseaseRule[] compile(PlantType plantType) {
+        Map<String, Float> thresholds = plantType.getDiseaseThresholds() != null ? plantType.getDiseaseThresholds() : Map.of();
+        boolean dataDriven = thresholds.keySet().stream().anyMatch(key -> key.indexOf('.') > 0);
+        return dataDriven ? compileConfigured(plantType.getPlantName(), thresholds) : compileBuiltIn(plantType.getPlantName(), thresholds);
+    }
+
+    private static DiseaseRule[] compileConfigured(String plantName, Map<String, Float> thresholds) {
+        Map<String, RuleSpec> specs = new HashMap<>();
+        thresholds.forEach((key, value) -> {
+            int separator = key.indexOf('.');
+            if (separator <= 0 || value == null) {
+                return;
+            }
+            RuleSpec spec = specs.computeIfAbsent(key.substring(0, separator), RuleSpec::new);
+            switch (key.substring(separator + 1)) {
+                case "probability" -> spec.probability = value;
+                case "slowdown" -> spec.slowdown = value;
+                case "order" -> spec.order = value;
+                case "groundOnly" -> spec.groundOnly = value != 0;
+                case "moisture.above" -> spec.clause(MOISTURE, true, value);
+                case "moisture.below" -> spec.clause(MOISTURE, false, value);
+                case "humidity.above" -> spec.clause(HUMIDITY, true, value);
+                case "humidity.below" -> spec.clause(HUMIDITY, false, value);
+                case "temperature.above" -> spec.clause(TEMPERATURE, true, value);
+                case "temperature.below" -> spec.clause(TEMPERATURE, false, value);
+                case "light.above" -> spec.clause(LIGHT, true, value);
+                case "light.below" -> spec.clause(LIGHT, false, value);
+                default -> {
+                    if (reportedUnknownSettings.add(plantName + "/" + key)) {
+                        System.err.println("Ignoring unknown disease setting " + key + " of PlantType " + plantName);
+                    }
+                }
+            }
+        });
+        return specs.values().stream()
+                .sorted(Comparator.comparingDouble((RuleSpec spec) -> spec.order).thenComparing(spec -> spec.disease))
+                .map(RuleSpec::build)
+                .toArray(DiseaseRule[]::new);
+    }
+
+    /**
+     * Compiles the rules of a species from the built-in catalog, replacing each legacy threshold key
+     * by the plant type's value for it (NaN if the plant type does not have it).
+     */
+    private static DiseaseRule[] compileBuiltIn(String plantName, Map<String, Float> thresholds) {
+        Map<String, String> entries = plantName != null ? BUILT_IN_CATALOG.get(plantName) : null;
+        if (entries == null) {
+            if (reportedPlantsWithoutRules.add(String.valueOf(plantName))) {
+                System.err.println("PlantType " + plantName + " has no disease settings and no built-in disease rules; " +
+                        "its plants never get diseases");
+            }
+            return NO_RULES;
+        }
+
+        Map<String, Float> resolved = new HashMap<>();
+        entries.forEach((key, value) -> {
+            try {
+                resolved.put(key, Float.parseFloat(value));
+            } catch (NumberFormatException e) {
+                resolved.put(key, threshold(thresholds, value));
+            }
+        });
+        return compileConfigured(plantName, resolved);
+    }
+
+    private static float threshold(Map<String, Float> thresholds, String key) {
+        Float value = thresholds.get(key);
+        return value != null ? value : Float.NaN;
+    }
+
+    /**
+     * Reads the built-in catalog, grouping its "Plant.Disease.setting" keys by plant name.
+     *
+     * @return the "Disease.setting" entries of each plant name
+     */
+    private static Map<String, Map<String, String>> loadBuiltInCatalog() {
+        Properties properties = new Properties();
+        try (InputStream input = DiseaseRule.class.getResourceAsStream(BUILT_IN_CATALOG_RESOURCE)) {
+            if (input == null) {
+                System.err.println("Built-in disease catalog " + BUILT_IN_CATALOG_RESOURCE + " not found");
+                return Map.of();
+            }
+            properties.load(input);
+        } catch (IOException e) {
+            System.err.println("Error reading built-in disease catalog: " + e.getMessage());
+            return Map.of();
+        }
+
+        Map<String, Map<String, String>> catalog = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            int separator = key.indexOf('.');
+            if (separator > 0) {
+                catalog.computeIfAbsent(key.substring(0, separator), plantName -> new HashMap<>())
+                        .put(key.substring(separator + 1), properties.getProperty(key).trim());
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * Mutable description of a rule while it is being compiled.
+     */
+    private static class RuleSpec {
+        private final String disease;
+        private final List<float[]> clauses = new ArrayList<>();
+        private float probability;
+        private float slowdown;
+        private float order = Float.MAX_VALUE;
+        private boolean groundOnly;
+
+        private RuleSpec(String disease) {
+            this.disease = disease;
+        }
+
+        private void clause(int input, boolean above, float threshold) {
+            clauses.add(new float[] {input, above ? 1 : 0, threshold});
+        }
+
+        private DiseaseRule build() {
+            return new DiseaseRule(disease, probability, slowdown, groundOnly, clauses);
+        }
+    }
+}
@@ -19,6 +19,8 @@ import java.util.Map;
  * - Tracks the user's game progress through a unique identifier (`progressId`).
  * - Maintains the user's current points.
  * - Records current weather data and the time of the latest weather update.
+ * - Records the time of the latest save (`lastSaveTimeEpoch`). Plants that a save leaves untouched
+ *   were simulated by the client up to that time, so their growth is not simulated again before it.
  * - Contains states of various systems, such as lights, air conditioners, sprinklers, etc.
  * - Manages the inventory of tools, plants, and fertilizers available to the user.
  * <p>
@@ -33,6 +35,7 @@ public class GameProgress {
     private String username;
     private String progressId;
     private String lastWeatherUpdate;
+    private Long lastSaveTimeEpoch;
     private List<HourlyWeatherEntry> hourlyWeather;
     private boolean houseLightsOn;
     private boolean houseAirConditionersOn;
@@ -69,6 +72,13 @@ public class GameProgress {
         this.lastWeatherUpdate = lastWeatherUpdate;
     }
 
+    public Long getLastSaveTimeEpoch() {
+        return lastSaveTimeEpoch;
+    }
+    public void setLastSaveTimeEpoch(Long lastSaveTimeEpoch) {
+        this.lastSaveTimeEpoch = lastSaveTimeEpoch;
+    }
+
     public List<HourlyWeatherEntry> getHourlyWeather() {
         return hourlyWeather;
     }
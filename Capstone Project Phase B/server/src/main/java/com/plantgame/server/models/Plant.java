@@ -7,13 +7,28 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbParti
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbConvertedBy;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Represents a plant entity with various attributes related to its state, location, and growth.
  * This class is used for storing and managing plant data in a DynamoDB database.
+ * <p>
+ * A plant loaded from the database can be marked as persisted with {@link #markPersisted()}.
+ * The attributes modified after that point can then be written with a single UpdateItem
+ * call built by {@link #toUpdateItemRequest(String)}, instead of rewriting the full item.
+ * <p>
+ * The growth and disease check timestamps are stored twice: as ISO-8601 strings, which the game
+ * client exchanges, and as epoch milliseconds ("lastGrowthUpdateEpoch", "lastDiseaseCheckEpoch"),
+ * which the simulation reads and writes. Each form is derived from the other on first access, so
+ * items written before the epoch attributes existed are migrated lazily on read, and the string
+ * is only formatted when the plant is persisted or serialized.
  */
 @DynamoDbBean
 public class Plant {
@@ -31,11 +46,16 @@ public class Plant {
     private float shadeTentCounter;
     private String lastDiseaseCheck;
     private String lastGrowthUpdate;
+    private Long lastDiseaseCheckEpoch;
+    private Long lastGrowthUpdateEpoch;
     private boolean reachedMaxScale;
     private float nutrientLevel;
     private float remainingEffectTime;
     private String fertilizerName;
 
+    // Attribute map as last read from or written to the database; not a mapped attribute
+    private Map<String, AttributeValue> persistedState;
+
     @DynamoDbPartitionKey
     public String getUsername() {
         return username;
@@ -120,19 +140,51 @@ public class Plant {
     }
 
     public String getLastDiseaseCheck() {
+        if (lastDiseaseCheck == null && lastDiseaseCheckEpoch != null) {
+            lastDiseaseCheck = Instant.ofEpochMilli(lastDiseaseCheckEpoch).toString();
+        }
         return lastDiseaseCheck;
     }
 
     public void setLastDiseaseCheck(String lastDiseaseCheck) {
         this.lastDiseaseCheck = lastDiseaseCheck;
+        this.lastDiseaseCheckEpoch = null;
+    }
+
+    public Long getLastDiseaseCheckEpoch() {
+        if (lastDiseaseCheckEpoch == null && lastDiseaseCheck != null) {
+            lastDiseaseCheckEpoch = parseEpochMillis(lastDiseaseCheck);
+        }
+        return lastDiseaseCheckEpoch;
+    }
+
+    public void setLastDiseaseCheckEpoch(Long lastDiseaseCheckEpoch) {
+        this.lastDiseaseCheckEpoch = lastDiseaseCheckEpoch;
+        this.lastDiseaseCheck = null;
     }
 
     public String getLastGrowthUpdate() {
+        if (lastGrowthUpdate == null && lastGrowthUpdateEpoch != null) {
+            lastGrowthUpdate = Instant.ofEpochMilli(lastGrowthUpdateEpoch).toString();
+        }
         return lastGrowthUpdate;
     }
 
     public void setLastGrowthUpdate(String lastGrowthUpdate) {
         this.lastGrowthUpdate = lastGrowthUpdate;
+        this.lastGrowthUpdateEpoch = null;
+    }
+
+    public Long getLastGrowthUpdateEpoch() {
+        if (lastGrowthUpdateEpoch == null && lastGrowthUpdate != null) {
+            lastGrowthUpdateEpoch = parseEpochMillis(lastGrowthUpdate);
+        }
+        return lastGrowthUpdateEpoch;
+    }
+
+    public void setLastGrowthUpdateEpoch(Long lastGrowthUpdateEpoch) {
+        this.lastGrowthUpdateEpoch = lastGrowthUpdateEpoch;
+        this.lastGrowthUpdate = null;
     }
 
     public String getPlantName() {
@@ -206,8 +258,10 @@ public class Plant {
         if (disease != null) item.put("disease", AttributeValue.builder().s(disease).build());
         item.put("diseaseProgress", AttributeValue.builder().n(String.valueOf(diseaseProgress)).build());
         item.put("diseaseSlowingGrowthFactor", AttributeValue.builder().n(String.valueOf(diseaseSlowingGrowthFactor)).build());
-        if (lastGrowthUpdate != null) item.put("lastGrowthUpdate", AttributeValue.builder().s(lastGrowthUpdate).build());
-        if (lastDiseaseCheck != null) item.put("lastDiseaseCheck", AttributeValue.builder().s(lastDiseaseCheck).build());
+        if (getLastGrowthUpdate() != null) item.put("lastGrowthUpdate", AttributeValue.builder().s(getLastGrowthUpdate()).build());
+        if (getLastGrowthUpdateEpoch() != null) item.put("lastGrowthUpdateEpoch", AttributeValue.builder().n(String.valueOf(lastGrowthUpdateEpoch)).build());
+        if (getLastDiseaseCheck() != null) item.put("lastDiseaseCheck", AttributeValue.builder().s(getLastDiseaseCheck()).build());
+        if (getLastDiseaseCheckEpoch() != null) item.put("lastDiseaseCheckEpoch", AttributeValue.builder().n(String.valueOf(lastDiseaseCheckEpoch)).build());
         item.put("shadeTentCounter", AttributeValue.builder().n(String.valueOf(shadeTentCounter)).build());
         if (plantableArea != null) item.put("plantableArea", AttributeValue.builder().s(plantableArea).build());
         item.put("reachedMaxScale", AttributeValue.builder().bool(reachedMaxScale).build());
@@ -216,4 +270,89 @@ public class Plant {
         if (fertilizerName != null) item.put("fertilizerName", AttributeValue.builder().s(fertilizerName).build());
         return item;
     }
-}
\ No newline at end of file
+
+    /**
+     * Records the current state of the plant as the state stored in the database.
+     * Changes made after this call are reported by {@link #toUpdateItemRequest(String)}.
+     */
+    public void markPersisted() {
+        persistedState = toAttributeMap();
+    }
+
+    /**
+     * Builds an UpdateItem request that writes only the attributes changed since the last call to
+     * {@link #markPersisted()}: changed or added attributes are SET, attributes that became null are REMOVEd.
+     * If the plant was never marked as persisted, every attribute is SET.
+     * <p>
+     * The request is conditioned on the item still existing, so a plant deleted by a concurrent save
+     * is not recreated.
+     *
+     * @param tableName the name of the plants table
+     * @return the UpdateItem request, or null if no attribute changed
+     */
+    public UpdateItemRequest toUpdateItemRequest(String tableName) {
+        Map<String, AttributeValue> currentState = toAttributeMap();
+        Map<String, AttributeValue> previousState = persistedState != null ? persistedState : Map.of();
+
+        List<String> setClauses = new ArrayList<>();
+        List<String> removeClauses = new ArrayList<>();
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+
+        for (Map.Entry<String, AttributeValue> entry : currentState.entrySet()) {
+            String name = entry.getKey();
+            if (name.equals("username") || name.equals("plantId") || entry.getValue().equals(previousState.get(name))) {
+                continue;
+            }
+            setClauses.add("#" + name + " = :" + name);
+            names.put("#" + name, name);
+            values.put(":" + name, entry.getValue());
+        }
+        for (String name : previousState.keySet()) {
+            if (!currentState.containsKey(name)) {
+                removeClauses.add("#" + name);
+                names.put("#" + name, name);
+            }
+        }
+
+        if (setClauses.isEmpty() && removeClauses.isEmpty()) {
+            return null;
+        }
+
+        String updateExpression = "";
+        if (!setClauses.isEmpty()) {
+            updateExpression = "SET " + String.join(", ", setClauses);
+        }
+        if (!removeClauses.isEmpty()) {
+            updateExpression += (updateExpression.isEmpty() ? "" : " ") + "REMOVE " + String.join(", ", removeClauses);
+        }
+
+        UpdateItemRequest.Builder builder = UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(Map.of(
+                        "username", AttributeValue.builder().s(username).build(),
+                        "plantId", AttributeValue.builder().s(plantId).build()
+                ))
+                .updateExpression(updateExpression)
+                .conditionExpression("attribute_exists(plantId)")
+                .expressionAttributeNames(names);
+        if (!values.isEmpty()) {
+            builder.expressionAttributeValues(values);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Parses an ISO-8601 timestamp written by an older server or by the client into epoch milliseconds.
+     *
+     * @param timestamp the timestamp to parse
+     * @return the epoch milliseconds, or null if the timestamp cannot be parsed
+     */
+    private static Long parseEpochMillis(String timestamp) {
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
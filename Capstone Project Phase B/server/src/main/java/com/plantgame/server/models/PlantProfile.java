@@ -0,0 +1,163 @@
+package com.plantgame.server.models;
+
+import com.plantgame.server.utils.EnvironmentTable;
+
+import java.util.Map;
+
+/**
+ * An immutable, compiled view of a PlantType for one location type (House, GreenHouse or outdoors).
+ * <p>
+ * PlantType stores its settings as boxed values in nested maps: location-specific ranges in
+ * locationValues with fallbacks in defaultValues, optional weights, and disease thresholds by
+ * string key. A profile resolves all of them once, with every default already applied, into
+ * primitive fields, so the simulation services read plain fields for every plant without map
+ * lookups, unboxing or null checks.
+ * <p>
+ * Profiles are compiled by CacheService whenever a PlantType is cached. The disease thresholds
+ * are compiled into DiseaseRules, which are shared by the profiles of all three locations.
+ */
+public class PlantProfile {
+    private final String plantName;
+    private final int location;
+
+    // Growth ranges (location values, falling back to the plant type's default values)
+    private final float minTemperature;
+    private final float maxTemperature;
+    private final float minHumidity;
+    private final float maxHumidity;
+    private final float minLight;
+    private final float maxLight;
+
+    // Humidity range used for evaporation and effective moisture (location values, falling back to 0-100%)
+    private final float moistureMinHumidity;
+    private final float moistureMaxHumidity;
+
+    private final float optimalMoisture;
+    private final float moistureRange;
+    private final float temperatureWeight;
+    private final float humidityWeight;
+    private final float lightWeight;
+    private final float waterWeight;
+
+    private final String preferredFertilizerType;
+    private final float nutrientDepletionRate;
+    private final float fertilizerGrowthBoost;
+
+    private final float diseaseProgressRate;
+    private final DiseaseRule[] diseaseRules;
+
+    private PlantProfile(PlantType plantType, int location, DiseaseRule[] diseaseRules) {
+        Map<String, LocationData> locationValues = plantType.getLocationValues();
+        LocationData locationData = locationValues.getOrDefault(locationKey(location), locationValues.get("Ground"));
+        if (locationData == null) {
+            throw new IllegalStateException("no location values for " + locationKey(location) + " or Ground");
+        }
+        Map<String, Float> defaultValues = plantType.getDefaultValues() != null ? plantType.getDefaultValues() : Map.of();
+        Map<String, Float> thresholds = plantType.getDiseaseThresholds() != null ? plantType.getDiseaseThresholds() : Map.of();
+
+        this.plantName = plantType.getPlantName();
+        this.location = location;
+
+        this.minTemperature = resolve(locationData.getMinTemperature(), defaultValues, "minTemperature");
+        this.maxTemperature = resolve(locationData.getMaxTemperature(), defaultValues, "maxTemperature");
+        this.minHumidity = resolve(locationData.getMinHumidity(), defaultValues, "minHumidity");
+        this.maxHumidity = resolve(locationData.getMaxHumidity(), defaultValues, "maxHumidity");
+        this.minLight = resolve(locationData.getMinLight(), defaultValues, "minLight");
+        this.maxLight = resolve(locationData.getMaxLight(), defaultValues, "maxLight");
+
+        this.moistureMinHumidity = locationData.getMinHumidity() != null ? locationData.getMinHumidity() : 0f;
+        this.moistureMaxHumidity = locationData.getMaxHumidity() != null ? locationData.getMaxHumidity() : 100f;
+
+        this.optimalMoisture = required(plantType.getOptimalMoisture(), "optimalMoisture");
+        this.moistureRange = required(plantType.getMoistureRange(), "moistureRange");
+        this.temperatureWeight = plantType.getTemperatureWeight() != null ? plantType.getTemperatureWeight() : 0.25f;
+        this.humidityWeight = plantType.getHumidityWeight() != null ? plantType.getHumidityWeight() : 0.25f;
+        this.lightWeight = plantType.getLightWeight() != null ? plantType.getLightWeight() : 0.25f;
+        this.waterWeight = plantType.getWaterWeight() != null ? plantType.getWaterWeight() : 0.25f;
+
+        this.preferredFertilizerType = plantType.getPreferredFertilizerType();
+        this.nutrientDepletionRate = plantType.getNutrientDepletionRate();
+        this.fertilizerGrowthBoost = plantType.getFertilizerGrowthBoost();
+
+        this.diseaseProgressRate = thresholds.getOrDefault("diseaseProgressRate", 0f);
+        this.diseaseRules = diseaseRules;
+    }
+
+    /**
+     * Compiles a plant type into one profile per location type, indexed by the EnvironmentTable
+     * location constants.
+     *
+     * @param plantType the plant type to compile
+     * @return the profiles of the plant type, indexed by location
+     * @throws IllegalStateException if a required value has neither a location value nor a default
+     */
+    public static PlantProfile[] compile(PlantType plantType) {
+        DiseaseRule[] diseaseRules = DiseaseRule.compile(plantType);
+        return new PlantProfile[] {
+                new PlantProfile(plantType, EnvironmentTable.HOUSE, diseaseRules),
+                new PlantProfile(plantType, EnvironmentTable.GREENHOUSE, diseaseRules),
+                new PlantProfile(plantType, EnvironmentTable.OUTDOOR, diseaseRules)
+        };
+    }
+
+    private static String locationKey(int location) {
+        return switch (location) {
+            case EnvironmentTable.HOUSE -> "House";
+            case EnvironmentTable.GREENHOUSE -> "GreenHouse";
+            default -> "Ground";
+        };
+    }
+
+    private static float resolve(Float locationValue, Map<String, Float> defaultValues, String key) {
+        return locationValue != null ? locationValue : required(defaultValues.get(key), key);
+    }
+
+    private static float required(Float value, String name) {
+        if (value == null) {
+            throw new IllegalStateException("missing " + name);
+        }
+        return value;
+    }
+
+    public String getPlantName() { return plantName; }
+    public int getLocation() { return location; }
+
+    public float getMinTemperature() { return minTemperature; }
+    public float getMaxTemperature() { return maxTemperature; }
+    public float getMinHumidity() { return minHumidity; }
+    public float getMaxHumidity() { return maxHumidity; }
+    public float getMinLight() { return minLight; }
+    public float getMaxLight() { return maxLight; }
+
+    public float getMoistureMinHumidity() { return moistureMinHumidity; }
+    public float getMoistureMaxHumidity() { return moistureMaxHumidity; }
+
+    public float getOptimalMoisture() { return optimalMoisture; }
+    public float getMoistureRange() { return moistureRange; }
+    public float getTemperatureWeight() { return temperatureWeight; }
+    public float getHumidityWeight() { return humidityWeight; }
+    public float getLightWeight() { return lightWeight; }
+    public float getWaterWeight() { return waterWeight; }
+
+    public String getPreferredFertilizerType() { return preferredFertilizerType; }
+    public float getNutrientDepletionRate() { return nutrientDepletionRate; }
+    public float getFertilizerGrowthBoost() { return fertilizerGrowthBoost; }
+
+    public float getDiseaseProgressRate() { return diseaseProgressRate; }
+    public DiseaseRule[] getDiseaseRules() { return diseaseRules; }
+
+    /**
+     * Finds the rule of a disease among the plant type's rules.
+     *
+     * @param disease the name of the disease
+     * @return the rule of the disease, or null if the plant type has no rule for it
+     */
+    public DiseaseRule findDiseaseRule(String disease) {
+        for (DiseaseRule rule : diseaseRules) {
+            if (rule.getDisease().equals(disease)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+}
@@ -3,11 +3,24 @@ package com.plantgame.server.models;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 
 /**
  * Represents a User entity with various attributes and essential methods to
  * manage user-related information. This class is designed to be used with
  * AWS DynamoDB for storage and retrieval of user data.
+ * <p>
+ * The last activity time is stored both as an ISO-8601 string and as epoch milliseconds
+ * ("lastActiveTimeEpoch"). The server reads and writes the numeric form; each form is derived
+ * from the other on first access, so older items are migrated lazily on read.
+ * <p>
+ * "simulationBucket" and "lastActiveTimeEpoch" are the keys of the sparse "simulation-index"
+ * secondary index, through which the offline scheduler finds the recently active users.
+ * Users who never logged in have no bucket and are not part of the index.
  */
 @DynamoDbBean
 public class User {
@@ -22,9 +35,32 @@ public class User {
     private Double longitude;
     private String timezone;
     private String lastActiveTime;
+    private Long lastActiveTimeEpoch;
+    private String simulationBucket;
 
     public User() {}
 
+    /**
+     * Creates a copy of a user, so a request can modify its own instance without affecting others.
+     *
+     * @param other the user to copy
+     */
+    public User(User other) {
+        this.username = other.username;
+        this.email = other.email;
+        this.password = other.password;
+        this.token = other.token;
+        this.isPlaying = other.isPlaying;
+        this.country = other.country;
+        this.city = other.city;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.timezone = other.timezone;
+        this.lastActiveTime = other.lastActiveTime;
+        this.lastActiveTimeEpoch = other.lastActiveTimeEpoch;
+        this.simulationBucket = other.simulationBucket;
+    }
+
     @DynamoDbPartitionKey
     public String getUsername() {
         return username;
@@ -108,10 +144,40 @@ public class User {
     }
 
     public String getLastActiveTime() {
+        if (lastActiveTime == null && lastActiveTimeEpoch != null) {
+            lastActiveTime = Instant.ofEpochMilli(lastActiveTimeEpoch).toString();
+        }
         return lastActiveTime;
     }
 
     public void setLastActiveTime(String lastActiveTime) {
         this.lastActiveTime = lastActiveTime;
+        this.lastActiveTimeEpoch = null;
+    }
+
+    @DynamoDbSecondarySortKey(indexNames = "simulation-index")
+    public Long getLastActiveTimeEpoch() {
+        if (lastActiveTimeEpoch == null && lastActiveTime != null) {
+            try {
+                lastActiveTimeEpoch = ZonedDateTime.parse(lastActiveTime).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        return lastActiveTimeEpoch;
+    }
+
+    public void setLastActiveTimeEpoch(Long lastActiveTimeEpoch) {
+        this.lastActiveTimeEpoch = lastActiveTimeEpoch;
+        this.lastActiveTime = null;
+    }
+
+    @DynamoDbSecondaryPartitionKey(indexNames = "simulation-index")
+    public String getSimulationBucket() {
+        return simulationBucket;
+    }
+
+    public void setSimulationBucket(String simulationBucket) {
+        this.simulationBucket = simulationBucket;
     }
 }
\ No newline at end of file
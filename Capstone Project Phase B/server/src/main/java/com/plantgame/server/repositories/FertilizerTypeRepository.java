@@ -0,0 +1,42 @@
+package com.plantgame.server.repositories;
+
+import com.plantgame.server.models.FertilizerType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking access to the FertilizerTypes table through the DynamoDbEnhancedAsyncClient.
+ * <p>
+ * The returned futures complete on the SDK's threads. A failed call completes its future
+ * exceptionally with the `DynamoDbException`, wrapped in a CompletionException when joined.
+ */
+@Repository
+public class FertilizerTypeRepository {
+
+    @Autowired
+    private DynamoDbAsyncTable<FertilizerType> fertilizerTypeAsyncTable;
+
+    /**
+     * Reads a fertilizer type by name.
+     *
+     * @param name the name of the fertilizer type
+     * @return a future completed with the fertilizer type, or with null if no such fertilizer type exists
+     */
+    public CompletableFuture<FertilizerType> findByName(String name) {
+        return fertilizerTypeAsyncTable.getItem(Key.builder().partitionValue(name).build());
+    }
+
+    /**
+     * Reads every fertilizer type with a scan of the table.
+     *
+     * @return a future completed with all the fertilizer types
+     */
+    public CompletableFuture<List<FertilizerType>> findAll() {
+        return RepositoryUtils.collect(fertilizerTypeAsyncTable.scan());
+    }
+}
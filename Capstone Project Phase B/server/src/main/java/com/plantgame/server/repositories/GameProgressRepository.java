@@ -0,0 +1,45 @@
+package com.plantgame.server.repositories;
+
+import com.plantgame.server.models.GameProgress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking access to the GameProgress table through the DynamoDbEnhancedAsyncClient.
+ * Every user has a single progress item, stored under the "default" progress id.
+ * <p>
+ * The returned futures complete on the SDK's threads. A failed call completes its future
+ * exceptionally with the `DynamoDbException`, wrapped in a CompletionException when joined.
+ */
+@Repository
+public class GameProgressRepository {
+
+    private static final String DEFAULT_PROGRESS_ID = "default";
+
+    @Autowired
+    private DynamoDbAsyncTable<GameProgress> gameProgressAsyncTable;
+
+    /**
+     * Reads the game progress of a user.
+     *
+     * @param username the username of the user
+     * @return a future completed with the game progress, or with null if the user has none
+     */
+    public CompletableFuture<GameProgress> findByUsername(String username) {
+        return gameProgressAsyncTable.getItem(Key.builder().partitionValue(username).sortValue(DEFAULT_PROGRESS_ID).build());
+    }
+
+    /**
+     * Writes a game progress, replacing the stored item.
+     *
+     * @param progress the game progress to write
+     * @return a future completed once the game progress has been written
+     */
+    public CompletableFuture<Void> save(GameProgress progress) {
+        return gameProgressAsyncTable.putItem(progress);
+    }
+}
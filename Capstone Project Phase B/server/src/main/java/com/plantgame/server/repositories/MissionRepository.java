@@ -0,0 +1,56 @@
+package com.plantgame.server.repositories;
+
+import com.plantgame.server.models.Mission;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking access to the Missions table through the DynamoDbEnhancedAsyncClient.
+ * <p>
+ * The returned futures complete on the SDK's threads. A failed call completes its future
+ * exceptionally with the `DynamoDbException`, wrapped in a CompletionException when joined.
+ */
+@Repository
+public class MissionRepository {
+
+    @Autowired
+    private DynamoDbAsyncTable<Mission> missionAsyncTable;
+
+    /**
+     * Reads all the missions of a user.
+     *
+     * @param username the username of the user
+     * @return a future completed with the user's missions
+     */
+    public CompletableFuture<List<Mission>> findByUsername(String username) {
+        Key key = Key.builder().partitionValue(username).build();
+        return RepositoryUtils.collect(missionAsyncTable.query(QueryConditional.keyEqualTo(key)));
+    }
+
+    /**
+     * Reads one mission of a user.
+     *
+     * @param username the username of the user
+     * @param missionId the id of the mission
+     * @return a future completed with the mission, or with null if the user has no such mission
+     */
+    public CompletableFuture<Mission> findById(String username, String missionId) {
+        return missionAsyncTable.getItem(Key.builder().partitionValue(username).sortValue(missionId).build());
+    }
+
+    /**
+     * Writes a mission, replacing the stored item.
+     *
+     * @param mission the mission to write
+     * @return a future completed once the mission has been written
+     */
+    public CompletableFuture<Void> save(Mission mission) {
+        return missionAsyncTable.putItem(mission);
+    }
+}
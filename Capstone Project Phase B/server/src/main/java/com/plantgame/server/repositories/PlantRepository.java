@@ -0,0 +1,62 @@
+package com.plantgame.server.repositories;
+
+import com.plantgame.server.models.Plant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking access to the Plants table through the DynamoDbEnhancedAsyncClient, and through
+ * the DynamoDbAsyncClient for the partial updates built by {@link Plant#toUpdateItemRequest}.
+ * <p>
+ * The returned futures complete on the SDK's threads. A failed call completes its future
+ * exceptionally with the `DynamoDbException`, wrapped in a CompletionException when joined.
+ */
+@Repository
+public class PlantRepository {
+
+    @Autowired
+    private DynamoDbAsyncTable<Plant> plantAsyncTable;
+
+    @Autowired
+    private DynamoDbAsyncClient dynamoDbAsyncClient;
+
+    /**
+     * Reads all the plants of a user.
+     *
+     * @param username the username of the plants' owner
+     * @return a future completed with the user's plants
+     */
+    public CompletableFuture<List<Plant>> findByUsername(String username) {
+        Key key = Key.builder().partitionValue(username).build();
+        return RepositoryUtils.collect(plantAsyncTable.query(QueryConditional.keyEqualTo(key)));
+    }
+
+    /**
+     * Writes a plant, replacing the stored item.
+     *
+     * @param plant the plant to write
+     * @return a future completed once the plant has been written
+     */
+    public CompletableFuture<Void> save(Plant plant) {
+        return plantAsyncTable.putItem(plant);
+    }
+
+    /**
+     * Applies a partial update of a plant.
+     *
+     * @param request the UpdateItem request, as built by {@link Plant#toUpdateItemRequest}
+     * @return a future completed with the response of the update
+     */
+    public CompletableFuture<UpdateItemResponse> update(UpdateItemRequest request) {
+        return dynamoDbAsyncClient.updateItem(request);
+    }
+}
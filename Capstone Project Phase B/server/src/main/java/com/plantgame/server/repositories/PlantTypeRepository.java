@@ -0,0 +1,42 @@
+package com.plantgame.server.repositories;
+
+import com.plantgame.server.models.PlantType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking access to the PlantTypes table through the DynamoDbEnhancedAsyncClient.
+ * <p>
+ * The returned futures complete on the SDK's threads. A failed call completes its future
+ * exceptionally with the `DynamoDbException`, wrapped in a CompletionException when joined.
+ */
+@Repository
+public class PlantTypeRepository {
+
+    @Autowired
+    private DynamoDbAsyncTable<PlantType> plantTypeAsyncTable;
+
+    /**
+     * Reads a plant type by name.
+     *
+     * @param name the name of the plant type
+     * @return a future completed with the plant type, or with null if no such plant type exists
+     */
+    public CompletableFuture<PlantType> findByName(String name) {
+        return plantTypeAsyncTable.getItem(Key.builder().partitionValue(name).build());
+    }
+
+    /**
+     * Reads every plant type with a scan of the table.
+     *
+     * @return a future completed with all the plant types
+     */
+    public CompletableFuture<List<PlantType>> findAll() {
+        return RepositoryUtils.collect(plantTypeAsyncTable.scan());
+    }
+}
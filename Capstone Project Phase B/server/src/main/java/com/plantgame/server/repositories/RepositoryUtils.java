@@ -0,0 +1,45 @@
+package com.plantgame.server.repositories;
+
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PagePublisher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Helpers shared by the asynchronous repositories.
+ */
+final class RepositoryUtils {
+
+    private RepositoryUtils() {}
+
+    /**
+     * Collects every item of a query or scan into a list, page by page, without blocking a thread
+     * while the pages are fetched.
+     *
+     * @param publisher the pages of the query or scan
+     * @return a future completed with all the items once the last page has arrived
+     */
+    static <T> CompletableFuture<List<T>> collect(PagePublisher<T> publisher) {
+        List<T> items = Collections.synchronizedList(new ArrayList<>());
+        return publisher.items()
+                .subscribe(items::add)
+                .thenApply(ignored -> items);
+    }
+
+    /**
+     * Collects every item of a secondary index query into a list, page by page, without blocking a
+     * thread while the pages are fetched.
+     *
+     * @param pages the pages of the index query
+     * @return a future completed with all the items once the last page has arrived
+     */
+    static <T> CompletableFuture<List<T>> collectPages(SdkPublisher<Page<T>> pages) {
+        List<T> items = Collections.synchronizedList(new ArrayList<>());
+        return pages.subscribe(page -> items.addAll(page.items()))
+                .thenApply(ignored -> items);
+    }
+}
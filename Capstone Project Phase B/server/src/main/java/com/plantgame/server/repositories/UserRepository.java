@@ -0,0 +1,56 @@
+package com.plantgame.server.repositories;
+
+import com.plantgame.server.models.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking access to the Users table through the DynamoDbEnhancedAsyncClient.
+ * <p>
+ * The returned futures complete on the SDK's threads. A failed call completes its future
+ * exceptionally with the `DynamoDbException`, wrapped in a CompletionException when joined.
+ */
+@Repository
+public class UserRepository {
+
+    @Autowired
+    private DynamoDbAsyncTable<User> userAsyncTable;
+
+    /**
+     * Reads a user by username.
+     *
+     * @param username the username of the user
+     * @return a future completed with the user, or with null if no such user exists
+     */
+    public CompletableFuture<User> findByUsername(String username) {
+        return userAsyncTable.getItem(Key.builder().partitionValue(username).build());
+    }
+
+    /**
+     * Reads the user of a session token through the "token-index" secondary index. The index is
+     * eventually consistent, so a token issued moments ago may not be found yet.
+     *
+     * @param token the session token
+     * @return a future completed with the user, or with null if no user has this token
+     */
+    public CompletableFuture<User> findByToken(String token) {
+        QueryConditional queryConditional = QueryConditional.keyEqualTo(Key.builder().partitionValue(token).build());
+        return RepositoryUtils.collectPages(userAsyncTable.index("token-index").query(queryConditional))
+                .thenApply(users -> users.isEmpty() ? null : users.get(0));
+    }
+
+    /**
+     * Writes a user, replacing the stored item.
+     *
+     * @param user the user to write
+     * @return a future completed once the user has been written
+     */
+    public CompletableFuture<Void> save(User user) {
+        return userAsyncTable.putItem(user);
+    }
+}
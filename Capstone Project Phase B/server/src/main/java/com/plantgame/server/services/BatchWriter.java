@@ -0,0 +1,380 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.utils.FutureUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Service for writing many items to a DynamoDB table, either with BatchWriteItem or with
+ * individual UpdateItem calls. The two paths are separate: only put and delete requests are
+ * batched, and the unprocessed-item handling of BatchWriteItem does not apply to updates.
+ * <p>
+ * Key Responsibilities:
+ * - Splits write requests into batches of 25 (the BatchWriteItem limit).
+ * - Sends batches and updates through the DynamoDbAsyncClient, so in-flight calls and their
+ *   backoffs do not hold a thread. Only the calling thread waits for the whole call to finish.
+ * - Keeps at most "dynamodb.batch-write.concurrency" batches in flight per writeAll call. The next
+ *   batch starts as soon as any batch in flight completes, so a slow or throttled batch does not
+ *   hold back the others.
+ * - Sends each update request on its own, with at most "dynamodb.update.concurrency" updates in
+ *   flight per updateAll call.
+ * - Retries unprocessed items, throttled batches and throttled updates with jittered exponential
+ *   backoff, up to "dynamodb.batch-write.max-retries" times, instead of dropping them. The retries
+ *   are sent from the "batchWriteExecutor" pool once their backoff has elapsed.
+ * - Reports per-batch latency, retry counts, and items that could not be written, with the keys
+ *   of the updates that failed so callers can queue them again.
+ * <p>
+ * Exception Management:
+ * - Throttling errors are retried. Other `DynamoDbException`s fail the batch or the update,
+ *   are logged, and are reported in the result rather than thrown.
+ */
+@Service
+public class BatchWriter {
+
+    /** Maximum number of items accepted by a single DynamoDB BatchWriteItem call. */
+    public static final int MAX_BATCH_SIZE = 25;
+
+    @Autowired
+    private DynamoDbAsyncClient dynamoDbAsyncClient;
+
+    @Autowired
+    @Qualifier("batchWriteExecutor")
+    private Executor batchWriteExecutor;
+
+    @Value("${dynamodb.batch-write.concurrency:4}")
+    private int maxConcurrentBatches;
+
+    @Value("${dynamodb.update.concurrency:25}")
+    private int maxConcurrentUpdates;
+
+    @Value("${dynamodb.batch-write.max-retries:8}")
+    private int maxRetries;
+
+    @Value("${dynamodb.batch-write.base-backoff-ms:50}")
+    private long baseBackoffMillis;
+
+    @Value("${dynamodb.batch-write.max-backoff-ms:5000}")
+    private long maxBackoffMillis;
+
+    /**
+     * Writes all the given requests to a table. The requests are split into batches of 25 that are
+     * dispatched concurrently, and the call returns once every batch has been written or has
+     * exhausted its retries.
+     *
+     * @param tableName the name of the DynamoDB table to write to
+     * @param writeRequests the put and delete requests to apply
+     * @return a result describing the items written, failed, retried, and the batch latencies
+     */
+    public Result writeAll(String tableName, List<WriteRequest> writeRequests) {
+        return dispatch(tableName, writeRequests);
+    }
+
+    /**
+     * Applies all the given UpdateItem requests. Each update is sent on its own, at most
+     * maxConcurrentUpdates at a time: a semaphore bounds the updates in flight, and each completed
+     * update frees its slot for the next one. The call returns once every update has been applied
+     * or has failed. An update whose condition does not hold (for example because the item was
+     * deleted in the meantime) is skipped and counted as neither written nor failed.
+     *
+     * @param updateRequests the update requests to apply
+     * @return a result describing the items written, failed, retried, and the update latencies
+     */
+    public Result updateAll(List<UpdateItemRequest> updateRequests) {
+        Result result = new Result();
+        if (updateRequests == null || updateRequests.isEmpty()) {
+            return result;
+        }
+
+        Semaphore slots = new Semaphore(Math.max(maxConcurrentUpdates, 1));
+        List<CompletableFuture<Void>> futures = new ArrayList<>(updateRequests.size());
+        for (UpdateItemRequest request : updateRequests) {
+            slots.acquireUninterruptibly();
+            long startTime = System.nanoTime();
+            futures.add(update(request, 0, result)
+                    .whenComplete((ignored, error) -> {
+                        slots.release();
+                        result.recordBatch((System.nanoTime() - startTime) / 1_000_000);
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return result;
+    }
+
+    /**
+     * Returns the number of updates that one updateAll call keeps in flight.
+     *
+     * @return the update concurrency
+     */
+    public int getConcurrentWriteSize() {
+        return Math.max(maxConcurrentUpdates, 1);
+    }
+
+    /**
+     * Splits the write requests into BatchWriteItem batches of 25 and writes them, at most
+     * maxConcurrentBatches at a time. A semaphore bounds the batches in flight, and each completed
+     * batch frees its slot for the next one.
+     *
+     * @param tableName the name of the DynamoDB table to write to
+     * @param writeRequests the put and delete requests to split into batches
+     * @return the merged result of all batches
+     */
+    private Result dispatch(String tableName, List<WriteRequest> writeRequests) {
+        Result result = new Result();
+        if (writeRequests == null || writeRequests.isEmpty()) {
+            return result;
+        }
+
+        Semaphore slots = new Semaphore(Math.max(maxConcurrentBatches, 1));
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < writeRequests.size(); i += MAX_BATCH_SIZE) {
+            List<WriteRequest> batch = writeRequests.subList(i, Math.min(i + MAX_BATCH_SIZE, writeRequests.size()));
+            slots.acquireUninterruptibly();
+            long startTime = System.nanoTime();
+            futures.add(writeBatch(tableName, batch, 0, result)
+                    .whenComplete((ignored, error) -> {
+                        slots.release();
+                        result.recordBatch((System.nanoTime() - startTime) / 1_000_000);
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return result;
+    }
+
+    /**
+     * Writes the pending requests of a batch with one BatchWriteItem call. Unprocessed items, or the
+     * whole pending set if the call was throttled, are written again after a jittered exponential backoff.
+     *
+     * @param tableName the name of the DynamoDB table to write to
+     * @param pending the write requests still to be written
+     * @param attempt the number of retries already made
+     * @param result the result to record the outcome in
+     * @return a future that completes once the batch is written or has failed
+     */
+    private CompletableFuture<Void> writeBatch(String tableName, List<WriteRequest> pending, int attempt, Result result) {
+        return dynamoDbAsyncClient.batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(Map.of(tableName, pending))
+                        .build())
+                .handle((response, error) -> {
+                    List<WriteRequest> unprocessed = pending;
+                    if (error == null) {
+                        unprocessed = response.unprocessedItems().getOrDefault(tableName, List.of());
+                        result.recordWritten(pending.size() - unprocessed.size());
+                        if (unprocessed.isEmpty()) {
+                            return CompletableFuture.<Void>completedFuture(null);
+                        }
+                    } else {
+                        RuntimeException cause = FutureUtils.unwrap(error);
+                        if (!isThrottling(cause)) {
+                            System.err.println("Error batch writing to " + tableName + ": " + cause.getMessage());
+                            result.recordFailed(pending.size());
+                            return CompletableFuture.<Void>completedFuture(null);
+                        }
+                    }
+
+                    if (attempt >= maxRetries) {
+                        System.err.println("Giving up on " + unprocessed.size() + " unprocessed items in " + tableName +
+                                " after " + attempt + " retries");
+                        result.recordFailed(unprocessed.size());
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    result.recordRetry();
+                    List<WriteRequest> retry = unprocessed;
+                    return afterBackoff(attempt + 1, () -> writeBatch(tableName, retry, attempt + 1, result));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Sends one UpdateItem request. A throttled request is sent again after a jittered exponential
+     * backoff, without holding a thread while it waits.
+     *
+     * @param request the update request to send
+     * @param attempt the number of retries already made
+     * @param result the result to record the outcome in
+     * @return a future that completes once the update is applied, skipped, or has failed
+     */
+    private CompletableFuture<Void> update(UpdateItemRequest request, int attempt, Result result) {
+        return dynamoDbAsyncClient.updateItem(request)
+                .handle((response, error) -> {
+                    if (error == null) {
+                        result.recordWrittenUpdate();
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    RuntimeException cause = FutureUtils.unwrap(error);
+                    if (cause instanceof ConditionalCheckFailedException) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    if (isThrottling(cause)) {
+                        if (attempt < maxRetries) {
+                            result.recordRetry();
+                            return afterBackoff(attempt + 1, () -> update(request, attempt + 1, result));
+                        }
+                        System.err.println("Giving up on update of " + request.key() + " in " + request.tableName() +
+                                " after " + attempt + " retries");
+                    } else {
+                        System.err.println("Error updating " + request.key() + " in " + request.tableName() + ": " + cause.getMessage());
+                    }
+                    result.recordFailedUpdate(request);
+                    return CompletableFuture.<Void>completedFuture(null);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Runs a retry once the backoff of its attempt has elapsed, without holding a thread in the meantime.
+     *
+     * @param attempt the retry attempt, starting at 1
+     * @param retry sends the retried request
+     * @return a future that completes with the outcome of the retry
+     */
+    private CompletableFuture<Void> afterBackoff(int attempt, Supplier<CompletableFuture<Void>> retry) {
+        Executor delayed = CompletableFuture.delayedExecutor(backoffMillis(attempt), TimeUnit.MILLISECONDS, batchWriteExecutor);
+        return CompletableFuture.runAsync(() -> {}, delayed).thenCompose(ignored -> retry.get());
+    }
+
+    private static boolean isThrottling(RuntimeException e) {
+        return e instanceof ProvisionedThroughputExceededException || e instanceof RequestLimitExceededException;
+    }
+
+    /**
+     * Returns a random duration between zero and the exponential backoff of the given attempt
+     * ("full jitter"), capped at the configured maximum.
+     *
+     * @param attempt the retry attempt, starting at 1
+     * @return the backoff in milliseconds
+     */
+    private long backoffMillis(int attempt) {
+        long exponential = baseBackoffMillis << Math.min(attempt - 1, 20);
+        long cap = Math.max(Math.min(exponential, maxBackoffMillis), 1);
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    /**
+     * The outcome of one or more batch writes: how many items were written or failed, the keys of the
+     * updates that failed, how many retries were needed, and the latency of each batch (including its retries).
+     * Each update request counts as a batch of its own.
+     */
+    public static class Result {
+        private long itemsWritten;
+        private long itemsFailed;
+        private long retries;
+        private long batches;
+        private long totalBatchLatencyMillis;
+        private long maxBatchLatencyMillis;
+        private final List<Map<String, AttributeValue>> failedUpdateKeys = new ArrayList<>();
+
+        public synchronized long getItemsWritten() {
+            return itemsWritten;
+        }
+
+        public synchronized long getItemsFailed() {
+            return itemsFailed;
+        }
+
+        public synchronized long getRetries() {
+            return retries;
+        }
+
+        public synchronized long getBatches() {
+            return batches;
+        }
+
+        public synchronized long getMaxBatchLatencyMillis() {
+            return maxBatchLatencyMillis;
+        }
+
+        public synchronized long getAverageBatchLatencyMillis() {
+            return batches == 0 ? 0 : totalBatchLatencyMillis / batches;
+        }
+
+        public synchronized boolean isSuccessful() {
+            return itemsFailed == 0;
+        }
+
+        /**
+         * Returns the keys of the UpdateItem requests that failed. An update skipped because its
+         * condition did not hold is not a failure and is not included.
+         *
+         * @return the keys of the failed updates
+         */
+        public synchronized List<Map<String, AttributeValue>> getFailedUpdateKeys() {
+            return new ArrayList<>(failedUpdateKeys);
+        }
+
+        /**
+         * Adds the counts and latencies of another result to this one.
+         *
+         * @param other the result to add
+         */
+        public void merge(Result other) {
+            long otherWritten, otherFailed, otherRetries, otherBatches, otherTotalLatency, otherMaxLatency;
+            List<Map<String, AttributeValue>> otherFailedUpdateKeys;
+            synchronized (other) {
+                otherFailedUpdateKeys = new ArrayList<>(other.failedUpdateKeys);
+                otherWritten = other.itemsWritten;
+                otherFailed = other.itemsFailed;
+                otherRetries = other.retries;
+                otherBatches = other.batches;
+                otherTotalLatency = other.totalBatchLatencyMillis;
+                otherMaxLatency = other.maxBatchLatencyMillis;
+            }
+            synchronized (this) {
+                itemsWritten += otherWritten;
+                itemsFailed += otherFailed;
+                retries += otherRetries;
+                batches += otherBatches;
+                totalBatchLatencyMillis += otherTotalLatency;
+                maxBatchLatencyMillis = Math.max(maxBatchLatencyMillis, otherMaxLatency);
+                failedUpdateKeys.addAll(otherFailedUpdateKeys);
+            }
+        }
+
+        synchronized void recordWrittenUpdate() {
+            itemsWritten++;
+        }
+
+        private synchronized void recordWritten(int items) {
+            itemsWritten += items;
+        }
+
+        private synchronized void recordFailed(int items) {
+            itemsFailed += items;
+        }
+
+        private synchronized void recordRetry() {
+            retries++;
+        }
+
+        synchronized void recordFailedUpdate(UpdateItemRequest request) {
+            itemsFailed++;
+            failedUpdateKeys.add(request.key());
+        }
+
+        private synchronized void recordBatch(long latencyMillis) {
+            batches++;
+            totalBatchLatencyMillis += latencyMillis;
+            maxBatchLatencyMillis = Math.max(maxBatchLatencyMillis, latencyMillis);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return itemsWritten + " written, " + itemsFailed + " failed, " + batches + " batches, " + retries +
+                    " retries, batch latency avg " + getAverageBatchLatencyMillis() + " ms / max " + maxBatchLatencyMillis + " ms";
+        }
+    }
+}
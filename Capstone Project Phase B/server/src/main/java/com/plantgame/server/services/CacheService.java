@@ -1,14 +1,29 @@
 package com.plantgame.server.services;
 
 import com.plantgame.server.models.FertilizerType;
+import com.plantgame.server.models.PlantProfile;
 import com.plantgame.server.models.PlantType;
+import com.plantgame.server.repositories.FertilizerTypeRepository;
+import com.plantgame.server.repositories.PlantTypeRepository;
+import com.plantgame.server.utils.EnvironmentTable;
+import com.plantgame.server.utils.FutureUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * CacheService is responsible for managing in-memory caches for plant and fertilizer types.
@@ -18,41 +33,217 @@ import java.util.Map;
  * Key Responsibilities:
  * - Cache plant types from a DynamoDB table with a specified time-to-live (TTL).
  * - Cache fertilizer types from a DynamoDB table with the same TTL mechanism.
+ * - Compile every cached plant type into PlantProfiles (one per location type) that the
+ *   simulation services read instead of the PlantType maps.
  * - Provide access to the current state of the cached data.
- * - Determine if the cache needs to be updated based on the TTL.
- * - Update caches by fetching data from the respective DynamoDB tables.
+ * - Refresh the caches ahead of their expiry in the background, every "cache.refresh-interval-ms".
+ * - Count cache hits and misses per entry. The counters of a cached type are held by its entry in
+ *   the snapshot, so a lookup only increments a counter, and each lookup is counted once. Lookups
+ *   of names that are not cached share a single miss counter: the names come from clients, so
+ *   they are not kept.
+ * - Load a type missing from the cache from DynamoDB on first use (loadPlantProfile, loadFertilizerType).
+ *   Concurrent misses for the same key share a single read, and names that do not exist in
+ *   the tables are cached as absent for "cache.negative-ttl-ms", so they are neither read
+ *   nor logged on every tick.
  *
  * Annotations:
  * - `@Service` marks this class as a Spring service for dependency injection.
- * - `@Autowired` injects required dependencies like DynamoDB tables.
+ * - `@Autowired` injects required dependencies like the type repositories.
+ * - `@Scheduled` runs the refresh-ahead task.
  * <p>
  * Exception Management:
  * - Handles `DynamoDbException` during cache updates by logging to the standard error stream.
+ *   The previous contents stay in use until a refresh succeeds.
  * <p>
  * Behavior:
- * - The cache will refresh its data if the time elapsed since the last update exceeds the TTL.
- * - Caches are stored as HashMaps for efficient lookups by their key values
- *   (plant name for PlantType, fertilizer name for FertilizerType).
+ * - All cached data is held in one immutable snapshot behind an atomic reference. Readers (the
+ *   plant update worker threads and request threads) never lock and never see a partially
+ *   filled cache: a refresh builds a complete new snapshot and swaps it in.
+ * - Types loaded on demand after a miss are added by swapping in a copy of the snapshot
+ *   that contains them. A refresh also forgets the names cached as absent.
+ * - The cache is considered stale, and is refreshed by the plant update scheduler, if no
+ *   refresh has succeeded within the TTL.
  */
 @Service
 public class CacheService {
     @Autowired
-    private DynamoDbTable<PlantType> plantTypeTable;
+    private PlantTypeRepository plantTypeRepository;
 
     @Autowired
-    private DynamoDbTable<FertilizerType> fertilizerTypeTable;
+    private FertilizerTypeRepository fertilizerTypeRepository;
 
-    private final Map<String, PlantType> plantTypeCache = new HashMap<>();
-    private final Map<String, FertilizerType> fertilizerTypeCache = new HashMap<>();
-    private long lastCacheUpdate = 0;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(Map.of(), Map.of()));
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final LongAdder uncachedMisses = new LongAdder();
+    private final Map<String, Long> absentUntil = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    private volatile long lastCacheUpdate = 0;
     private static final long CACHE_TTL = 3600_000; // 1 hour in milliseconds
+    private static final int MAX_ABSENT_NAMES = 10_000;
 
-    public Map<String, PlantType> getPlantTypeCache() {
-        return plantTypeCache;
+    @Value("${cache.negative-ttl-ms:600000}")
+    private long negativeTtlMillis;
+
+    /**
+     * Returns a cached plant type.
+     *
+     * @param plantName the name of the plant type
+     * @return the plant type, or null if it is not cached
+     */
+    public PlantType getPlantType(String plantName) {
+        if (plantName == null) {
+            return null;
+        }
+        PlantTypeEntry entry = snapshot.get().plantTypes.get(plantName);
+        if (entry == null) {
+            uncachedMisses.increment();
+            return null;
+        }
+        entry.stats.hits.increment();
+        return entry.plantType;
+    }
+
+    /**
+     * Returns a cached fertilizer type.
+     *
+     * @param fertilizerName the name of the fertilizer type
+     * @return the fertilizer type, or null if it is not cached
+     */
+    public FertilizerType getFertilizerType(String fertilizerName) {
+        if (fertilizerName == null) {
+            return null;
+        }
+        FertilizerTypeEntry entry = snapshot.get().fertilizerTypes.get(fertilizerName);
+        if (entry == null) {
+            uncachedMisses.increment();
+            return null;
+        }
+        entry.stats.hits.increment();
+        return entry.fertilizerType;
+    }
+
+    /**
+     * Returns the compiled profile of a plant type for a planting location type.
+     *
+     * @param plantName the name of the plant type
+     * @param plantingLocationType the planting location type of the plant
+     * @return the compiled profile, or null if the plant type is not cached or could not be compiled
+     */
+    public PlantProfile getPlantProfile(String plantName, String plantingLocationType) {
+        if (plantName == null) {
+            return null;
+        }
+        PlantTypeEntry entry = snapshot.get().plantTypes.get(plantName);
+        if (entry == null) {
+            uncachedMisses.increment();
+            return null;
+        }
+        return profileOf(entry, plantingLocationType);
+    }
+
+    /**
+     * Returns the compiled profile of a plant type for a planting location type, loading the plant
+     * type from DynamoDB if it is not cached yet.
+     *
+     * @param plantName the name of the plant type
+     * @param plantingLocationType the planting location type of the plant
+     * @return the compiled profile, or null if the plant type does not exist, cannot be compiled,
+     *         or could not be read
+     */
+    public PlantProfile loadPlantProfile(String plantName, String plantingLocationType) {
+        if (plantName == null) {
+            return null;
+        }
+        PlantTypeEntry cached = snapshot.get().plantTypes.get(plantName);
+        if (cached != null) {
+            return profileOf(cached, plantingLocationType);
+        }
+
+        // Counted once here: reading the loaded profile below is part of the same lookup
+        uncachedMisses.increment();
+        PlantType plantType = load("PlantType:" + plantName,
+                () -> {
+                    PlantTypeEntry entry = snapshot.get().plantTypes.get(plantName);
+                    return entry != null ? entry.plantType : null;
+                },
+                () -> FutureUtils.join(plantTypeRepository.findByName(plantName)),
+                this::cachePlantType);
+        PlantTypeEntry loaded = plantType != null ? snapshot.get().plantTypes.get(plantName) : null;
+        return loaded != null && loaded.profiles != null ? loaded.profiles[EnvironmentTable.locationIndex(plantingLocationType)] : null;
+    }
+
+    /**
+     * Returns a fertilizer type, loading it from DynamoDB if it is not cached yet.
+     *
+     * @param fertilizerName the name of the fertilizer type
+     * @return the fertilizer type, or null if the name is null, the fertilizer type does not exist,
+     *         or it could not be read
+     */
+    public FertilizerType loadFertilizerType(String fertilizerName) {
+        FertilizerType fertilizerType = getFertilizerType(fertilizerName);
+        if (fertilizerType != null || fertilizerName == null) {
+            return fertilizerType;
+        }
+
+        return load("FertilizerType:" + fertilizerName,
+                () -> {
+                    FertilizerTypeEntry entry = snapshot.get().fertilizerTypes.get(fertilizerName);
+                    return entry != null ? entry.fertilizerType : null;
+                },
+                () -> FutureUtils.join(fertilizerTypeRepository.findByName(fertilizerName)),
+                this::cacheFertilizerType);
+    }
+
+    /**
+     * Checks whether a plant type is cached, whether or not it could be compiled, without
+     * counting a hit or miss.
+     *
+     * @param plantName the name of the plant type
+     * @return true if the plant type is cached
+     */
+    public boolean containsPlantType(String plantName) {
+        return plantName != null && snapshot.get().plantTypes.containsKey(plantName);
     }
 
-    public Map<String, FertilizerType> getFertilizerTypeCache() {
-        return fertilizerTypeCache;
+    /**
+     * Adds a plant type loaded after a miss to the cache and compiles its profiles. A plant type that
+     * cannot be compiled is still cached, but has no profiles and is logged.
+     *
+     * @param plantType the plant type to cache
+     */
+    public void cachePlantType(PlantType plantType) {
+        PlantProfile[] profiles = compile(plantType);
+        snapshot.updateAndGet(current -> {
+            Map<String, PlantTypeEntry> plantTypes = new HashMap<>(current.plantTypes);
+            plantTypes.put(plantType.getPlantName(),
+                    new PlantTypeEntry(plantType, profiles, statsOf(current.plantTypes.get(plantType.getPlantName()))));
+            return new Snapshot(plantTypes, current.fertilizerTypes);
+        });
+    }
+
+    /**
+     * Adds a fertilizer type loaded after a miss to the cache.
+     *
+     * @param fertilizerType the fertilizer type to cache
+     */
+    public void cacheFertilizerType(FertilizerType fertilizerType) {
+        snapshot.updateAndGet(current -> {
+            Map<String, FertilizerTypeEntry> fertilizerTypes = new HashMap<>(current.fertilizerTypes);
+            FertilizerTypeEntry previous = current.fertilizerTypes.get(fertilizerType.getFertilizerName());
+            fertilizerTypes.put(fertilizerType.getFertilizerName(),
+                    new FertilizerTypeEntry(fertilizerType, previous != null ? previous.stats : new EntryStats()));
+            return new Snapshot(current.plantTypes, fertilizerTypes);
+        });
+    }
+
+    /**
+     * Refreshes the caches in the background before they expire, so readers always find a
+     * complete snapshot. Runs at startup and then every "cache.refresh-interval-ms"
+     * (45 minutes by default, ahead of the 1 hour TTL).
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${cache.refresh-interval-ms:2700000}")
+    public void refreshAhead() {
+        updateCaches();
     }
 
     /**
@@ -61,37 +252,58 @@ public class CacheService {
      * the cached data remains consistent and up to date with the underlying data sources.
      * <p>
      * Responsibility:
-     * - Clears the existing plant type and fertilizer type caches.
-     * - Fetches all items from the plant type DynamoDB table and populates the plant type cache.
-     * - Fetches all items from the fertilizer type DynamoDB table and populates the fertilizer type cache.
+     * - Fetches all items from the plant type and fertilizer type DynamoDB tables concurrently,
+     *   through the asynchronous repositories.
+     * - Compiles the plant profiles of the plant types.
+     * - Swaps the new snapshot in atomically once both scans have completed. Readers keep
+     *   using the previous snapshot until then.
      * - Updates the timestamp indicating when the cache was last refreshed.
      * <p>
      * Exception Handling:
      * - Catches and logs `DynamoDbException` if an error occurs during the DynamoDB scan operation.
+     *   The previous snapshot is kept in that case.
      * <p>
      * Behavior:
      * - Each cache is a map where the key corresponds to the unique name of the type
      *   (e.g., plant name for plant types, fertilizer name for fertilizer types).
-     * - Utilizes DynamoDB table scanning to retrieve all items, processes the result pages
-     *   and updates the caches in memory.
+     * - Only one refresh runs at a time; a call made while another refresh is running returns immediately.
      */
     public void updateCaches() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
         try {
-            plantTypeCache.clear();
-            plantTypeTable.scan()
+            CompletableFuture<List<PlantType>> plantTypeScan = plantTypeRepository.findAll();
+            CompletableFuture<List<FertilizerType>> fertilizerTypeScan = fertilizerTypeRepository.findAll();
+
+            // The counters of the types that stay cached are carried over to their new entries
+            Snapshot current = snapshot.get();
+            Map<String, PlantTypeEntry> plantTypes = new HashMap<>();
+            FutureUtils.join(plantTypeScan)
                     .stream()
-                    .flatMap(page -> page.items().stream())
-                    .forEach(pt -> plantTypeCache.put(pt.getPlantName(), pt));
+                    .filter(plantType -> plantType.getPlantName() != null)
+                    .forEach(plantType -> plantTypes.put(plantType.getPlantName(),
+                            new PlantTypeEntry(plantType, compile(plantType), statsOf(current.plantTypes.get(plantType.getPlantName())))));
 
-            fertilizerTypeCache.clear();
-            fertilizerTypeTable.scan()
+            Map<String, FertilizerTypeEntry> fertilizerTypes = new HashMap<>();
+            FutureUtils.join(fertilizerTypeScan)
                     .stream()
-                    .flatMap(page -> page.items().stream())
-                    .forEach(ft -> fertilizerTypeCache.put(ft.getFertilizerName(), ft));
+                    .filter(fertilizerType -> fertilizerType.getFertilizerName() != null)
+                    .forEach(fertilizerType -> {
+                        FertilizerTypeEntry previous = current.fertilizerTypes.get(fertilizerType.getFertilizerName());
+                        fertilizerTypes.put(fertilizerType.getFertilizerName(),
+                                new FertilizerTypeEntry(fertilizerType, previous != null ? previous.stats : new EntryStats()));
+                    });
 
+            snapshot.set(new Snapshot(plantTypes, fertilizerTypes));
+            absentUntil.clear();
             lastCacheUpdate = System.currentTimeMillis();
+            System.out.println("Refreshed caches: " + plantTypes.size() + " plant types, " + fertilizerTypes.size() +
+                    " fertilizer types (" + getTotalHits() + " hits, " + getTotalMisses() + " misses so far).");
         } catch (DynamoDbException e) {
             System.err.println("Error updating caches: " + e.getMessage());
+        } finally {
+            refreshing.set(false);
         }
     }
 
@@ -102,4 +314,176 @@ public class CacheService {
     public long getLastCacheUpdate() {
         return lastCacheUpdate;
     }
+
+    /**
+     * Returns the hit and miss counters of every cached type, keyed by "PlantType:name" or
+     * "FertilizerType:name". Lookups of names that are not cached are only counted in the total misses.
+     *
+     * @return a copy of the counters
+     */
+    public Map<String, EntryStats> getEntryStats() {
+        Snapshot current = snapshot.get();
+        Map<String, EntryStats> stats = new HashMap<>();
+        current.plantTypes.forEach((name, entry) -> stats.put("PlantType:" + name, entry.stats));
+        current.fertilizerTypes.forEach((name, entry) -> stats.put("FertilizerType:" + name, entry.stats));
+        return stats;
+    }
+
+    public long getTotalHits() {
+        return getEntryStats().values().stream().mapToLong(EntryStats::getHits).sum();
+    }
+
+    public long getTotalMisses() {
+        return getEntryStats().values().stream().mapToLong(EntryStats::getMisses).sum() + uncachedMisses.sum();
+    }
+
+    /**
+     * Returns the profile of a cached plant type for a location type, counting a hit, or a miss if
+     * the plant type could not be compiled.
+     */
+    private static PlantProfile profileOf(PlantTypeEntry entry, String plantingLocationType) {
+        if (entry.profiles == null) {
+            entry.stats.misses.increment();
+            return null;
+        }
+        entry.stats.hits.increment();
+        return entry.profiles[EnvironmentTable.locationIndex(plantingLocationType)];
+    }
+
+    private static EntryStats statsOf(PlantTypeEntry entry) {
+        return entry != null ? entry.stats : new EntryStats();
+    }
+
+    /**
+     * Loads a missing entry from DynamoDB. Only one read per key is in flight at a time: callers that
+     * miss the same key while it is being read wait for that read. A key that does not exist is
+     * remembered as absent for the negative TTL.
+     *
+     * @param key the cache key of the entry, e.g. "PlantType:Monstera"
+     * @param cached reads the entry from the current snapshot
+     * @param reader reads the entry from DynamoDB
+     * @param cacher adds a read entry to the cache
+     * @return the entry, or null if it does not exist or could not be read
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T load(String key, Supplier<T> cached, Supplier<T> reader, Consumer<T> cacher) {
+        Long absent = absentUntil.get(key);
+        if (absent != null) {
+            if (absent > System.currentTimeMillis()) {
+                return null;
+            }
+            absentUntil.remove(key, absent);
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return (T) inFlight.join();
+        }
+
+        T value = null;
+        try {
+            // Another load may have completed between the miss and this one
+            value = cached.get();
+            if (value == null) {
+                value = reader.get();
+                if (value != null) {
+                    cacher.accept(value);
+                } else {
+                    rememberAbsent(key);
+                    System.err.println(key + " not found, caching as absent for " + negativeTtlMillis + " ms");
+                }
+            }
+        } catch (DynamoDbException e) {
+            System.err.println("Error loading " + key + ": " + e.getMessage());
+        } finally {
+            inFlightLoads.remove(key, load);
+            load.complete(value);
+        }
+        return value;
+    }
+
+    /**
+     * Remembers a key as absent for the negative TTL. The keys come from clients, so at most
+     * MAX_ABSENT_NAMES are kept: expired keys are dropped first, and a key that does not fit is not
+     * remembered (it is read again on its next miss).
+     *
+     * @param key the cache key that does not exist
+     */
+    private void rememberAbsent(String key) {
+        long now = System.currentTimeMillis();
+        if (absentUntil.size() >= MAX_ABSENT_NAMES) {
+            absentUntil.values().removeIf(until -> until <= now);
+            if (absentUntil.size() >= MAX_ABSENT_NAMES) {
+                return;
+            }
+        }
+        absentUntil.put(key, now + negativeTtlMillis);
+    }
+
+    private PlantProfile[] compile(PlantType plantType) {
+        try {
+            return PlantProfile.compile(plantType);
+        } catch (IllegalStateException e) {
+            System.err.println("Error compiling PlantType " + plantType.getPlantName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Hit and miss counters of one cache entry.
+     */
+    public static class EntryStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+    }
+
+    /**
+     * An immutable version of all the cached data.
+     */
+    private static class Snapshot {
+        private final Map<String, PlantTypeEntry> plantTypes;
+        private final Map<String, FertilizerTypeEntry> fertilizerTypes;
+
+        private Snapshot(Map<String, PlantTypeEntry> plantTypes, Map<String, FertilizerTypeEntry> fertilizerTypes) {
+            this.plantTypes = Collections.unmodifiableMap(plantTypes);
+            this.fertilizerTypes = Collections.unmodifiableMap(fertilizerTypes);
+        }
+    }
+
+    /**
+     * A cached plant type with its compiled profiles (null if it could not be compiled) and its counters.
+     */
+    private static class PlantTypeEntry {
+        private final PlantType plantType;
+        private final PlantProfile[] profiles;
+        private final EntryStats stats;
+
+        private PlantTypeEntry(PlantType plantType, PlantProfile[] profiles, EntryStats stats) {
+            this.plantType = plantType;
+            this.profiles = profiles;
+            this.stats = stats;
+        }
+    }
+
+    /**
+     * A cached fertilizer type with its counters.
+     */
+    private static class FertilizerTypeEntry {
+        private final FertilizerType fertilizerType;
+        private final EntryStats stats;
+
+        private FertilizerTypeEntry(FertilizerType fertilizerType, EntryStats stats) {
+            this.fertilizerType = fertilizerType;
+            this.stats = stats;
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.Plant;
+import com.plantgame.server.models.PlantProfile;
+import com.plantgame.server.utils.EnvironmentContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service that simulates a plant over a period of time by walking the stored hourly weather.
+ * <p>
+ * The period is given as a list of steps created by EnvironmentUtils.createSegments, one per
+ * weather hour. Each step integrates moisture, nutrient depletion, growth, disease and the shade
+ * tent with the weather of its own hour, scaled by the length of the step, so the cost of a
+ * catch-up grows with the hours elapsed and not with the number of 5-minute ticks. A garden can
+ * therefore be simulated correctly at any background cadence or on demand.
+ * <p>
+ * Disease checks stay hourly: every step that ends at least an hour after the previous check
+ * performs one, with the random stream of the step's hour.
+ */
+@Service
+public class CatchUpSimulator {
+
+    @Autowired
+    private PlantGrowthService plantGrowthService;
+
+    @Autowired
+    private MoistureService moistureService;
+
+    @Autowired
+    private FertilizerService fertilizerService;
+
+    @Autowired
+    private DiseaseService diseaseService;
+
+    @Autowired
+    private ShadeTentService shadeTentService;
+
+    /**
+     * Simulates a plant through the given steps in chronological order.
+     *
+     * @param plant the plant to simulate
+     * @param profile the compiled profile of the plant's type and location
+     * @param steps the environment of every step of the period
+     */
+    public void simulate(Plant plant, PlantProfile profile, List<EnvironmentContext> steps) {
+        for (EnvironmentContext step : steps) {
+            simulateStep(plant, profile, step);
+        }
+    }
+
+    /**
+     * Simulates a plant for a single step.
+     *
+     * @param plant the plant to simulate
+     * @param profile the compiled profile of the plant's type and location
+     * @param environment the environment of the step
+     */
+    public void simulateStep(Plant plant, PlantProfile profile, EnvironmentContext environment) {
+        moistureService.updateMoisture(plant, profile, environment);
+        float effectiveMoisture = moistureService.getEffectiveMoisture(plant, profile, environment);
+        fertilizerService.updateFertilizer(plant, profile, environment);
+        plantGrowthService.updatePlantGrowth(plant, profile, environment, effectiveMoisture);
+        diseaseService.checkForDisease(plant, profile, environment, effectiveMoisture);
+        shadeTentService.updateShadeTent(plant, environment);
+    }
+}
@@ -1,15 +1,16 @@
 package com.plantgame.server.services;
 
+import com.plantgame.server.models.DiseaseRule;
 import com.plantgame.server.models.Plant;
-import com.plantgame.server.models.PlantType;
+import com.plantgame.server.models.PlantProfile;
+import com.plantgame.server.utils.EnvironmentContext;
 import com.plantgame.server.utils.EnvironmentUtils;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Map;
-import java.util.Random;
+import java.util.Objects;
+import java.util.SplittableRandom;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -17,6 +18,14 @@ import org.springframework.stereotype.Service;
  * based on environmental factors, including temperature, humidity, light levels, and moisture.
  * It interacts with various utility methods to determine effective environmental parameters
  * and update the disease progression accordingly.
+ * <p>
+ * Which diseases a plant can catch, under which conditions, and how much they slow growth are
+ * not coded here: they are DiseaseRules compiled from the PlantTypes table into the PlantProfile.
+ * <p>
+ * The random draws of a check come from a stream seeded by the plant (username and plantId),
+ * the hour of the check and the "disease.random-seed" property. No state is shared
+ * between plants, so plant update threads do not contend, and a parallel run produces exactly
+ * the same diseases as a serial one.
  */
 @Service
 public class DiseaseService {
@@ -24,349 +33,161 @@ public class DiseaseService {
     @Autowired
     private EnvironmentUtils environmentUtils;
 
-    private static final float DISEASE_CHECK_INTERVAL = 3600f; // 1 hour in seconds
-    private final Random random = new Random();
+    @Autowired
+    private MoistureService moistureService;
+
+    @Autowired
+    private SimulationCadencePolicy simulationCadencePolicy;
+
+    @Value("${disease.random-seed:0}")
+    private long randomSeed;
+
+    private static final long DISEASE_CHECK_INTERVAL_MILLIS = 3600_000L; // 1 hour
 
     /**
      * Evaluates a plant for potential diseases based on environmental conditions, plant type thresholds,
      * and disease probabilities. If a disease is detected, the method updates the plant's disease status
      * and initializes its progress.
+     * <p>
+     * When several check intervals have passed since the last check (the user is simulated hourly
+     * or daily, or the plant was dormant), the missed checks are replayed oldest first, each one an
+     * hour before the next and under the weather of its own hour, exactly as hourly checks would
+     * have run: a disease can only start in an hour whose conditions allow it, and a disease that
+     * starts at one of the checks progresses at every later check whose conditions hold. The plant's
+     * current moisture level stands for the missed hours, which is exact for a dormant plant.
+     * At most one catch-up limit of the SimulationCadencePolicy is replayed, since no simulation
+     * reaches further back; older checks are dropped.
      *
      * @param plant the plant to be assessed for diseases
-     * @param plantType the type of the plant, which provides disease thresholds
-     * @param temperature the current temperature in the environment (in Celsius)
-     * @param humidity the current humidity level in the environment (percentage)
-     * @param lightLevel the current light exposure level (wm2)
+     * @param profile the compiled profile of the plant's type, which provides the disease rules
+     * @param environment the environment of the current tick: temperature (in Celsius), humidity (percentage)
+     *                    and light exposure level (wm2)
      * @param effectiveMoisture the current soil moisture level for the plant (percentage)
      */
-    public void checkForDisease(Plant plant, PlantType plantType, float temperature, int humidity, float lightLevel, float effectiveMoisture) {
-        String lastDiseaseCheck = plant.getLastDiseaseCheck();
-        Instant now = Instant.now();
+    public void checkForDisease(Plant plant, PlantProfile profile, EnvironmentContext environment, float effectiveMoisture) {
+        Long lastDiseaseCheck = plant.getLastDiseaseCheckEpoch();
+        long now = environment.getTime();
 
         if (lastDiseaseCheck == null) {
-            plant.setLastDiseaseCheck(now.toString());
+            plant.setLastDiseaseCheckEpoch(now);
             return;
         }
 
-        Instant lastCheck = Instant.parse(lastDiseaseCheck);
-        if (ChronoUnit.SECONDS.between(lastCheck, now) < DISEASE_CHECK_INTERVAL) {
+        if (now - lastDiseaseCheck < DISEASE_CHECK_INTERVAL_MILLIS) {
             return;
         }
+        long maxChecks = Math.max(simulationCadencePolicy.getMaxCatchUpMillis() / DISEASE_CHECK_INTERVAL_MILLIS, 1);
+        int checks = (int) Math.min((now - lastDiseaseCheck) / DISEASE_CHECK_INTERVAL_MILLIS, maxChecks);
+
+        for (int check = checks - 1; check >= 0; check--) {
+            long checkTime = now - check * DISEASE_CHECK_INTERVAL_MILLIS;
+            EnvironmentContext checkEnvironment = check == 0 ? null : environmentUtils.createHourContext(environment, checkTime);
+            float checkMoisture = effectiveMoisture;
+            if (checkEnvironment == null) {
+                // The current step, or an hour outside the stored forecast, which uses the weather of the step
+                checkEnvironment = environment;
+            } else {
+                checkMoisture = moistureService.getEffectiveMoisture(plant, profile, checkEnvironment);
+            }
 
-        float adjustedHumidity = environmentUtils.getEffectiveHumidity(plant, humidity);
-        Map<String, Float> thresholds = plantType.getDiseaseThresholds();
-        String plantName = plant.getPlantName();
-        boolean isDiseased = plant.getDisease() != null && !plant.getDisease().isEmpty();
-
-        if (!isDiseased) {
-            float rootRotMoistureThreshold;
-            float spiderMitesHumidityThreshold;
-            float mealybugsHumidityThreshold;
-
-            switch (plantName) {
-                case "ElephantEar":
-                    rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                    float leafBlightHumidityThreshold = thresholds.get("leafBlightHumidityThreshold");
-                    spiderMitesHumidityThreshold = thresholds.get("spiderMitesHumidityThreshold");
-
-                    if (effectiveMoisture > rootRotMoistureThreshold && random.nextFloat() < 0.05f) {
-                        plant.setDisease("RootRot");
-                        plant.setDiseaseProgress(0f);
-                    } else if (adjustedHumidity > leafBlightHumidityThreshold && effectiveMoisture > 60f && random.nextFloat() < 0.03f) {
-                        plant.setDisease("LeafBlight");
-                        plant.setDiseaseProgress(0f);
-                    } else if (adjustedHumidity < spiderMitesHumidityThreshold && random.nextFloat() < 0.04f) {
-                        plant.setDisease("SpiderMites");
-                        plant.setDiseaseProgress(0f);
-                    }
-                    break;
-
-                case "FicusLyrata":
-                    rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                    spiderMitesHumidityThreshold = thresholds.get("spiderMitesHumidityThreshold");
-                    float leafScorchLightThreshold = thresholds.get("leafScorchLightThreshold");
-
-                    if (effectiveMoisture > rootRotMoistureThreshold && random.nextFloat() < 0.05f) {
-                        plant.setDisease("RootRot");
-                        plant.setDiseaseProgress(0f);
-                    } else if (adjustedHumidity < spiderMitesHumidityThreshold && random.nextFloat() < 0.04f) {
-                        plant.setDisease("SpiderMites");
-                        plant.setDiseaseProgress(0f);
-                    } else if (lightLevel > leafScorchLightThreshold && random.nextFloat() < 0.03f &&
-                            plant.getPlantingLocationType().equals("Ground")) {
-                        plant.setDisease("LeafScorch");
-                        plant.setDiseaseProgress(0f);
-                    }
-                    break;
-
-                case "Monstera":
-                    rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                    spiderMitesHumidityThreshold = thresholds.get("spiderMitesHumidityThreshold");
-                    mealybugsHumidityThreshold = thresholds.get("mealybugsHumidityThreshold");
-
-                    if (effectiveMoisture > rootRotMoistureThreshold && random.nextFloat() < 0.05f) {
-                        plant.setDisease("RootRot");
-                        plant.setDiseaseProgress(0f);
-                    } else if (adjustedHumidity < spiderMitesHumidityThreshold && random.nextFloat() < 0.04f) {
-                        plant.setDisease("SpiderMites");
-                        plant.setDiseaseProgress(0f);
-                    } else if (adjustedHumidity < mealybugsHumidityThreshold && random.nextFloat() < 0.03f) {
-                        plant.setDisease("Mealybugs");
-                        plant.setDiseaseProgress(0f);
-                    }
-                    break;
-
-                case "Orchid":
-                    rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                    spiderMitesHumidityThreshold = thresholds.get("spiderMitesHumidityThreshold");
-                    float scaleHumidityThreshold = thresholds.get("scaleHumidityThreshold");
-                    float fungalLeafSpotMoistureThreshold = thresholds.get("fungalLeafSpotMoistureThreshold");
-
-                    if (effectiveMoisture > rootRotMoistureThreshold && random.nextFloat() < 0.05f) {
-                        plant.setDisease("RootRot");
-                        plant.setDiseaseProgress(0f);
-                    } else if (adjustedHumidity < spiderMitesHumidityThreshold && random.nextFloat() < 0.04f) {
-                        plant.setDisease("SpiderMites");
-                        plant.setDiseaseProgress(0f);
-                    } else if (adjustedHumidity < scaleHumidityThreshold && random.nextFloat() < 0.03f) {
-                        plant.setDisease("Scale");
-                        plant.setDiseaseProgress(0f);
-                    } else if (adjustedHumidity > 70f && effectiveMoisture > fungalLeafSpotMoistureThreshold && random.nextFloat() < 0.03f) {
-                        plant.setDisease("FungalLeafSpot");
-                        plant.setDiseaseProgress(0f);
-                    }
-                    break;
-
-                case "Sansevieria":
-                    rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                    float leafSpotMoistureThreshold = thresholds.get("leafSpotMoistureThreshold");
-                    mealybugsHumidityThreshold = thresholds.get("mealybugsHumidityThreshold");
-
-                    if (adjustedHumidity > mealybugsHumidityThreshold && temperature > 25f && random.nextFloat() < 0.02f) {
-                        plant.setDisease("Mealybugs");
-                        plant.setDiseaseProgress(0f);
-                    } else if (effectiveMoisture > rootRotMoistureThreshold && random.nextFloat() < 0.06f) {
-                        plant.setDisease("RootRot");
-                        plant.setDiseaseProgress(0f);
-                    } else if (effectiveMoisture > leafSpotMoistureThreshold && adjustedHumidity > 50f && random.nextFloat() < 0.03f) {
-                        plant.setDisease("LeafSpot");
-                        plant.setDiseaseProgress(0f);
-                    }
-                    break;
+            if (plant.getDisease() != null && !plant.getDisease().isEmpty()) {
+                updateDiseaseProgress(plant, profile, checkEnvironment, checkMoisture);
+            } else {
+                DiseaseRule rule = drawDisease(plant, profile, checkEnvironment, checkMoisture, checkTime);
+                if (rule != null) {
+                    plant.setDisease(rule.getDisease());
+                    plant.setDiseaseProgress(0f);
+                }
+            }
+        }
 
-                case "Spathiphyllum":
-                    rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                    float leafBurnLightThreshold = thresholds.get("leafBurnLightThreshold");
-                    spiderMitesHumidityThreshold = thresholds.get("spiderMitesHumidityThreshold");
+        plant.setLastDiseaseCheckEpoch(now);
+    }
 
-                    if (effectiveMoisture > rootRotMoistureThreshold && random.nextFloat() < 0.05f) {
-                        plant.setDisease("RootRot");
-                        plant.setDiseaseProgress(0f);
-                    } else if (lightLevel > leafBurnLightThreshold && random.nextFloat() < 0.03f &&
-                            plant.getPlantingLocationType().equals("Ground")) {
-                        plant.setDisease("LeafBurn");
-                        plant.setDiseaseProgress(0f);
-                    } else if (adjustedHumidity < spiderMitesHumidityThreshold && random.nextFloat() < 0.04f) {
-                        plant.setDisease("SpiderMites");
-                        plant.setDiseaseProgress(0f);
-                    }
-                    break;
+    /**
+     * Checks whether any disease of a plant's type can start under the conditions of an hour.
+     *
+     * @param plant the plant, providing its planting location
+     * @param profile the compiled profile of the plant's type, which provides the disease rules
+     * @param environment the environment of the hour
+     * @param effectiveMoisture the effective moisture of the plant in that hour (percentage)
+     * @return true if a check in that hour may start a disease
+     */
+    public boolean canStartDisease(Plant plant, PlantProfile profile, EnvironmentContext environment, float effectiveMoisture) {
+        boolean groundPlant = "Ground".equals(plant.getPlantingLocationType());
+        float adjustedHumidity = environmentUtils.getEffectiveHumidity(plant, environment);
+        for (DiseaseRule rule : profile.getDiseaseRules()) {
+            if (rule.canStart(groundPlant, effectiveMoisture, adjustedHumidity, environment.getTemperatureC(), environment.getLightLevel())) {
+                return true;
             }
         }
+        return false;
+    }
 
-        if (isDiseased) {
-            updateDiseaseProgress(plant, plantType, temperature, humidity, lightLevel, effectiveMoisture);
+    /**
+     * Performs a single disease check. Rules are tried in order, and the first one whose condition
+     * holds and whose chance succeeds starts.
+     *
+     * @param plant the plant being checked
+     * @param profile the compiled profile of the plant's type, which provides the disease rules
+     * @param environment the environment of the check's hour
+     * @param effectiveMoisture the effective moisture of the plant in that hour (percentage)
+     * @param checkTime the time of the check in epoch milliseconds
+     * @return the rule of the disease that starts, or null if none does
+     */
+    private DiseaseRule drawDisease(Plant plant, PlantProfile profile, EnvironmentContext environment, float effectiveMoisture,
+                                    long checkTime) {
+        boolean groundPlant = "Ground".equals(plant.getPlantingLocationType());
+        float adjustedHumidity = environmentUtils.getEffectiveHumidity(plant, environment);
+        SplittableRandom random = randomFor(plant, checkTime);
+        for (DiseaseRule rule : profile.getDiseaseRules()) {
+            if (rule.canStart(groundPlant, effectiveMoisture, adjustedHumidity, environment.getTemperatureC(), environment.getLightLevel()) &&
+                    random.nextFloat() < rule.getProbability()) {
+                return rule;
+            }
         }
+        return null;
+    }
 
-        plant.setLastDiseaseCheck(now.toString());
+    /**
+     * Creates the random stream of a plant's disease check. The stream only depends on the plant,
+     * the hour of the check and the configured seed, so a check gives the same result on any
+     * thread. Checks are at least an hour apart, so every check of a plant gets its own stream.
+     *
+     * @param plant the plant being checked
+     * @param checkTime the time of the check in epoch milliseconds; a check on an hour boundary
+     *                  belongs to the hour that ends there
+     * @return the random stream for the check
+     */
+    private SplittableRandom randomFor(Plant plant, long checkTime) {
+        long hour = Math.floorDiv(checkTime - 1, DISEASE_CHECK_INTERVAL_MILLIS);
+        long seed = randomSeed;
+        seed = seed * 0x9E3779B97F4A7C15L + Objects.hashCode(plant.getUsername());
+        seed = seed * 0x9E3779B97F4A7C15L + Objects.hashCode(plant.getPlantId());
+        seed = seed * 0x9E3779B97F4A7C15L + hour;
+        return new SplittableRandom(seed);
     }
 
     /**
-     * Updates the disease progress and related growth factors for a given plant based on its current conditions.
-     * Evaluates and advances the disease progression rate depending on the type of plant, the specific disease,
-     * environmental conditions, and calculated thresholds.
+     * Updates the disease progress and related growth factors of a plant for a single check.
+     * The disease advances while the condition of its rule holds, and the growth slowing factor follows
+     * the progress. A disease without a rule for the plant type is left unchanged.
      *
      * @param plant the plant object whose disease progress is being updated
-     * @param plantType the type of the plant, used to determine disease thresholds and behaviors
-     * @param temperature the current temperature, used to evaluate disease-specific conditions
-     * @param humidity the current humidity level, potentially adjusted to effective levels
-     * @param lightLevel the current light intensity level affecting light-sensitive diseases
+     * @param profile the compiled profile of the plant's type, which provides the disease rules and progress rate
+     * @param environment the environment of the check's hour
      * @param effectiveMoisture the effective soil/plant moisture level influencing moisture-sensitive diseases
      */
-    private void updateDiseaseProgress(Plant plant, PlantType plantType, float temperature, int humidity, float lightLevel, float effectiveMoisture) {
-        float adjustedHumidity = environmentUtils.getEffectiveHumidity(plant, humidity);
-        Map<String, Float> thresholds = plantType.getDiseaseThresholds();
-        float diseaseProgressRate = thresholds.get("diseaseProgressRate");
-        String disease = plant.getDisease();
-
-        float rootRotMoistureThreshold;
-        float spiderMitesHumidityThreshold;
-        float mealybugsHumidityThreshold;
-
-        switch (plant.getPlantName()) {
-            case "ElephantEar":
-                rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                float leafBlightHumidityThreshold = thresholds.get("leafBlightHumidityThreshold");
-                spiderMitesHumidityThreshold = thresholds.get("spiderMitesHumidityThreshold");
-
-                switch (disease) {
-                    case "RootRot":
-                        if (effectiveMoisture > rootRotMoistureThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.5f)); // Lerp 1 to 0.5
-                        break;
-                    case "LeafBlight":
-                        if (adjustedHumidity > leafBlightHumidityThreshold && effectiveMoisture > 60f) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.25f)); // Lerp 1 to 0.75
-                        break;
-                    case "SpiderMites":
-                        if (adjustedHumidity < spiderMitesHumidityThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.2f)); // Lerp 1 to 0.8
-                        break;
-                }
-                break;
-
-            case "FicusLyrata":
-                rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                spiderMitesHumidityThreshold = thresholds.get("spiderMitesHumidityThreshold");
-                float leafScorchLightThreshold = thresholds.get("leafScorchLightThreshold");
-
-                switch (disease) {
-                    case "RootRot":
-                        if (effectiveMoisture > rootRotMoistureThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.5f));
-                        break;
-                    case "SpiderMites":
-                        if (adjustedHumidity < spiderMitesHumidityThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.3f));
-                        break;
-                    case "LeafScorch":
-                        if (lightLevel > leafScorchLightThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.2f));
-                        break;
-                }
-                break;
-
-            case "Monstera":
-                rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                spiderMitesHumidityThreshold = thresholds.get("spiderMitesHumidityThreshold");
-                mealybugsHumidityThreshold = thresholds.get("mealybugsHumidityThreshold");
-
-                switch (disease) {
-                    case "RootRot":
-                        if (effectiveMoisture > rootRotMoistureThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.5f));
-                        break;
-                    case "SpiderMites":
-                    case "Mealybugs":
-                        if (adjustedHumidity < (disease.equals("SpiderMites") ? spiderMitesHumidityThreshold : mealybugsHumidityThreshold)) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.3f));
-                        break;
-                }
-                break;
-
-            case "Orchid":
-                rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                spiderMitesHumidityThreshold = thresholds.get("spiderMitesHumidityThreshold");
-                float scaleHumidityThreshold = thresholds.get("scaleHumidityThreshold");
-                float fungalLeafSpotMoistureThreshold = thresholds.get("fungalLeafSpotMoistureThreshold");
-
-                switch (disease) {
-                    case "RootRot":
-                        if (effectiveMoisture > rootRotMoistureThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.5f));
-                        break;
-                    case "SpiderMites":
-                        if (adjustedHumidity < spiderMitesHumidityThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.3f));
-                        break;
-                    case "Scale":
-                        if (adjustedHumidity < scaleHumidityThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.35f));
-                        break;
-                    case "FungalLeafSpot":
-                        if (adjustedHumidity > 70f && effectiveMoisture > fungalLeafSpotMoistureThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.2f));
-                        break;
-                }
-                break;
-
-            case "Sansevieria":
-                rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                float leafSpotMoistureThreshold = thresholds.get("leafSpotMoistureThreshold");
-                mealybugsHumidityThreshold = thresholds.get("mealybugsHumidityThreshold");
-
-                switch (disease) {
-                    case "RootRot":
-                        if (effectiveMoisture > rootRotMoistureThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.5f));
-                        break;
-                    case "LeafSpot":
-                        if (effectiveMoisture > leafSpotMoistureThreshold && adjustedHumidity > 50f) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.3f));
-                        break;
-                    case "Mealybugs":
-                        if (adjustedHumidity > mealybugsHumidityThreshold && temperature > 25f) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.2f));
-                        break;
-                }
-                break;
-
-            case "Spathiphyllum":
-                rootRotMoistureThreshold = thresholds.get("rootRotMoistureThreshold");
-                float leafBurnLightThreshold = thresholds.get("leafBurnLightThreshold");
-                spiderMitesHumidityThreshold = thresholds.get("spiderMitesHumidityThreshold");
+    private void updateDiseaseProgress(Plant plant, PlantProfile profile, EnvironmentContext environment, float effectiveMoisture) {
+        DiseaseRule rule = profile.findDiseaseRule(plant.getDisease());
+        if (rule == null) {
+            return;
+        }
 
-                switch (disease) {
-                    case "RootRot":
-                        if (effectiveMoisture > rootRotMoistureThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.5f));
-                        break;
-                    case "LeafBurn":
-                        if (lightLevel > leafBurnLightThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.2f));
-                        break;
-                    case "SpiderMites":
-                        if (adjustedHumidity < spiderMitesHumidityThreshold) {
-                            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + diseaseProgressRate, 1f));
-                        }
-                        plant.setDiseaseSlowingGrowthFactor(1f - (plant.getDiseaseProgress() * 0.3f));
-                        break;
-                }
-                break;
+        float adjustedHumidity = environmentUtils.getEffectiveHumidity(plant, environment);
+        if (rule.conditionHolds(effectiveMoisture, adjustedHumidity, environment.getTemperatureC(), environment.getLightLevel())) {
+            plant.setDiseaseProgress(Math.min(plant.getDiseaseProgress() + profile.getDiseaseProgressRate(), 1f));
         }
+        plant.setDiseaseSlowingGrowthFactor(rule.getSlowingGrowthFactor(plant.getDiseaseProgress()));
     }
 }
@@ -2,21 +2,19 @@ package com.plantgame.server.services;
 
 import com.plantgame.server.models.FertilizerType;
 import com.plantgame.server.models.Plant;
-import com.plantgame.server.models.PlantType;
+import com.plantgame.server.models.PlantProfile;
+import com.plantgame.server.utils.EnvironmentContext;
 import com.plantgame.server.utils.EnvironmentUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.Key;
-import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 
 /**
  * Service class responsible for handling operations related to fertilizers and their effect
  * on plants and plant types in the system.
  * <p>
- * This service interacts with a DynamoDB table to retrieve and cache fertilizer information,
- * and calculates the nutrient level depletion and fertilizer boost for plants based
- * on environmental factors and plant attributes.
+ * This service reads fertilizer information through the CacheService, which loads fertilizer
+ * types missing from the cache from DynamoDB, and calculates the nutrient level depletion and
+ * fertilizer boost for plants based on environmental factors and plant attributes.
  * <p>
  * Key Responsibilities:
  * - Manages the nutrient levels and effect durations of fertilizers applied to plants.
@@ -25,17 +23,14 @@ import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
  * - Provides functionality to calculate the growth boost of plants based on fertilizers.
  * <p>
  * Dependencies:
- * - DynamoDbTable<FertilizerType>: Interacts with the FertilizerType table in DynamoDB to
- *   retrieve fertilizer details.
  * - EnvironmentUtils: Provides utilities to fetch environmental effects like effective
  *   humidity, temperature, and light levels.
- * - CacheService: Manages a cache for fertilizer data to reduce database calls.
+ * - CacheService: Manages a cache for fertilizer data to reduce database calls. A fertilizer
+ *   type is read from DynamoDB at most once until the cache is refreshed, and unknown names are
+ *   cached as absent.
  */
 @Service
 public class FertilizerService {
-    @Autowired
-    private DynamoDbTable<FertilizerType> fertilizerTypeTable;
-
     @Autowired
     private EnvironmentUtils environmentUtils;
 
@@ -51,11 +46,11 @@ public class FertilizerService {
      * if its effect diminishes or is absent.
      *
      * @param plant the plant instance whose fertilizer properties are being updated
-     * @param plantType the type of the plant, containing specific nutrient depletion characteristics
-     * @param lightLevel the level of light exposure affecting nutrient depletion, measured in wm2
-     * @param precipitationMm the amount of precipitation affecting nutrient depletion, measured in millimeters
+     * @param profile the compiled profile of the plant's type, containing specific nutrient depletion characteristics
+     * @param environment the environment of the current tick, whose light level (wm2) and precipitation
+     *                    (millimeters) affect nutrient depletion
      */
-    public void updateFertilizer(Plant plant, PlantType plantType, float lightLevel, float precipitationMm) {
+    public void updateFertilizer(Plant plant, PlantProfile profile, EnvironmentContext environment) {
         if (plant.getNutrientLevel() <= 0 || plant.getRemainingEffectTime() <= 0) {
             plant.setNutrientLevel(0f);
             plant.setRemainingEffectTime(0f);
@@ -63,28 +58,18 @@ public class FertilizerService {
             return;
         }
 
-        FertilizerType fertilizerType = cacheService.getFertilizerTypeCache().get(plant.getFertilizerName());
-        if (plant.getFertilizerName() != null) {
-            try {
-                Key fertilizerKey = Key.builder().partitionValue(plant.getFertilizerName()).build();
-                fertilizerType = fertilizerTypeTable.getItem(fertilizerKey);
-                if (fertilizerType != null) {
-                    cacheService.getFertilizerTypeCache().put(plant.getFertilizerName(), fertilizerType);
-                }
-            } catch (DynamoDbException e) {
-                System.err.println("Error loading FertilizerType for " + plant.getFertilizerName() + ": " + e.getMessage());
-            }
-        }
-
+        FertilizerType fertilizerType = cacheService.loadFertilizerType(plant.getFertilizerName());
         if (fertilizerType == null) {
-            System.err.println("FertilizerType not found for " + plant.getFertilizerName());
             plant.setNutrientLevel(0f);
             plant.setRemainingEffectTime(0f);
             plant.setFertilizerName(null);
             return;
         }
 
-        float depletion = plantType.getNutrientDepletionRate() * UPDATE_INTERVAL / 3600f;
+        float lightLevel = environment.getLightLevel();
+        float precipitationMm = environment.getPrecipitationMm();
+        float elapsedTime = UPDATE_INTERVAL * environment.getElapsedTicks();
+        float depletion = profile.getNutrientDepletionRate() * elapsedTime / 3600f;
         depletion *= (0.8f + (lightLevel / 1400f) * 0.4f);
         if (plant.getPlantingLocationType().equals("GreenHouse")) {
             depletion *= 0.5f;
@@ -94,7 +79,7 @@ public class FertilizerService {
         }
 
         plant.setNutrientLevel(Math.max(plant.getNutrientLevel() - depletion, 0f));
-        plant.setRemainingEffectTime(Math.max(plant.getRemainingEffectTime() - UPDATE_INTERVAL, 0f));
+        plant.setRemainingEffectTime(Math.max(plant.getRemainingEffectTime() - elapsedTime, 0f));
 
         if (plant.getNutrientLevel() <= 0 || plant.getRemainingEffectTime() <= 0) {
             plant.setNutrientLevel(0f);
@@ -110,34 +95,21 @@ public class FertilizerService {
      * of the plant type.
      *
      * @param plant the plant instance to which the fertilizer is applied
-     * @param plantType the type of the plant with specific fertilizer preferences and growth characteristics
+     * @param profile the compiled profile of the plant's type with specific fertilizer preferences and growth characteristics
      * @return the growth boost factor as a float value; returns 1f if no boost is applicable
      */
-    public float getFertilizerBoost(Plant plant, PlantType plantType) {
+    public float getFertilizerBoost(Plant plant, PlantProfile profile) {
         if (plant.getNutrientLevel() <= 0 || plant.getRemainingEffectTime() <= 0) {
             return 1f;
         }
 
-        FertilizerType fertilizerType = cacheService.getFertilizerTypeCache().get(plant.getFertilizerName());
-        if (fertilizerType == null) {
-            try {
-                Key fertilizerKey = Key.builder().partitionValue(plant.getFertilizerName()).build();
-                fertilizerType = fertilizerTypeTable.getItem(fertilizerKey);
-                if (fertilizerType != null) {
-                    cacheService.getFertilizerTypeCache().put(plant.getFertilizerName(), fertilizerType);
-                }
-            } catch (DynamoDbException e) {
-                System.err.println("Error loading FertilizerType for " + plant.getFertilizerName() + ": " + e.getMessage());
-            }
-        }
-
+        FertilizerType fertilizerType = cacheService.loadFertilizerType(plant.getFertilizerName());
         if (fertilizerType == null) {
-            System.err.println("FertilizerType not found for " + plant.getFertilizerName());
             return 1f;
         }
 
-        float boost = plantType.getFertilizerGrowthBoost();
-        if (!fertilizerType.getFertilizerType().equals(plantType.getPreferredFertilizerType())) {
+        float boost = profile.getFertilizerGrowthBoost();
+        if (!fertilizerType.getFertilizerType().equals(profile.getPreferredFertilizerType())) {
             boost *= 0.8f;
         }
         return boost;
@@ -12,8 +12,8 @@ import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.plantgame.server.config.MissionConfig.MISSION_TEMPLATES;
 
@@ -27,7 +27,7 @@ import static com.plantgame.server.config.MissionConfig.MISSION_TEMPLATES;
  * missions, and resetting daily missions that require updates.
  * <p>
  * Features include:
- * - Scanning the user table to retrieve all users.
+ * - Scanning the user table with a segmented parallel scan, one worker per segment.
  * - Querying associated missions for each user from the mission table.
  * - Resetting progress and updating details for missions marked as "Daily".
  * - Ensuring updated missions are persisted in the database.
@@ -45,7 +45,7 @@ import static com.plantgame.server.config.MissionConfig.MISSION_TEMPLATES;
 public class MissionScheduler {
 
     @Autowired
-    private DynamoDbTable<User> userTable;
+    private UserScanService userScanService;
 
     @Autowired
     private DynamoDbTable<Mission> missionTable;
@@ -54,7 +54,7 @@ public class MissionScheduler {
      * Resets the daily missions for all users. This method is scheduled to run daily at midnight UTC.
      * <p>
      * The process involves the following steps:
-     * 1. Retrieves all users from the user table in DynamoDB.
+     * 1. Streams all users from the user table in DynamoDB through a segmented parallel scan.
      * 2. For each user, identifies their missions that are of type "Daily" and checks if they need to be reset
      *    based on their reset date.
      * 3. Updates the missions that meet the reset conditions:
@@ -62,7 +62,7 @@ public class MissionScheduler {
      *    - Marks the mission as not completed.
      *    - Sets the reset date to the current date.
      *    - Updates attributes like description, target progress, and reward points using pre-defined mission templates.
-     * 4. Save the updated missions back to the mission table in DynamoDB.
+     * 4. Save the updated missions back to the mission table in DynamoDB as each user is processed.
      * <p>
      * If any errors occur during the process (e.g., failure to interact with the database), they will be logged
      * for further investigation.
@@ -73,53 +73,58 @@ public class MissionScheduler {
     @Scheduled(cron = "0 0 0 * * ?") // Run daily at midnight UTC
     public void resetDailyMissionsForAllUsers() {
         try {
-            List<User> users = userTable.scan()
-                    .stream()
-                    .flatMap(page -> page.items().stream())
-                    .toList();
+            String today = LocalDate.now().toString();
+            AtomicInteger resetMissions = new AtomicInteger();
+            userScanService.forEachUser(user -> resetMissions.addAndGet(resetDailyMissions(user, today)));
 
-            List<Mission> updatedMissions = new ArrayList<>();
-            for (User user : users) {
-                Key missionKey = Key.builder().partitionValue(user.getUsername()).build();
-                QueryConditional queryConditional = QueryConditional.keyEqualTo(missionKey);
-                List<Mission> missions = missionTable.query(queryConditional)
-                        .stream()
-                        .flatMap(page -> page.items().stream())
-                        .toList();
+            System.out.println("Reset " + resetMissions.get() + " daily missions across all users.");
+        } catch (DynamoDbException e) {
+            System.err.println("Error resetting daily missions: " + e.getMessage());
+        }
+    }
 
-                String today = LocalDate.now().toString();
-                for (Mission mission : missions) {
-                    if (mission.getType().equals("Daily") &&
-                            (mission.getResetDate() == null || !mission.getResetDate().equals(today))) {
-                        mission.setCurrentProgress(0);
-                        mission.setCompleted(false);
-                        mission.setResetDate(today);
-                        MissionConfig.MissionTemplate template = MISSION_TEMPLATES.stream()
-                                .filter(t -> t.missionId.equals(mission.getMissionId()))
-                                .findFirst()
-                                .orElse(null);
-                        if (template != null) {
-                            mission.setDescription(template.descriptionFormat);
-                            mission.setTargetProgress(template.targetProgress[0]);
-                            mission.setPointsReward(template.pointsReward);
-                        }
-                        updatedMissions.add(mission);
-                    }
+    /**
+     * Resets and saves the daily missions of a single user whose reset date is not today.
+     * Called concurrently from the segments of the user scan.
+     *
+     * @param user the user whose daily missions should be reset
+     * @param today the current date as an ISO-8601 string
+     * @return the number of missions that were reset and saved
+     */
+    private int resetDailyMissions(User user, String today) {
+        Key missionKey = Key.builder().partitionValue(user.getUsername()).build();
+        QueryConditional queryConditional = QueryConditional.keyEqualTo(missionKey);
+        List<Mission> missions = missionTable.query(queryConditional)
+                .stream()
+                .flatMap(page -> page.items().stream())
+                .toList();
+
+        int resetCount = 0;
+        for (Mission mission : missions) {
+            if (mission.getType().equals("Daily") &&
+                    (mission.getResetDate() == null || !mission.getResetDate().equals(today))) {
+                mission.setCurrentProgress(0);
+                mission.setCompleted(false);
+                mission.setResetDate(today);
+                MissionConfig.MissionTemplate template = MISSION_TEMPLATES.stream()
+                        .filter(t -> t.missionId.equals(mission.getMissionId()))
+                        .findFirst()
+                        .orElse(null);
+                if (template != null) {
+                    mission.setDescription(template.descriptionFormat);
+                    mission.setTargetProgress(template.targetProgress[0]);
+                    mission.setPointsReward(template.pointsReward);
                 }
-            }
 
-            // Save updated missions
-            for (Mission mission : updatedMissions) {
+                // Save updated mission
                 try {
                     missionTable.putItem(mission);
+                    resetCount++;
                 } catch (DynamoDbException e) {
                     System.err.println("Error saving mission " + mission.getMissionId() + " for user " + mission.getUsername() + ": " + e.getMessage());
                 }
             }
-
-            System.out.println("Reset " + updatedMissions.size() + " daily missions across all users.");
-        } catch (DynamoDbException e) {
-            System.err.println("Error resetting daily missions: " + e.getMessage());
         }
+        return resetCount;
     }
 }
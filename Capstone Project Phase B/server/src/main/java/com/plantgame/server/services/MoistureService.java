@@ -2,23 +2,18 @@ package com.plantgame.server.services;
 
 import com.plantgame.server.models.GameProgress;
 import com.plantgame.server.models.Plant;
-import com.plantgame.server.models.PlantType;
-import com.plantgame.server.models.LocationData;
+import com.plantgame.server.models.PlantProfile;
+import com.plantgame.server.utils.EnvironmentContext;
 import com.plantgame.server.utils.EnvironmentUtils;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.Key;
-import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
-
-import java.util.Map;
 
 /**
  * Service responsible for handling moisture calculations for plants based on various
- * environmental factors, irrigation systems, and plant settings. This service interacts
- * with the persistence layer for retrieving game progress data and uses environmental
- * utilities for additional computations.
+ * environmental factors, irrigation systems, and plant settings. The game progress and
+ * weather are taken from the EnvironmentContext of the current tick, and environmental
+ * utilities are used for additional computations.
  */
 @Service
 public class MoistureService {
@@ -26,9 +21,6 @@ public class MoistureService {
     @Autowired
     private EnvironmentUtils environmentUtils;
 
-    @Autowired
-    private DynamoDbTable<GameProgress> gameProgressTable;
-
     private static final float EVAPORATION_RATE = 0.1f;
     private static final float IRRIGATION_MOISTURE_RATE = 0.05f;
     private static final float SPRINKLER_MOISTURE_RATE = 0.03f;
@@ -36,35 +28,18 @@ public class MoistureService {
     /**
      * Updates the moisture level of a given plant based on various environmental and system factors.
      * Factors include the plant's location type, precipitation levels, humidity,
-     * and states of irrigation or sprinklers.
+     * and states of irrigation or sprinklers. The per-tick rates are multiplied by the number of
+     * ticks the environment's step stands for.
      *
      * @param plant The plant object whose moisture level is to be updated.
-     * @param plantType The type of the plant, which influences environmental parameters like minimum humidity.
-     * @param precipitationMm The amount of precipitation in millimeters that has occurred.
-     * @param humidity The current ambient humidity level as a percentage.
+     * @param profile The compiled profile of the plant's type and location, which provides environmental parameters like minimum humidity.
+     * @param environment The environment of the current tick, providing the precipitation in millimeters,
+     *                    the ambient humidity as a percentage, and the irrigation and sprinkler states.
      */
-    public void updateMoisture(Plant plant, PlantType plantType, float precipitationMm, int humidity) {
-        GameProgress progress;
-        try {
-            Key progressKey = Key.builder().partitionValue(plant.getUsername()).sortValue("default").build();
-            progress = gameProgressTable.getItem(progressKey);
-            if (progress == null) {
-                progress = new GameProgress();
-                progress.setUsername(plant.getUsername());
-                progress.setProgressId("default");
-                progress.setGreenHouseIrrigationOn(false);
-                progress.setGroundSprinklersOn(false);
-                progress.setHouseAirConditionersOn(false);
-            }
-        } catch (DynamoDbException e) {
-            System.err.println("Error loading GameProgress for user " + plant.getUsername() + ": " + e.getMessage());
-            progress = new GameProgress();
-            progress.setUsername(plant.getUsername());
-            progress.setProgressId("default");
-            progress.setGreenHouseIrrigationOn(false);
-            progress.setGroundSprinklersOn(false);
-            progress.setHouseAirConditionersOn(false);
-        }
+    public void updateMoisture(Plant plant, PlantProfile profile, EnvironmentContext environment) {
+        GameProgress progress = environment.getProgress();
+        float precipitationMm = environment.getPrecipitationMm();
+        int humidity = environment.getHumidity();
 
         // Initial moisture (only set if the moistureLevel is not yet set)
         if (plant.getMoistureLevel() == 0) {
@@ -83,7 +58,7 @@ public class MoistureService {
             plant.setMoistureLevel(baseMoisture + (humidity - 60) * moistureMultiplier);
         }
 
-        float timeInterval = 60f;
+        float timeInterval = 60f * environment.getElapsedTicks();
         // Add moisture from irrigation/sprinklers
         if (plant.getPlantingLocationType().equals("GreenHouse") && progress.getGreenHouseIrrigationOn()) {
             plant.setMoistureLevel(Math.min(plant.getMoistureLevel() + IRRIGATION_MOISTURE_RATE * timeInterval, 100f));
@@ -100,10 +75,8 @@ public class MoistureService {
         }
 
         // Reduce moisture based on humidity
-        float effectiveHumidity = environmentUtils.getEffectiveHumidity(plant, humidity);
-        Map<String, LocationData> locationValues = plantType.getLocationValues();
-        LocationData locationData = locationValues.getOrDefault(plant.getPlantingLocationType(), locationValues.get("Ground"));
-        float minHumidity = locationData.getMinHumidity() != null ? locationData.getMinHumidity() : 0f;
+        float effectiveHumidity = environmentUtils.getEffectiveHumidity(plant, environment);
+        float minHumidity = profile.getMoistureMinHumidity();
         if (effectiveHumidity < minHumidity) {
             float humidityDeficit = (minHumidity - effectiveHumidity) / minHumidity;
             float loss = humidityDeficit * EVAPORATION_RATE *
@@ -112,6 +85,42 @@ public class MoistureService {
         }
     }
 
+    /**
+     * Determines whether {@link #updateMoisture} would leave the moisture level of a plant unchanged
+     * under the given conditions, i.e. whether the moisture is pinned at 0% or 100% with nothing
+     * that moves it this hour.
+     * <p>
+     * The checks mirror updateMoisture: a plant at 0% in a known location would be re-initialized,
+     * irrigation, sprinklers and rain raise the level unless it is already 100%, and evaporation
+     * lowers it unless it is already 0%.
+     *
+     * @param plant The plant whose moisture level is checked.
+     * @param profile The compiled profile of the plant's type and location, which provides its location-specific parameters.
+     * @param environment The environment of the current tick, providing the precipitation, the ambient
+     *                    humidity, and the irrigation and sprinkler states.
+     * @return true if the moisture level would not change, false otherwise.
+     */
+    public boolean isMoistureSteady(Plant plant, PlantProfile profile, EnvironmentContext environment) {
+        GameProgress progress = environment.getProgress();
+        float precipitationMm = environment.getPrecipitationMm();
+        float moisture = plant.getMoistureLevel();
+        String locationType = plant.getPlantingLocationType();
+        boolean knownLocation = locationType.equals("Ground") || locationType.equals("House") || locationType.equals("GreenHouse");
+        if (moisture == 0 && knownLocation) {
+            return false;
+        }
+
+        boolean wateredThisHour = (locationType.equals("GreenHouse") && progress.getGreenHouseIrrigationOn()) ||
+                (locationType.equals("Ground") && (progress.getGroundSprinklersOn() || precipitationMm > 0));
+        if (wateredThisHour && moisture < 100f) {
+            return false;
+        }
+
+        float effectiveHumidity = environmentUtils.getEffectiveHumidity(plant, environment);
+        boolean evaporating = effectiveHumidity < profile.getMoistureMinHumidity();
+        return !evaporating || moisture <= 0f;
+    }
+
     /**
      * Calculates the effective moisture level for a given plant based on its current state,
      * location type, and environmental humidity.
@@ -121,17 +130,15 @@ public class MoistureService {
      * capped at a maximum of 100%.
      *
      * @param plant The plant object whose effective moisture level is to be calculated.
-     * @param plantType The type of the plant, which determines its location-specific parameters.
-     * @param humidity The current ambient humidity level as a percentage.
+     * @param profile The compiled profile of the plant's type and location, which provides its location-specific parameters.
+     * @param environment The environment of the current tick, providing the ambient humidity level.
      * @return The calculated effective moisture level for the plant, as a float value
      *         between 0 and 100 inclusive.
      */
-    public float getEffectiveMoisture(Plant plant, PlantType plantType, int humidity) {
-        float effectiveHumidity = environmentUtils.getEffectiveHumidity(plant, humidity);
-        Map<String, LocationData> locationValues = plantType.getLocationValues();
-        LocationData locationData = locationValues.getOrDefault(plant.getPlantingLocationType(), locationValues.get("Ground"));
-        float minHumidity = locationData.getMinHumidity() != null ? locationData.getMinHumidity() : 0f;
-        float maxHumidity = locationData.getMaxHumidity() != null ? locationData.getMaxHumidity() : 100f;
+    public float getEffectiveMoisture(Plant plant, PlantProfile profile, EnvironmentContext environment) {
+        float effectiveHumidity = environmentUtils.getEffectiveHumidity(plant, environment);
+        float minHumidity = profile.getMoistureMinHumidity();
+        float maxHumidity = profile.getMoistureMaxHumidity();
         float humidityContribution = (effectiveHumidity - minHumidity) / (maxHumidity - minHumidity);
         humidityContribution = Math.max(0f, Math.min(1f, humidityContribution));
         return Math.min(plant.getMoistureLevel() + humidityContribution * 20f, 100f);
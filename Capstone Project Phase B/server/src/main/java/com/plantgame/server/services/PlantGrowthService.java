@@ -1,14 +1,10 @@
 package com.plantgame.server.services;
 
 import com.plantgame.server.models.Plant;
-import com.plantgame.server.models.PlantType;
-import com.plantgame.server.models.LocationData;
+import com.plantgame.server.models.PlantProfile;
+import com.plantgame.server.utils.EnvironmentContext;
 import com.plantgame.server.utils.EnvironmentUtils;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Map;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -40,33 +36,35 @@ public class PlantGrowthService {
     /**
      * Updates the growth status of a plant by calculating and applying growth increments based on
      * environmental factors, current plant conditions, and elapsed time since the last update.
+     * A plant that has reached its maximum scale no longer grows, so its growth timestamp is left
+     * untouched and does not cause a write on its own. The elapsed time runs up to the end of the
+     * environment's step, and a step shorter than the update interval is carried over to the next one.
      *
      * @param plant the plant instance whose growth is being updated
-     * @param plantType the type of the plant that affects growth conditions and modifiers
-     * @param temperature the current temperature of the environment
-     * @param humidity the current humidity level in the environment
-     * @param lightLevel the current light exposure level for the plant
+     * @param profile the compiled profile of the plant's type and location that affects growth conditions and modifiers
+     * @param environment the environment of the current tick (temperature, humidity and light level)
      * @param effectiveMoisture the effective moisture level available for the plant
      */
-    public void updatePlantGrowth(Plant plant, PlantType plantType, float temperature, int humidity, float lightLevel, float effectiveMoisture) {
-        String lastGrowthUpdate = plant.getLastGrowthUpdate();
+    public void updatePlantGrowth(Plant plant, PlantProfile profile, EnvironmentContext environment, float effectiveMoisture) {
+        Long lastGrowthUpdate = plant.getLastGrowthUpdateEpoch();
+        long now = environment.getTime();
         if (lastGrowthUpdate == null) {
-            plant.setLastGrowthUpdate(Instant.now().toString());
+            plant.setLastGrowthUpdateEpoch(now);
+            return;
+        }
+        if (plant.getReachedMaxScale()) {
             return;
         }
 
-        Instant lastUpdate = Instant.parse(lastGrowthUpdate);
-        Instant now = Instant.now();
-        float elapsedSeconds = ChronoUnit.SECONDS.between(lastUpdate, now);
+        float elapsedSeconds = (now - lastGrowthUpdate) / 1000;
 
-        if (elapsedSeconds >= UPDATE_INTERVAL && !plant.getReachedMaxScale()) {
-            float growthModifier = calculateGrowthModifier(plant, plantType, temperature, humidity, lightLevel, effectiveMoisture);
-            float fertilizerBoost = fertilizerService.getFertilizerBoost(plant, plantType);
+        if (elapsedSeconds >= UPDATE_INTERVAL) {
+            float growthModifier = calculateGrowthModifier(plant, profile, environment, effectiveMoisture);
+            float fertilizerBoost = fertilizerService.getFertilizerBoost(plant, profile);
             float adjustedGrowthRate = BASE_GROWTH_RATE * growthModifier * plant.getDiseaseSlowingGrowthFactor() * fertilizerBoost;
             changePlantScale(plant, adjustedGrowthRate * elapsedSeconds);
+            plant.setLastGrowthUpdateEpoch(now);
         }
-
-        plant.setLastGrowthUpdate(now.toString());
     }
 
     /**
@@ -74,44 +72,27 @@ public class PlantGrowthService {
      * and the plant type's specific growth requirements.
      *
      * @param plant the plant instance whose growth modifier is being calculated
-     * @param plantType the type of the plant, containing growth-related attributes and weights
-     * @param temperature the current temperature of the environment
-     * @param humidity the current humidity level in the environment
-     * @param lightLevel the current light level available for the plant
+     * @param profile the compiled profile of the plant's type and location, containing growth ranges and weights
+     * @param environment the environment of the current tick (temperature, humidity and light level)
      * @param effectiveMoisture the effective moisture level accessible to the plant
      * @return the calculated growth modifier as a float, representing the combined influence
      *         of temperature, humidity, light, and moisture on plant growth
      */
-    private float calculateGrowthModifier(Plant plant, PlantType plantType, float temperature, int humidity, float lightLevel, float effectiveMoisture) {
-        Map<String, LocationData> locationValues = plantType.getLocationValues();
-        LocationData locationData = locationValues.getOrDefault(plant.getPlantingLocationType(), locationValues.get("Ground"));
-        Map<String, Float> defaultValues = plantType.getDefaultValues();
-
+    private float calculateGrowthModifier(Plant plant, PlantProfile profile, EnvironmentContext environment, float effectiveMoisture) {
         // Use EnvironmentUtils for adjusted values
-        float adjustedTemperature = environmentUtils.getEffectiveTemperature(plant, temperature);
-        float adjustedHumidity = environmentUtils.getEffectiveHumidity(plant, humidity);
-        float adjustedLightLevel = environmentUtils.getEffectiveLightLevel(plant, lightLevel);
-
-        float minTemperature = locationData.getMinTemperature() != null ? locationData.getMinTemperature() : defaultValues.get("minTemperature");
-        float maxTemperature = locationData.getMaxTemperature() != null ? locationData.getMaxTemperature() : defaultValues.get("maxTemperature");
-        float minHumidity = locationData.getMinHumidity() != null ? locationData.getMinHumidity() : defaultValues.get("minHumidity");
-        float maxHumidity = locationData.getMaxHumidity() != null ? locationData.getMaxHumidity() : defaultValues.get("maxHumidity");
-        float minLight = locationData.getMinLight() != null ? locationData.getMinLight() : defaultValues.get("minLight");
-        float maxLight = locationData.getMaxLight() != null ? locationData.getMaxLight() : defaultValues.get("maxLight");
-
-        float temperatureWeight = plantType.getTemperatureWeight() != null ? plantType.getTemperatureWeight() : 0.25f;
-        float humidityWeight = plantType.getHumidityWeight() != null ? plantType.getHumidityWeight() : 0.25f;
-        float lightWeight = plantType.getLightWeight() != null ? plantType.getLightWeight() : 0.25f;
-        float waterWeight = plantType.getWaterWeight() != null ? plantType.getWaterWeight() : 0.25f;
-
-        float temperatureModifier = calculateFactor(adjustedTemperature, minTemperature, maxTemperature);
-        float humidityModifier = calculateFactor(adjustedHumidity, minHumidity, maxHumidity);
-        float lightModifier = calculateFactor(adjustedLightLevel, minLight, maxLight);
-        float optimalMoisture = plantType.getOptimalMoisture();
-        float moistureRange = plantType.getMoistureRange();
+        float adjustedTemperature = environmentUtils.getEffectiveTemperature(plant, environment);
+        float adjustedHumidity = environmentUtils.getEffectiveHumidity(plant, environment);
+        float adjustedLightLevel = environmentUtils.getEffectiveLightLevel(plant, environment);
+
+        float temperatureModifier = calculateFactor(adjustedTemperature, profile.getMinTemperature(), profile.getMaxTemperature());
+        float humidityModifier = calculateFactor(adjustedHumidity, profile.getMinHumidity(), profile.getMaxHumidity());
+        float lightModifier = calculateFactor(adjustedLightLevel, profile.getMinLight(), profile.getMaxLight());
+        float optimalMoisture = profile.getOptimalMoisture();
+        float moistureRange = profile.getMoistureRange();
         float moistureModifier = calculateFactor(effectiveMoisture, optimalMoisture - moistureRange, optimalMoisture + moistureRange);
 
-        return temperatureModifier * temperatureWeight + humidityModifier * humidityWeight + lightModifier * lightWeight + moistureModifier * waterWeight;
+        return temperatureModifier * profile.getTemperatureWeight() + humidityModifier * profile.getHumidityWeight() +
+                lightModifier * profile.getLightWeight() + moistureModifier * profile.getWaterWeight();
     }
 
     /**
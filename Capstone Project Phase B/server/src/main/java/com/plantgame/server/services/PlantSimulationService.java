@@ -0,0 +1,266 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.*;
+import com.plantgame.server.repositories.GameProgressRepository;
+import com.plantgame.server.repositories.PlantRepository;
+import com.plantgame.server.utils.EnvironmentContext;
+import com.plantgame.server.utils.EnvironmentUtils;
+import com.plantgame.server.utils.FutureUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service that simulates the plants of a single offline user. Each call is one independent
+ * unit of work, so the scheduler can fan users out across the "plantUpdateExecutor" pool.
+ * <p>
+ * The user's plants and game progress are read concurrently through the asynchronous
+ * repositories, so no thread is blocked while the reads are in flight. Only the simulation
+ * itself runs on the "plantUpdateExecutor" pool, once both reads have completed.
+ * <p>
+ * Dormant plants (see SteadyStateDetector) are neither simulated nor returned for writing.
+ * When all of a user's plants are dormant, the user is recorded as dormant so the scheduler
+ * can skip the user entirely until the earliest plant can change again.
+ * <p>
+ * In on-read mode (see SimulationCadencePolicy) the garden of a user is also brought up to date
+ * when the game is loaded, by {@link #catchUpOnRead}, and written back through the PlantRepository.
+ */
+@Service
+public class PlantSimulationService {
+
+    @Autowired
+    private PlantRepository plantRepository;
+
+    @Autowired
+    private GameProgressRepository gameProgressRepository;
+
+    @Autowired
+    @Qualifier("plantUpdateExecutor")
+    private Executor plantUpdateExecutor;
+
+    @Autowired
+    private CatchUpSimulator catchUpSimulator;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private SteadyStateDetector steadyStateDetector;
+
+    @Autowired
+    private SimulationCadencePolicy simulationCadencePolicy;
+
+    @Autowired
+    private EnvironmentUtils environmentUtils;
+
+    private static final String PLANT_TABLE_NAME = "Plants";
+
+    /**
+     * Updates the plants of a given user based on hourly weather data, current light levels,
+     * and other environmental conditions. The user's GameProgress is read once, and the resulting
+     * EnvironmentContext is shared by all the simulation services for every plant. This method processes the user's plants to update
+     * their states such as moisture, growth, fertilizer levels, and checks for diseases.
+     * When the user's previous simulation is known (SimulationCadencePolicy), the time since then is caught up
+     * one weather hour at a time by the CatchUpSimulator. Otherwise (after a restart, or on another instance) each
+     * plant is caught up from its own stored timestamps, as in {@link #catchUpOnRead}, and a plant without any is
+     * simulated for a single tick.
+     * The updated plant data is collected and returned once the user has been processed.
+     * Plants in a steady state are skipped and not included in the returned list.
+     * A failed read or simulation is logged and results in an empty list, and the recorded start of the
+     * user's simulation is forgotten, so the next run catches the plants up from their stored timestamps.
+     * The caller does the same for plants whose write fails.
+     *
+     * @param user The user whose plants need to be updated.
+     * @return A future completed with the list of updated plants for the user.
+     */
+    public CompletableFuture<List<Plant>> updateUserPlants(User user) {
+        CompletableFuture<List<Plant>> plantsFuture = plantRepository.findByUsername(user.getUsername());
+        CompletableFuture<GameProgress> progressFuture = gameProgressRepository.findByUsername(user.getUsername());
+        return plantsFuture
+                .thenCombineAsync(progressFuture, (plants, progress) -> simulateUserPlants(user, plants, progress), plantUpdateExecutor)
+                .exceptionally(error -> {
+                    System.err.println("Error updating plants for user " + user.getUsername() + ": " + FutureUtils.unwrap(error).getMessage());
+                    simulationCadencePolicy.clearUser(user.getUsername());
+                    return new ArrayList<>();
+                });
+    }
+
+    /**
+     * Simulates the plants of a user once they and the user's game progress have been read.
+     *
+     * @param user the user whose plants are simulated
+     * @param plants the user's plants as read from the plant table
+     * @param progress the user's game progress, or null if the user has none
+     * @return the list of updated plants
+     */
+    private List<Plant> simulateUserPlants(User user, List<Plant> plants, GameProgress progress) {
+        List<Plant> updatedPlants = new ArrayList<>();
+        // Snapshot the stored state so that only modified attributes are written back
+        plants.forEach(Plant::markPersisted);
+
+        EnvironmentContext environment = environmentUtils.createContext(progress);
+        if (environment == null) {
+            return updatedPlants;
+        }
+        Long simulatedSince = simulationCadencePolicy.startSimulation(user.getUsername(), environment.getTime());
+        Map<Long, List<EnvironmentContext>> stepsByStart = new HashMap<>();
+
+        boolean allDormant = true;
+        Instant userDormantUntil = null;
+        for (Plant plant : plants) {
+            applyLastSave(plant, progress);
+
+            // Unknown plant types are logged once by the cache, not on every tick
+            PlantProfile profile = cacheService.loadPlantProfile(plant.getPlantName(), plant.getPlantingLocationType());
+            if (profile == null) {
+                allDormant = false;
+                continue;
+            }
+
+            // Skip plants whose state cannot change before their dormancy ends
+            Instant dormantUntil = steadyStateDetector.getDormantUntil(plant, profile, environment);
+            if (dormantUntil != null) {
+                if (userDormantUntil == null || dormantUntil.isBefore(userDormantUntil)) {
+                    userDormantUntil = dormantUntil;
+                }
+                continue;
+            }
+            allDormant = false;
+
+            // Update systems hour by hour using the weather of each hour
+            Long from = simulatedSince != null ? simulatedSince : getSimulatedUntil(plant);
+            catchUpSimulator.simulate(plant, profile, getCatchUpSteps(progress, environment, from, stepsByStart));
+
+            updatedPlants.add(plant);
+        }
+
+        if (allDormant) {
+            // A garden without plants is looked at again in the next weather hour
+            steadyStateDetector.markUserDormant(user.getUsername(), userDormantUntil != null ? userDormantUntil : environment.getNextWeatherHour());
+        }
+        return updatedPlants;
+    }
+
+    /**
+     * Brings the plants of a user up to date at read time, using the stored hourly weather, and
+     * writes the changed attributes back with concurrent UpdateItems through the asynchronous
+     * PlantRepository, so no thread waits for the writes. Each plant is caught up from the user's previous
+     * simulation if it is known, or else from the later of its lastGrowthUpdate and lastDiseaseCheck
+     * times, and never further back than the catch-up limit of the SimulationCadencePolicy.
+     * Plants are updated in place by the calling thread. If a write fails, the recorded start of the
+     * user's simulation is forgotten, so the next simulation starts again from the stored timestamps.
+     * An update skipped because the plant was deleted meanwhile is not a failure.
+     *
+     * @param username the username of the user whose game is being loaded
+     * @param progress the user's game progress, providing the hourly weather and device toggles
+     * @param plants the user's plants as read from the plant table
+     * @return a future completed once every write has completed; failed writes are logged and do not fail it
+     */
+    public CompletableFuture<Void> catchUpOnRead(String username, GameProgress progress, List<Plant> plants) {
+        EnvironmentContext environment = environmentUtils.createContext(progress);
+        if (environment == null || plants.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Long simulatedSince = simulationCadencePolicy.startSimulation(username, environment.getTime());
+        Map<Long, List<EnvironmentContext>> stepsByStart = new HashMap<>();
+        List<UpdateItemRequest> updates = new ArrayList<>();
+        for (Plant plant : plants) {
+            plant.markPersisted();
+            applyLastSave(plant, progress);
+            PlantProfile profile = cacheService.loadPlantProfile(plant.getPlantName(), plant.getPlantingLocationType());
+            if (profile == null) {
+                continue;
+            }
+
+            Long from = simulatedSince != null ? simulatedSince : getSimulatedUntil(plant);
+            catchUpSimulator.simulate(plant, profile, getCatchUpSteps(progress, environment, from, stepsByStart));
+
+            UpdateItemRequest update = plant.toUpdateItemRequest(PLANT_TABLE_NAME);
+            if (update != null) {
+                updates.add(update);
+            }
+        }
+
+        AtomicLong failedWrites = new AtomicLong();
+        CompletableFuture<?>[] writes = updates.stream()
+                .map(update -> plantRepository.update(update).handle((response, error) -> {
+                    RuntimeException cause = error != null ? FutureUtils.unwrap(error) : null;
+                    if (cause != null && !(cause instanceof ConditionalCheckFailedException)) {
+                        System.err.println("Error updating " + update.key() + " in " + update.tableName() + ": " + cause.getMessage());
+                        failedWrites.incrementAndGet();
+                    }
+                    return null;
+                }))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(writes).thenRun(() -> {
+            if (failedWrites.get() > 0) {
+                System.err.println("Failed to write " + failedWrites.get() + " of " + updates.size() + " plants caught up for user " + username);
+                simulationCadencePolicy.clearUser(username);
+            }
+        });
+    }
+
+    /**
+     * Returns the steps that catch a plant up from the given time to the time of the environment, no further
+     * back than the catch-up limit of the SimulationCadencePolicy. The steps of a start time are created once
+     * and shared by all the plants that start from it.
+     *
+     * @param progress the user's game progress, providing the hourly weather and device toggles
+     * @param environment the environment of the current tick
+     * @param from the time the plant was last simulated, or null if it is unknown
+     * @param stepsByStart the steps already created, by start time
+     * @return the steps to simulate, or the current tick alone if the start is unknown
+     */
+    private List<EnvironmentContext> getCatchUpSteps(GameProgress progress, EnvironmentContext environment, Long from,
+                                                     Map<Long, List<EnvironmentContext>> stepsByStart) {
+        if (from == null) {
+            return List.of(environment);
+        }
+        long now = environment.getTime();
+        return stepsByStart.computeIfAbsent(simulationCadencePolicy.clampCatchUpStart(from, now),
+                start -> environmentUtils.createSegments(progress, start, now));
+    }
+
+    /**
+     * Moves the growth timestamp of a plant forward to the latest save of the game. A plant that a
+     * save did not write (because only its growth timestamp differed) keeps its older stored timestamp,
+     * although the client already simulated it up to the save.
+     *
+     * @param plant the plant, marked as persisted
+     * @param progress the user's game progress
+     */
+    private static void applyLastSave(Plant plant, GameProgress progress) {
+        Long lastSave = progress.getLastSaveTimeEpoch();
+        Long lastGrowthUpdate = plant.getLastGrowthUpdateEpoch();
+        if (lastSave != null && lastGrowthUpdate != null && lastGrowthUpdate < lastSave) {
+            plant.setLastGrowthUpdateEpoch(lastSave);
+        }
+    }
+
+    /**
+     * Returns the latest time up to which a plant is known to have been simulated.
+     *
+     * @param plant the plant
+     * @return the later of the plant's growth update and disease check times, or null if it has neither
+     */
+    private static Long getSimulatedUntil(Plant plant) {
+        Long lastGrowthUpdate = plant.getLastGrowthUpdateEpoch();
+        Long lastDiseaseCheck = plant.getLastDiseaseCheckEpoch();
+        if (lastGrowthUpdate == null || lastDiseaseCheck == null) {
+            return lastGrowthUpdate != null ? lastGrowthUpdate : lastDiseaseCheck;
+        }
+        return Math.max(lastGrowthUpdate, lastDiseaseCheck);
+    }
+}
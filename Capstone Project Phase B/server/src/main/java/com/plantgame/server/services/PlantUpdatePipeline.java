@@ -0,0 +1,254 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.Plant;
+import com.plantgame.server.models.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A single run of the offline plant update, organised as a streaming pipeline:
+ * scan users -> query plants and simulate -> batch-write.
+ * <p>
+ * The stages are connected by bounded hand-offs:
+ * - At most "userParallelism" users are being queried and simulated at once. The scan
+ *   blocks in {@link #submitUser} until a slot is free.
+ * - Simulated plants are placed on a bounded queue that the write stage drains in chunks
+ *   of up to "writeChunkSize". When the writer falls behind, simulation workers block on the full queue,
+ *   keep their user slots, and so slow the scan down as well.
+ * <p>
+ * Memory therefore stays flat regardless of the number of users or plants, and writes
+ * start as soon as the first plants are simulated.
+ * <p>
+ * Plants that cannot be written (a failing batch, or plants discarded after the writer was
+ * interrupted) are passed to the failure handler. The write stage always drains the queue until
+ * the end of the stream, and once it has stopped, producers no longer wait for it, so a failing
+ * writer never blocks the scan or {@link #finish}.
+ * <p>
+ * A pipeline is used for exactly one run: users are submitted from the scan, {@link #runWriter}
+ * runs on its own thread, and {@link #finish} is called once the scan has completed.
+ */
+public class PlantUpdatePipeline {
+
+    private static final Plant END_OF_STREAM = new Plant();
+    private static final long BATCH_FILL_WAIT_MILLIS = 50;
+    private static final long ENQUEUE_WAIT_MILLIS = 100;
+
+    private final BlockingQueue<Plant> plantQueue;
+    private final Semaphore userSlots;
+    private final int userParallelism;
+    private final int writeChunkSize;
+    private final Consumer<List<Plant>> batchWriter;
+    private final Consumer<List<Plant>> failureHandler;
+    private volatile boolean writerStopped;
+
+    private final AtomicLong usersSimulated = new AtomicLong();
+    private final AtomicLong plantsSimulated = new AtomicLong();
+    private final AtomicLong plantsFailed = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+
+    /**
+     * Creates a pipeline for one plant update run.
+     *
+     * @param userParallelism the maximum number of users simulated at the same time
+     * @param plantQueueCapacity the capacity of the queue between the simulate and write stages
+     * @param writeChunkSize the maximum number of plants passed to the write stage at once
+     * @param batchWriter the write stage, called with chunks of at most "writeChunkSize" plants
+     * @param failureHandler called with the plants that could not be written
+     */
+    public PlantUpdatePipeline(int userParallelism, int plantQueueCapacity, int writeChunkSize, Consumer<List<Plant>> batchWriter,
+                               Consumer<List<Plant>> failureHandler) {
+        this.userParallelism = Math.max(userParallelism, 1);
+        this.writeChunkSize = Math.max(writeChunkSize, 1);
+        this.userSlots = new Semaphore(this.userParallelism);
+        this.plantQueue = new ArrayBlockingQueue<>(Math.max(plantQueueCapacity, this.writeChunkSize));
+        this.batchWriter = batchWriter;
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * Hands a user to the simulate stage. Blocks while the maximum number of users is already in flight.
+     * The simulated plants are queued for the write stage when the simulation completes.
+     *
+     * @param user the offline user whose plants should be simulated
+     * @param simulation the asynchronous simulation that returns the user's updated plants
+     */
+    public void submitUser(User user, Function<User, CompletableFuture<List<Plant>>> simulation) {
+        userSlots.acquireUninterruptibly();
+        CompletableFuture<List<Plant>> future;
+        try {
+            future = simulation.apply(user);
+        } catch (RuntimeException e) {
+            userSlots.release();
+            System.err.println("Error submitting plant update for user " + user.getUsername() + ": " + e.getMessage());
+            return;
+        }
+
+        future.whenComplete((plants, error) -> {
+            try {
+                if (error != null) {
+                    System.err.println("Error updating plants for user " + user.getUsername() + ": " + error.getMessage());
+                    return;
+                }
+                usersSimulated.incrementAndGet();
+                List<Plant> notQueued = new ArrayList<>();
+                for (Plant plant : plants) {
+                    if (!enqueue(plant)) {
+                        notQueued.add(plant);
+                    }
+                    plantsSimulated.incrementAndGet();
+                }
+                if (!notQueued.isEmpty()) {
+                    fail(notQueued);
+                }
+            } finally {
+                userSlots.release();
+            }
+        });
+    }
+
+    /**
+     * Runs the write stage until {@link #finish} has been called and the queue is drained.
+     * Plants are taken from the queue and passed to the batch writer in chunks of up to "writeChunkSize".
+     * A failing batch (including an {@link Error}) is logged, passed to the failure handler, and does
+     * not stop the stage. If the writing thread is interrupted, the remaining plants are drained and
+     * passed to the failure handler without being written, and the interrupt is restored at the end.
+     */
+    public void runWriter() {
+        boolean interrupted = false;
+        try {
+            boolean endOfStream = false;
+            while (!endOfStream) {
+                List<Plant> batch = new ArrayList<>(writeChunkSize);
+                try {
+                    endOfStream = fillBatch(batch);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                if (interrupted) {
+                    fail(batch);
+                    continue;
+                }
+
+                try {
+                    batchWriter.accept(batch);
+                    batchesWritten.incrementAndGet();
+                } catch (Throwable e) {
+                    System.err.println("Error writing batch of " + batch.size() + " plants: " + e);
+                    fail(batch);
+                }
+            }
+        } finally {
+            writerStopped = true;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits for all in-flight users to finish simulating and signals the write stage that no more
+     * plants will arrive. Must be called once, after the scan has submitted its last user.
+     * Returns without waiting for the queue if the write stage has already stopped.
+     */
+    public void finish() {
+        userSlots.acquireUninterruptibly(userParallelism);
+        try {
+            enqueue(END_OF_STREAM);
+        } finally {
+            userSlots.release(userParallelism);
+        }
+    }
+
+    public long getUsersSimulated() {
+        return usersSimulated.get();
+    }
+
+    public long getPlantsSimulated() {
+        return plantsSimulated.get();
+    }
+
+    public long getPlantsFailed() {
+        return plantsFailed.get();
+    }
+
+    public long getBatchesWritten() {
+        return batchesWritten.get();
+    }
+
+    /**
+     * Fills a batch from the plant queue. Blocks for the first plant, then waits briefly for the
+     * batch to fill up so that slow simulation does not produce a stream of tiny batches.
+     *
+     * @param batch the list to fill with up to "writeChunkSize" plants
+     * @return true if the end of the stream was reached while filling the batch
+     * @throws InterruptedException if the thread was interrupted; the batch keeps the plants taken so far
+     */
+    private boolean fillBatch(List<Plant> batch) throws InterruptedException {
+        Plant plant = plantQueue.take();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(BATCH_FILL_WAIT_MILLIS);
+        while (plant != null) {
+            if (plant == END_OF_STREAM) {
+                return true;
+            }
+            batch.add(plant);
+            if (batch.size() >= writeChunkSize) {
+                return false;
+            }
+            plant = plantQueue.poll(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        }
+        return false;
+    }
+
+    /**
+     * Places a plant on the queue, waiting for space while the write stage is running.
+     * Interrupts are deferred until the plant is queued.
+     *
+     * @param plant the plant to queue
+     * @return false if the write stage has stopped and the plant was not queued
+     */
+    private boolean enqueue(Plant plant) {
+        boolean interrupted = false;
+        try {
+            while (!writerStopped) {
+                try {
+                    if (plantQueue.offer(plant, ENQUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            return false;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Counts plants that could not be written and passes them to the failure handler.
+     *
+     * @param plants the plants that were not written
+     */
+    private void fail(List<Plant> plants) {
+        plantsFailed.addAndGet(plants.size());
+        try {
+            failureHandler.accept(plants);
+        } catch (Throwable e) {
+            System.err.println("Error handling " + plants.size() + " plants that were not written: " + e);
+        }
+    }
+}
@@ -2,25 +2,17 @@ package com.plantgame.server.services;
 
 import com.plantgame.server.models.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.Key;
-import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
-import java.time.Duration;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Scheduled service for updating plant states in a game for offline players. This service interacts
@@ -31,60 +23,72 @@ import java.util.stream.Collectors;
  * ensuring the game's plant system remains synchronized and consistent with the current game environment.
  * <p>
  * Dependencies:
- * - DynamoDb tables for Users, Plants, Game Progress, Plant Types, and Fertilizer Types.
- * - External services for plant growth, moisture, fertilizer, disease handling, shade tent management, and cache management.
+ * - DynamoDb tables for Users and Plants.
+ * - PlantSimulationService, which simulates the plants of a single user, and the cache service.
  * - Scheduled execution to run updates at fixed intervals.
  * <p>
  * Key Functionalities:
- * - Scanning for all users from the DynamoDB table and checking if they are inactive.
+ * - Reading the users who may need work (UserScanService), either with a segmented parallel scan of all users
+ *   or from the sparse "simulation-index" of recently active users, and checking if they are inactive.
  * - Updating inactive users' plant states based on last active time and environmental data.
- * - Using current weather details such as precipitation, humidity, light level, and temperature to compute plant updates.
- * - Handling unprocessed items and failed writes during batch operations on DynamoDB.
+ * - Skipping users whose plants are all dormant (SteadyStateDetector), so the cost of a run grows
+ *   with the number of plants that can actually change.
+ * - Simulating users less often the longer they have been away (SimulationCadencePolicy): every run
+ *   for recently active users, hourly for users away for days, and daily for long-dormant users.
+ *   In on-read mode gardens are simulated when the game is loaded, and this service only catches up stale gardens.
+ * - Using the stored hourly weather details such as precipitation, humidity, light level, and temperature to compute
+ *   plant updates, catching up on the time since a user's previous simulation one weather hour at a time (CatchUpSimulator).
+ * - Writing only the modified attributes of updated plants (UpdateItem) through BatchWriter while the
+ *   scan is still running, and skipping plants whose state did not change.
+ * - Retrying unprocessed items and reporting failed writes during batch operations on DynamoDB.
  * <p>
  * Error Handling:
  * - Logs errors during scans, writes, and service operations for monitoring and debugging.
  * <p>
  * Threading:
- * - Utilizes asynchronous operations for updating plants associated with users to improve performance and scalability.
+ * - Each run is a PlantUpdatePipeline: the user scan feeds offline users to the "plantUpdateExecutor"
+ *   pool (at most "plant.update.parallelism" in flight), simulated plants flow through a bounded queue
+ *   ("plant.update.plant-queue-capacity"), and a writer on "plantWriteExecutor" persists them through BatchWriter,
+ *   which keeps "dynamodb.update.concurrency" updates in flight.
+ *   A slow write stage back-pressures the simulation and the scan, so memory stays flat.
+ * - A throughput summary is logged at the end of every run.
  */
 @Service
 public class PlantUpdateScheduler {
 
     @Autowired
-    private DynamoDbTable<User> userTable;
+    private BatchWriter batchWriter;
 
     @Autowired
-    private DynamoDbTable<Plant> plantTable;
+    private UserScanService userScanService;
 
     @Autowired
-    private DynamoDbTable<GameProgress> gameProgressTable;
+    private PlantSimulationService plantSimulationService;
 
     @Autowired
-    private DynamoDbTable<PlantType> plantTypeTable;
-
-    @Autowired
-    private DynamoDbTable<FertilizerType> fertilizerTypeTable;
+    private CacheService cacheService;
 
     @Autowired
-    private DynamoDbClient dynamoDbClient;
+    private SteadyStateDetector steadyStateDetector;
 
     @Autowired
-    private PlantGrowthService plantGrowthService;
+    private SessionService sessionService;
 
     @Autowired
-    private MoistureService moistureService;
+    private PresenceService presenceService;
 
     @Autowired
-    private FertilizerService fertilizerService;
+    private SimulationCadencePolicy simulationCadencePolicy;
 
     @Autowired
-    private DiseaseService diseaseService;
+    @Qualifier("plantWriteExecutor")
+    private Executor plantWriteExecutor;
 
-    @Autowired
-    private ShadeTentService shadeTentService;
+    @Value("${plant.update.parallelism:5}")
+    private int parallelism;
 
-    @Autowired
-    private CacheService cacheService;
+    @Value("${plant.update.plant-queue-capacity:500}")
+    private int plantQueueCapacity;
 
     private static final String PLANT_TABLE_NAME = "Plants";
 
@@ -95,22 +99,33 @@ public class PlantUpdateScheduler {
      * Behavior:
      * - Checks if the cache requires updating using the cache service. If an update is needed,
      *   cache data is refreshed.
-     * - Retrieves all user entries from the user table.
+     * - Streams the user entries through UserScanService: all users with a segmented parallel scan, or only
+     *   the recently active users of the "simulation-index" when "user.discovery.mode" is "index".
      * - For each user, verifies their activity status:
-     *   - If the user is inactive and not currently playing, updates their plants by invoking
-     *     the `updateUserPlants` method.
-     * - Prepares write requests for the updated plants to be written back to the plant table in
-     *   batches of 25 items (to comply with the DynamoDB BatchWriteItem limit).
-     * - Executes batch write operations for the updated plants:
-     *   - Handles any unprocessed items reported by the batch write operation.
+     *   - If the user is playing, forgets any recorded dormancy of the user's plants.
+     *   - If all of the user's plants are known to be dormant, skips the user.
+     *   - If the user is not due according to the cadence of their tier, defers the user to a later run.
+     *   - Otherwise, if the user is inactive and not currently playing, submits the user to
+     *     `PlantSimulationService.updateUserPlants`, which runs on the "plantUpdateExecutor" pool.
+     *     Submission blocks while "plant.update.parallelism" users are already in flight.
+     * - Queues each user's updated plants for the write stage as soon as the user is simulated.
+     * - The write stage writes the plants back to the plant table through BatchWriter while the scan continues:
+     *   - Each changed plant is written with an UpdateItem that SETs only its modified attributes.
+     *   - Plants whose state is identical to the stored item are not written at all.
+     *   - The updates are sent concurrently, each on its own, and throttled updates are retried
+     *     with jittered exponential backoff.
+     * - Once the scan has finished, waits for in-flight users and the remaining writes.
+     * - Logs a summary of the run: users scanned, skipped as dormant, deferred by cadence and simulated, plants written and unchanged, retries,
+     *   failed writes, batch latency, and throughput.
      * <p>
      * Exception Handling:
      * - Catches and logs `DynamoDbException` during user scanning or plant batch write operations
      *   to prevent application crashes and ensure smooth execution of later runs.
+     * - A failure while simulating one user is logged and does not affect the other users.
      * <p>
      * Dependencies:
      * - `cacheService`: Ensures up-to-date cache for processing plants.
-     * - `dynamoDbClient`: Communicates with AWS DynamoDB for reading and writing data.
+     * - `batchWriter`: Writes the updated plants to AWS DynamoDB.
      * <p>
      * Scheduling Details:
      * - Annotated with `@Scheduled` to execute this method automatically at fixed intervals.
@@ -118,160 +133,100 @@ public class PlantUpdateScheduler {
      */
     @Scheduled(fixedRate = 300000) // Run every 5 minutes
     public void updatePlantsForOfflinePlayers() {
+        long startTime = System.currentTimeMillis();
         try {
             if (cacheService.shouldUpdateCache()) {
                 cacheService.updateCaches();
             }
 
-            List<User> users = userTable.scan()
-                    .stream()
-                    .flatMap(page -> page.items().stream())
-                    .toList();
-
-            List<Plant> updatedPlants = new ArrayList<>();
-            for (User user : users) {
-                checkIfInactive(user);
-                if (user.getIsPlaying() != null && !user.getIsPlaying()) {
-                    updatedPlants.addAll(updateUserPlants(user));
-                }
-            }
-
-            if (!updatedPlants.isEmpty()) {
-                List<WriteRequest> writeRequests = updatedPlants.stream()
-                        .map(plant -> WriteRequest.builder()
-                                .putRequest(PutRequest.builder()
-                                        .item(plant.toAttributeMap())
-                                        .build())
-                                .build())
-                        .collect(Collectors.toList());
-
-                // Split into batches of 25 (DynamoDB BatchWriteItem limit)
-                List<List<WriteRequest>> batches = new ArrayList<>();
-                for (int i = 0; i < writeRequests.size(); i += 25) {
-                    batches.add(writeRequests.subList(i, Math.min(i + 25, writeRequests.size())));
-                }
-
-                for (List<WriteRequest> batch : batches) {
-                    try {
-                        BatchWriteItemResponse response = dynamoDbClient.batchWriteItem(
-                                BatchWriteItemRequest.builder()
-                                        .requestItems(Map.of(PLANT_TABLE_NAME, batch))
-                                        .build()
-                        );
-                        // Handle unprocessed items
-                        if (!response.unprocessedItems().isEmpty()) {
-                            System.err.println("Unprocessed items in batch write: " + response.unprocessedItems());
-                        }
-                    } catch (DynamoDbException e) {
-                        System.err.println("Error batch writing plants: " + e.getMessage());
+            BatchWriter.Result writeResult = new BatchWriter.Result();
+            AtomicLong unchangedPlants = new AtomicLong();
+            AtomicLong dormantUsers = new AtomicLong();
+            AtomicLong deferredUsers = new AtomicLong();
+            PlantUpdatePipeline pipeline = new PlantUpdatePipeline(parallelism, plantQueueCapacity,
+                    batchWriter.getConcurrentWriteSize(), plants -> writeResult.merge(writePlants(plants, unchangedPlants)),
+                    plants -> plants.forEach(plant -> simulationCadencePolicy.clearUser(plant.getUsername())));
+            CompletableFuture<Void> writer = CompletableFuture.runAsync(pipeline::runWriter, plantWriteExecutor);
+            long scannedUsers;
+            try {
+                scannedUsers = userScanService.forEachUserDueForSimulation(user -> {
+                    checkIfInactive(user);
+                    if (user.getIsPlaying() == null || user.getIsPlaying()) {
+                        steadyStateDetector.clearUser(user.getUsername());
+                        simulationCadencePolicy.clearUser(user.getUsername());
+                    } else if (steadyStateDetector.isUserDormant(user.getUsername())) {
+                        dormantUsers.incrementAndGet();
+                        simulationCadencePolicy.recordSkipped(user.getUsername());
+                    } else if (!simulationCadencePolicy.isDue(user)) {
+                        deferredUsers.incrementAndGet();
+                    } else {
+                        pipeline.submitUser(user, plantSimulationService::updateUserPlants);
                     }
-                }
+                });
+            } finally {
+                pipeline.finish();
+                writer.join();
             }
+
+            long elapsedMillis = Math.max(System.currentTimeMillis() - startTime, 1);
+            System.out.println("Plant update run: scanned " + scannedUsers + " users, skipped " + dormantUsers.get() +
+                    " dormant users, deferred " + deferredUsers.get() + " users, simulated " + pipeline.getUsersSimulated() +
+                    " offline users and " + pipeline.getPlantsSimulated() + " plants (" + unchangedPlants.get() + " unchanged, " +
+                    pipeline.getPlantsFailed() + " not written, " + writeResult + "), " + elapsedMillis + " ms (" +
+                    String.format("%.1f", pipeline.getUsersSimulated() * 1000.0 / elapsedMillis) + " users/s, " +
+                    String.format("%.1f", pipeline.getPlantsSimulated() * 1000.0 / elapsedMillis) + " plants/s).");
         } catch (DynamoDbException e) {
             System.err.println("Error scanning users: " + e.getMessage());
         }
     }
 
     /**
-     * Checks if the given user has been inactive for more than a specified threshold (2 minutes).
-     * If inactive, updates their status to not playing and persists the change in the database.
+     * Writes a chunk of updated plants back to the plant table through BatchWriter.
+     * This is the write stage of the pipeline. Only the attributes modified by the simulation are
+     * written, and plants without modifications are counted as unchanged and skipped.
+     * The recorded simulation start of every user with a failed write is forgotten, so the next
+     * simulation of the user catches the plants up again from their stored timestamps.
      *
-     * @param user The user whose activity status needs to be verified and updated if necessary.
+     * @param plants the updated plants to persist
+     * @param unchangedPlants the counter of plants skipped because their state did not change
+     * @return the result of the writes
      */
-    private void checkIfInactive(User user) {
-        ZonedDateTime lastActive = ZonedDateTime.parse(user.getLastActiveTime());
-        Duration idle = Duration.between(lastActive, ZonedDateTime.now(ZoneOffset.UTC));
-
-        if (idle.toMinutes() > 2) {
-            user.setIsPlaying(false);
-            try {
-                userTable.putItem(user);
-            } catch (DynamoDbException e) {
-                System.err.println("Error updating user " + user.getUsername() + ": " + e.getMessage());
-            }
+    private BatchWriter.Result writePlants(List<Plant> plants, AtomicLong unchangedPlants) {
+        List<UpdateItemRequest> updates = plants.stream()
+                .map(plant -> plant.toUpdateItemRequest(PLANT_TABLE_NAME))
+                .filter(Objects::nonNull)
+                .toList();
+        unchangedPlants.addAndGet(plants.size() - updates.size());
+
+        BatchWriter.Result result = batchWriter.updateAll(updates);
+        if (!result.isSuccessful()) {
+            System.err.println("Failed to write " + result.getItemsFailed() + " of " + plants.size() + " updated plants");
+            result.getFailedUpdateKeys().forEach(key -> simulationCadencePolicy.clearUser(key.get("username").s()));
         }
+        return result;
     }
 
     /**
-     * Updates the plants of a given user based on hourly weather data, current light levels,
-     * and other environmental conditions. This method processes the user's plants to update
-     * their states such as moisture, growth, fertilizer levels, and checks for diseases.
-     * The updated plant data is collected and returned.
+     * Checks if the given user has been inactive for more than a specified threshold (2 minutes),
+     * as tracked by the PresenceService from the user's heartbeats.
+     * Inactivity is handled as a state transition: only a user who is still marked as playing is
+     * updated to not playing, with a single conditional UpdateItem, and their cached session is
+     * invalidated. Users who are already idle are not written again.
+     * A user without a recorded activity time is considered inactive.
      *
-     * @param user The user whose plants need to be updated.
-     * @return A list of updated plants for the user.
+     * @param user The user whose activity status needs to be verified and updated if necessary.
      */
-    @Async("plantUpdateExecutor")
-    private List<Plant> updateUserPlants(User user) {
-        List<Plant> updatedPlants = new ArrayList<>();
-        try {
-            Key plantKey = Key.builder().partitionValue(user.getUsername()).build();
-            QueryConditional queryConditional = QueryConditional.keyEqualTo(plantKey);
-            List<Plant> plants = plantTable.query(queryConditional)
-                    .stream()
-                    .flatMap(page -> page.items().stream())
-                    .toList();
-
-            Key progressKey = Key.builder().partitionValue(user.getUsername()).sortValue("default").build();
-            GameProgress progress = gameProgressTable.getItem(progressKey);
-            if (progress == null || progress.getHourlyWeather() == null || progress.getHourlyWeather().isEmpty()) {
-                return updatedPlants;
-            }
-
-            List<HourlyWeatherEntry> hourlyWeather = progress.getHourlyWeather();
-            ZoneId userTimeZone;
-            try {
-                ZonedDateTime lastUpdate = ZonedDateTime.parse(progress.getLastWeatherUpdate(), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
-                userTimeZone = lastUpdate.getZone();
-            } catch (Exception e) {
-                System.err.println("Error parsing lastWeatherUpdate timezone for user " + user.getUsername() + ": " + e.getMessage());
-                userTimeZone = ZoneId.of("UTC");
-            }
-
-            ZonedDateTime now = ZonedDateTime.now(userTimeZone);
-            String currentHour = now.truncatedTo(ChronoUnit.HOURS)
-                    .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00"));
-            HourlyWeatherEntry currentHourData = hourlyWeather.stream()
-                    .filter(hour -> hour.getTime().equals(currentHour))
-                    .findFirst()
-                    .orElse(hourlyWeather.get(0));
-            double directRadiation = currentHourData.getDirectRadiationWm2();
-            double diffuseRadiation = currentHourData.getDiffuseRadiationWm2();
-            float lightLevel = (float) (directRadiation + diffuseRadiation);
-            int humidity = currentHourData.getHumidity();
-
-            for (Plant plant : plants) {
-                PlantType plantType = cacheService.getPlantTypeCache().get(plant.getPlantName());
-                if (plantType == null) {
-                    try {
-                        Key plantTypeKey = Key.builder().partitionValue(plant.getPlantName()).build();
-                        plantType = plantTypeTable.getItem(plantTypeKey);
-                        if (plantType != null) {
-                            cacheService.getPlantTypeCache().put(plant.getPlantName(), plantType);
-                        }
-                    } catch (DynamoDbException e) {
-                        System.err.println("Error loading PlantType for " + plant.getPlantName() + ": " + e.getMessage());
-                        continue;
-                    }
-                }
-                if (plantType == null) {
-                    System.err.println("PlantType not found for " + plant.getPlantName());
-                    continue;
-                }
-
-                // Update systems using current hour data
-                moistureService.updateMoisture(plant, plantType, (float) currentHourData.getPrecipitationMm(), humidity);
-                float effectiveMoisture = moistureService.getEffectiveMoisture(plant, plantType, humidity);
-                fertilizerService.updateFertilizer(plant, plantType, lightLevel, (float) currentHourData.getPrecipitationMm());
-                plantGrowthService.updatePlantGrowth(plant, plantType, (float) currentHourData.getTemperatureC(), humidity, lightLevel, effectiveMoisture);
-                diseaseService.checkForDisease(plant, plantType, (float) currentHourData.getTemperatureC(), humidity, lightLevel, effectiveMoisture);
-                shadeTentService.updateShadeTent(plant);
+    private void checkIfInactive(User user) {
+        if (Boolean.FALSE.equals(user.getIsPlaying()) || presenceService.isOnline(user)) {
+            return;
+        }
 
-                updatedPlants.add(plant);
+        try {
+            if (presenceService.markOffline(user)) {
+                sessionService.invalidateUser(user.getUsername());
             }
         } catch (DynamoDbException e) {
-            System.err.println("Error updating plants for user " + user.getUsername() + ": " + e.getMessage());
+            System.err.println("Error updating user " + user.getUsername() + ": " + e.getMessage());
         }
-        return updatedPlants;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service that tracks when each player was last seen and answers whether a player is online.
+ * <p>
+ * Key Responsibilities:
+ * - Records heartbeats in memory instead of writing the User item on every ping.
+ * - Flushes the latest last-seen time of every player who sent a heartbeat since the previous
+ *   flush, every "presence.flush-interval-ms" (1 minute by default). Each flush is a batch of
+ *   UpdateItem calls through BatchWriter that only SET lastActiveTime, lastActiveTimeEpoch and the
+ *   user's "simulation-index" bucket.
+ * - Decides whether a user is online for PlantUpdateScheduler, from the in-memory last-seen
+ *   time or, if it is more recent, the one stored in the user's item.
+ * - Marks a user as no longer playing with a single conditional UpdateItem, only when the
+ *   stored item still says the user is playing.
+ * <p>
+ * Exception Management:
+ * - Failed flushes are logged by BatchWriter, and the last-seen times of the failed updates are queued
+ *   again for the next flush (unless a newer heartbeat was queued meanwhile). An update skipped because
+ *   the user's item no longer exists is not queued again.
+ * - `DynamoDbException`s while marking a user offline are propagated to the caller.
+ */
+@Service
+public class PresenceService {
+
+    @Autowired
+    private BatchWriter batchWriter;
+
+    @Autowired
+    private DynamoDbClient dynamoDbClient;
+
+    @Autowired
+    private UserScanService userScanService;
+
+    /** A user is offline once idle for more than 2 whole minutes. */
+    private static final long INACTIVITY_THRESHOLD_MILLIS = 3 * 60 * 1000;
+    private static final String USER_TABLE_NAME = "Users";
+
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+    private final Map<String, Long> pendingFlush = new ConcurrentHashMap<>();
+
+    /**
+     * Records a heartbeat of a user. The user's in-memory last activity time is updated right away,
+     * and the write to DynamoDB is deferred to the next flush.
+     *
+     * @param user the user who sent the heartbeat
+     * @param timestamp the time of the heartbeat in epoch milliseconds
+     */
+    public void recordHeartbeat(User user, long timestamp) {
+        user.setLastActiveTimeEpoch(timestamp);
+        lastSeen.merge(user.getUsername(), timestamp, Math::max);
+        pendingFlush.merge(user.getUsername(), timestamp, Math::max);
+    }
+
+    /**
+     * Checks whether a user is online, i.e. was seen within the inactivity threshold.
+     *
+     * @param user the user to check, as read from the Users table
+     * @return true if the user was last seen less than the inactivity threshold ago
+     */
+    public boolean isOnline(User user) {
+        long seen = lastSeen.getOrDefault(user.getUsername(), 0L);
+        Long stored = user.getLastActiveTimeEpoch();
+        if (stored != null && stored > seen) {
+            seen = stored;
+        }
+        return System.currentTimeMillis() - seen < INACTIVITY_THRESHOLD_MILLIS;
+    }
+
+    /**
+     * Records that a user stopped playing. The Users table is only written when the stored item
+     * still says the user is playing (or has no playing status yet), so users who are already idle
+     * cost no write at all. Only the isPlaying attribute is updated.
+     *
+     * @param user the user who went offline
+     * @return true if the user was playing and is now marked as not playing, false if the stored
+     *         item was already idle or no longer exists
+     */
+    public boolean markOffline(User user) {
+        user.setIsPlaying(false);
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(USER_TABLE_NAME)
+                    .key(Map.of("username", AttributeValue.builder().s(user.getUsername()).build()))
+                    .updateExpression("SET isPlaying = :false")
+                    .conditionExpression("attribute_exists(username) AND (attribute_not_exists(isPlaying) OR isPlaying = :true)")
+                    .expressionAttributeValues(Map.of(
+                            ":false", AttributeValue.builder().bool(false).build(),
+                            ":true", AttributeValue.builder().bool(true).build()
+                    ))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the last-seen times recorded since the previous flush to the Users table. Only
+     * lastActiveTime, lastActiveTimeEpoch and simulationBucket are updated, and only for existing users,
+     * which keeps active users in the "simulation-index".
+     */
+    @Scheduled(fixedDelayString = "${presence.flush-interval-ms:60000}")
+    public void flush() {
+        List<UpdateItemRequest> updates = new ArrayList<>();
+        Map<String, Long> flushed = new HashMap<>();
+        for (Map.Entry<String, Long> entry : pendingFlush.entrySet()) {
+            if (!pendingFlush.remove(entry.getKey(), entry.getValue())) {
+                continue; // A newer heartbeat arrived; it is flushed next time
+            }
+            flushed.put(entry.getKey(), entry.getValue());
+            updates.add(UpdateItemRequest.builder()
+                    .tableName(USER_TABLE_NAME)
+                    .key(Map.of("username", AttributeValue.builder().s(entry.getKey()).build()))
+                    .updateExpression("SET lastActiveTime = :time, lastActiveTimeEpoch = :epoch, simulationBucket = :bucket")
+                    .conditionExpression("attribute_exists(username)")
+                    .expressionAttributeValues(Map.of(
+                            ":time", AttributeValue.builder().s(Instant.ofEpochMilli(entry.getValue()).toString()).build(),
+                            ":epoch", AttributeValue.builder().n(String.valueOf(entry.getValue())).build(),
+                            ":bucket", AttributeValue.builder().s(userScanService.simulationBucketFor(entry.getKey())).build()
+                    ))
+                    .build());
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        BatchWriter.Result result = batchWriter.updateAll(updates);
+        if (!result.isSuccessful()) {
+            System.err.println("Failed to flush last-seen time of " + result.getItemsFailed() + " of " + updates.size() + " users");
+            // Queue the failed last-seen times again, so a player's last heartbeat is not lost
+            for (Map<String, AttributeValue> key : result.getFailedUpdateKeys()) {
+                String username = key.get("username").s();
+                pendingFlush.merge(username, flushed.get(username), Math::max);
+            }
+        }
+
+        // Forget players who have been gone for long enough that the stored time is authoritative
+        long cutoff = System.currentTimeMillis() - INACTIVITY_THRESHOLD_MILLIS;
+        lastSeen.values().removeIf(seen -> seen < cutoff);
+    }
+}
@@ -0,0 +1,386 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.User;
+import com.plantgame.server.repositories.UserRepository;
+import com.plantgame.server.utils.FutureUtils;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Service that resolves session tokens to users for every authenticated request.
+ * <p>
+ * Resolved sessions are kept in a bounded in-memory cache, so most requests (including the
+ * heartbeat) do not query the "token-index" secondary index of the Users table. A cache miss is
+ * read through the asynchronous UserRepository.
+ * <p>
+ * Behavior:
+ * - An entry expires "session.cache.ttl-ms" after it was resolved (5 minutes by default),
+ *   after which the token is queried again.
+ * - The cache holds at most "session.cache.max-entries" sessions and evicts the least recently used one.
+ * - Login caches the new session right away, so the first requests after a login do not depend
+ *   on the eventually consistent index. Logout, a new login and idle detection invalidate the
+ *   user's previous session.
+ * - A token whose lookup found no user is remembered as unknown for "session.cache.negative-ttl-ms"
+ *   (10 seconds by default), so repeated requests with a stale or forged token do not query the
+ *   index on every call. Login clears the entry of its new token.
+ * - A lookup that was in flight while the user's session was invalidated is answered but not cached:
+ *   the eventually consistent index may still return the token after logout, and caching it would
+ *   bring the logged-out session back. Each invalidation is remembered for "session.cache.ttl-ms"
+ *   for that check.
+ * - Only valid tokens are cached. The cache keeps its own snapshot of the user, and every request
+ *   receives a copy of it, so no User instance is shared between request threads. Controllers write
+ *   the attributes they change with targeted UpdateItems rather than putting the whole item back, and
+ *   refresh the snapshot with {@link #updateCachedUser}.
+ * <p>
+ * Signed tokens:
+ * - When "session.signed-tokens.enabled" is true, login issues tokens of the form
+ *   "username.expiry.signature", where the signature is an HMAC-SHA256 of the username and expiry
+ *   (epoch milliseconds) with "session.signed-tokens.secret". Such a token is validated in memory;
+ *   a request only reads the user, by primary key, when the session is not cached.
+ * - Tokens expire "session.signed-tokens.ttl-ms" after login (24 hours by default). A token is rejected
+ *   once the user's stored token no longer matches it, i.e. after logout (which removes the stored token)
+ *   or a new login. That check is made whenever the session is not cached, so on every instance a
+ *   logged-out token stops working at the latest "session.cache.ttl-ms" after logout.
+ * - The instance that handles the logout also adds the token to an in-memory revocation set until it
+ *   expires, so it rejects the token right away. The set is not shared between instances. Random UUID
+ *   tokens are kept in the set for "session.cache.ttl-ms", long enough for the index to drop them.
+ * - The secret must be configured when signed tokens are enabled, and be the same on every instance.
+ *   The application fails to start otherwise, rather than issuing tokens that a restart or another
+ *   instance would reject.
+ * - Random UUID tokens issued while signing was disabled are still resolved through the index.
+ * <p>
+ * Exception Management:
+ * - `DynamoDbException`s from the Users table reads are not caught here; callers report them.
+ */
+@Service
+public class SessionService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${session.cache.max-entries:10000}")
+    private int maxSessions;
+
+    @Value("${session.cache.ttl-ms:300000}")
+    private long sessionTtlMillis;
+
+    @Value("${session.cache.negative-ttl-ms:10000}")
+    private long unknownTokenTtlMillis;
+
+    @Value("${session.signed-tokens.enabled:false}")
+    private boolean signedTokensEnabled;
+
+    @Value("${session.signed-tokens.secret:}")
+    private String signedTokenSecret;
+
+    @Value("${session.signed-tokens.ttl-ms:86400000}")
+    private long signedTokenTtlMillis;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private volatile SecretKeySpec signingKey;
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    private final Map<String, String> tokensByUsername = new HashMap<>();
+    private final Map<String, Long> invalidatedAt = new HashMap<>();
+    private final Map<String, Long> unknownTokens = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > maxSessions;
+        }
+    };
+    private final Map<String, Session> sessionsByToken = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+            if (size() > maxSessions) {
+                tokensByUsername.remove(eldest.getValue().user.getUsername(), eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Checks the signed token configuration at startup.
+     *
+     * @throws IllegalStateException if signed tokens are enabled without a secret
+     */
+    @PostConstruct
+    public void validateSignedTokenConfiguration() {
+        if (signedTokensEnabled && (signedTokenSecret == null || signedTokenSecret.isBlank())) {
+            throw new IllegalStateException("session.signed-tokens.enabled is true but session.signed-tokens.secret is not set");
+        }
+    }
+
+    /**
+     * Returns the user of a session token, from the cache if possible and otherwise by querying the
+     * "token-index" secondary index.
+     *
+     * @param token the session token sent by the client
+     * @return the user associated with the token, or null if the token is not valid
+     */
+    public User getUserByToken(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String signedUsername = null;
+        if (isSignedToken(token)) {
+            signedUsername = verifySignedToken(token);
+            if (signedUsername == null) {
+                return null;
+            }
+        }
+        long lookupStartedAt;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            Session session = sessionsByToken.get(token);
+            if (session != null) {
+                if (session.expiresAt > now) {
+                    return new User(session.user);
+                }
+                remove(token);
+            }
+            Long unknownUntil = unknownTokens.get(token);
+            if (unknownUntil != null) {
+                if (unknownUntil > now) {
+                    return null;
+                }
+                unknownTokens.remove(token);
+            }
+            if (signedUsername == null && revokedTokens.containsKey(token)) {
+                return null;
+            }
+            lookupStartedAt = now;
+        }
+
+        User user;
+        if (signedUsername != null) {
+            user = FutureUtils.join(userRepository.findByUsername(signedUsername));
+            if (user != null && !token.equals(user.getToken())) {
+                user = null;
+            }
+        } else {
+            user = FutureUtils.join(userRepository.findByToken(token));
+        }
+
+        synchronized (this) {
+            if (user == null) {
+                unknownTokens.put(token, System.currentTimeMillis() + unknownTokenTtlMillis);
+                return null;
+            }
+            if (revokedTokens.containsKey(token)) {
+                return null;
+            }
+            // A lookup that overlapped an invalidation may have read the session from before it
+            Long invalidated = invalidatedAt.get(user.getUsername());
+            if (invalidated == null || invalidated < lookupStartedAt) {
+                cacheSession(token, user);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Applies a change to the cached snapshot of a user, if the user has a cached session. The snapshot
+     * is replaced by a modified copy, so copies already handed to requests are not affected.
+     *
+     * @param username the username of the user
+     * @param update the change to apply, for example the attributes a controller has just written
+     */
+    public synchronized void updateCachedUser(String username, Consumer<User> update) {
+        String token = tokensByUsername.get(username);
+        Session session = token != null ? sessionsByToken.get(token) : null;
+        if (session == null) {
+            return;
+        }
+        User user = new User(session.user);
+        update.accept(user);
+        sessionsByToken.put(token, new Session(user, session.expiresAt));
+    }
+
+    /**
+     * Issues a new session token for a user: a signed token if "session.signed-tokens.enabled" is true,
+     * and a random UUID otherwise.
+     *
+     * @param username the username of the user logging in
+     * @return the new session token
+     */
+    public String issueToken(String username) {
+        if (!signedTokensEnabled) {
+            return UUID.randomUUID().toString();
+        }
+        String payload = encode(username.getBytes(StandardCharsets.UTF_8)) + "." +
+                (System.currentTimeMillis() + signedTokenTtlMillis);
+        return payload + "." + encode(sign(payload));
+    }
+
+    /**
+     * Revokes a session token. A signed token is remembered as revoked until it expires, so it is
+     * rejected without reading the Users table. A random UUID token is remembered for "session.cache.ttl-ms",
+     * so a lookup on the eventually consistent index cannot resolve it meanwhile.
+     *
+     * @param token the token to revoke; ignored if null
+     */
+    public void revokeToken(String token) {
+        if (token == null) {
+            return;
+        }
+        revokedTokens.put(token, isSignedToken(token) ? parseExpiry(token) : System.currentTimeMillis() + sessionTtlMillis);
+        synchronized (this) {
+            remove(token);
+        }
+    }
+
+    /**
+     * Forgets revoked tokens that have expired, and invalidations and unknown tokens that are too old
+     * to matter. Runs every 10 minutes.
+     */
+    @Scheduled(fixedRate = 600000)
+    public void purgeRevokedTokens() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        synchronized (this) {
+            invalidatedAt.values().removeIf(time -> time <= now - sessionTtlMillis);
+            unknownTokens.values().removeIf(unknownUntil -> unknownUntil <= now);
+        }
+    }
+
+    /**
+     * Caches a session, replacing any previous session of the same user. A snapshot of the user is
+     * cached, so later changes to the given instance are not seen by other requests.
+     *
+     * @param token the session token
+     * @param user the user the token belongs to
+     */
+    public synchronized void cacheSession(String token, User user) {
+        unknownTokens.remove(token);
+        String previousToken = tokensByUsername.put(user.getUsername(), token);
+        if (previousToken != null && !previousToken.equals(token)) {
+            sessionsByToken.remove(previousToken);
+        }
+        sessionsByToken.put(token, new Session(new User(user), System.currentTimeMillis() + sessionTtlMillis));
+    }
+
+    /**
+     * Removes the cached session of a user, if any. Called on logout, on login, and when the user is
+     * detected as idle, so a stale session is not served from the cache. The time of the invalidation
+     * is recorded, so lookups that were already in flight do not cache the session again.
+     *
+     * @param username the username of the user
+     */
+    public synchronized void invalidateUser(String username) {
+        invalidatedAt.put(username, System.currentTimeMillis());
+        String token = tokensByUsername.get(username);
+        if (token != null) {
+            remove(token);
+        }
+    }
+
+    /**
+     * Checks whether a token has the "username.expiry.signature" shape of a signed token.
+     * Random UUID tokens contain no dots.
+     */
+    private static boolean isSignedToken(String token) {
+        return token.indexOf('.') > 0;
+    }
+
+    /**
+     * Validates a signed token in memory.
+     *
+     * @param token the signed token
+     * @return the username carried by the token, or null if the token is malformed, forged, expired or revoked
+     */
+    private String verifySignedToken(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            byte[] expected = sign(parts[0] + "." + parts[1]);
+            byte[] actual = Base64.getUrlDecoder().decode(parts[2]);
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+            if (Long.parseLong(parts[1]) <= System.currentTimeMillis() || revokedTokens.containsKey(token)) {
+                return null;
+            }
+            return new String(Base64.getUrlDecoder().decode(parts[0]), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long parseExpiry(String token) {
+        String[] parts = token.split("\\.");
+        try {
+            return parts.length == 3 ? Long.parseLong(parts[1]) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(getSigningKey());
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign session token", e);
+        }
+    }
+
+    private SecretKeySpec getSigningKey() {
+        if (signingKey == null) {
+            synchronized (this) {
+                if (signingKey == null) {
+                    if (signedTokenSecret == null || signedTokenSecret.isBlank()) {
+                        throw new IllegalStateException("session.signed-tokens.secret is not set");
+                    }
+                    signingKey = new SecretKeySpec(signedTokenSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+                }
+            }
+        }
+        return signingKey;
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private void remove(String token) {
+        Session session = sessionsByToken.remove(token);
+        if (session != null) {
+            tokensByUsername.remove(session.user.getUsername(), token);
+        }
+    }
+
+    /**
+     * A cached session: a snapshot of the user of a token, which is never modified or handed out,
+     * and the time at which the entry expires.
+     */
+    private static class Session {
+        private final User user;
+        private final long expiresAt;
+
+        private Session(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
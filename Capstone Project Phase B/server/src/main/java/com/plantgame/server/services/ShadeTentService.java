@@ -1,6 +1,7 @@
 package com.plantgame.server.services;
 
 import com.plantgame.server.models.Plant;
+import com.plantgame.server.utils.EnvironmentContext;
 import org.springframework.stereotype.Service;
 
 /**
@@ -20,10 +21,11 @@ public class ShadeTentService {
      * of the plant are reset, and the counter is set to zero. Otherwise, the counter is increased.
      *
      * @param plant the Plant object whose shade tent counter and related attributes are to be updated
+     * @param environment the environment of the current step, which provides the number of elapsed ticks
      */
-    public void updateShadeTent(Plant plant) {
+    public void updateShadeTent(Plant plant, EnvironmentContext environment) {
         if (plant.getShadeTentCounter() > 0 && plant.getDisease() != null && !plant.getDisease().isEmpty()) {
-            float newCounter = plant.getShadeTentCounter() + 60; // Increase by 60 seconds (1 minute)
+            float newCounter = plant.getShadeTentCounter() + 60 * environment.getElapsedTicks(); // Increase by 60 seconds (1 minute) per tick
             if (newCounter >= MAX_SHADE_TENT_COUNTER) {
                 plant.setDisease("");
                 plant.setDiseaseProgress(0f);
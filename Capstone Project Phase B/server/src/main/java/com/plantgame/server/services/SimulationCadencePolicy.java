@@ -0,0 +1,158 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.User;
+import com.plantgame.server.utils.EnvironmentContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service that decides how often the garden of an offline user is simulated, based on how long
+ * the user has been away (User.lastActiveTime).
+ * <p>
+ * Tiers:
+ * - Recently active users (away for less than "simulation.cadence.away-after-ms", 1 day by default)
+ *   are simulated on every 5-minute run of PlantUpdateScheduler.
+ * - Users away for longer are simulated every "simulation.cadence.away-interval-ms" (hourly by default).
+ * - Users away for more than "simulation.cadence.dormant-after-ms" (7 days by default) are simulated
+ *   every "simulation.cadence.dormant-interval-ms" (daily by default).
+ * <p>
+ * The time of each user's last simulation is kept in memory. A simulation catches up on all the time
+ * since the previous one (see {@link #startSimulation} and CatchUpSimulator), at most one dormant interval.
+ * A user whose last simulation is unknown (after a restart, on another instance, or after playing) is
+ * due right away, and each plant is caught up from its own stored timestamps (see PlantSimulationService).
+ * <p>
+ * With "simulation.mode" set to "on-read", gardens are brought up to date when they are loaded
+ * (GameController.loadGame), and the scheduler only simulates stale gardens: no tier is simulated
+ * more often than every "simulation.on-read.stale-after-ms" (1 day by default).
+ */
+@Service
+public class SimulationCadencePolicy {
+
+    /** The interval of PlantUpdateScheduler runs, which is the length of one simulation tick. */
+    public static final long BASE_TICK_MILLIS = EnvironmentContext.TICK_MILLIS;
+
+    @Value("${simulation.cadence.away-after-ms:86400000}")
+    private long awayAfterMillis;
+
+    @Value("${simulation.cadence.dormant-after-ms:604800000}")
+    private long dormantAfterMillis;
+
+    @Value("${simulation.cadence.away-interval-ms:3600000}")
+    private long awayIntervalMillis;
+
+    @Value("${simulation.cadence.dormant-interval-ms:86400000}")
+    private long dormantIntervalMillis;
+
+    @Value("${simulation.mode:background}")
+    private String simulationMode;
+
+    @Value("${simulation.on-read.stale-after-ms:86400000}")
+    private long staleAfterMillis;
+
+    private final Map<String, Long> lastSimulated = new ConcurrentHashMap<>();
+
+    /**
+     * Checks whether gardens are simulated when they are loaded rather than in the background.
+     *
+     * @return true if "simulation.mode" is "on-read"
+     */
+    public boolean isOnReadMode() {
+        return "on-read".equalsIgnoreCase(simulationMode);
+    }
+
+    /**
+     * Returns the simulation interval of a user's tier. A user without a recorded activity time
+     * is treated as long dormant. In on-read mode the interval is at least the stale age.
+     *
+     * @param user the offline user
+     * @return the interval between two simulations of the user, in milliseconds
+     */
+    public long getInterval(User user) {
+        Long lastActive = user.getLastActiveTimeEpoch();
+        long awayMillis = lastActive != null ? System.currentTimeMillis() - lastActive : Long.MAX_VALUE;
+        long interval;
+        if (awayMillis < awayAfterMillis) {
+            interval = BASE_TICK_MILLIS;
+        } else {
+            interval = awayMillis < dormantAfterMillis ? awayIntervalMillis : dormantIntervalMillis;
+        }
+        return isOnReadMode() ? Math.max(interval, staleAfterMillis) : interval;
+    }
+
+    /**
+     * Checks whether a user is due for a simulation in the current run. Runs do not start exactly
+     * on the interval, so a user is due once less than half a tick of the interval remains.
+     *
+     * @param user the offline user
+     * @return true if the user should be simulated now
+     */
+    public boolean isDue(User user) {
+        Long last = lastSimulated.get(user.getUsername());
+        if (last == null) {
+            return true;
+        }
+        return System.currentTimeMillis() - last + BASE_TICK_MILLIS / 2 >= getInterval(user);
+    }
+
+    /**
+     * Records a user's simulation up to the given time and returns the time the simulation has to
+     * catch up from: the previous simulation, but no earlier than one dormant interval ago.
+     * If the simulation or its write fails, the caller forgets the user with {@link #clearUser}, so the
+     * failed period is simulated again from the plants' stored timestamps.
+     *
+     * @param username the username of the user being simulated
+     * @param now the time the simulation runs up to, in epoch milliseconds
+     * @return the start of the period to simulate in epoch milliseconds, or null if the previous
+     *         simulation is unknown and each plant should be caught up from its stored timestamps
+     */
+    public Long startSimulation(String username, long now) {
+        Long last = lastSimulated.put(username, now);
+        if (last == null) {
+            return null;
+        }
+        return clampCatchUpStart(last, now);
+    }
+
+    /**
+     * Limits how far back a catch-up simulation reaches: no earlier than one dormant interval ago.
+     *
+     * @param from the time the garden was last simulated, in epoch milliseconds
+     * @param now the time the simulation runs up to, in epoch milliseconds
+     * @return the start of the period to simulate in epoch milliseconds
+     */
+    public long clampCatchUpStart(long from, long now) {
+        return Math.max(from, now - getMaxCatchUpMillis());
+    }
+
+    /**
+     * Returns how far back a catch-up simulation reaches at most: one dormant interval, and at least one tick.
+     *
+     * @return the catch-up limit in milliseconds
+     */
+    public long getMaxCatchUpMillis() {
+        return Math.max(dormantIntervalMillis, BASE_TICK_MILLIS);
+    }
+
+    /**
+     * Records that a user's garden did not need a simulation (for example because all its plants
+     * are dormant), so the time until now is not simulated again later.
+     *
+     * @param username the username of the user
+     */
+    public void recordSkipped(String username) {
+        lastSimulated.put(username, System.currentTimeMillis());
+    }
+
+    /**
+     * Forgets the last simulation of a user, so the next offline simulation catches each plant up
+     * from its stored timestamps.
+     *
+     * @param username the username of the user
+     */
+    public void clearUser(String username) {
+        lastSimulated.remove(username);
+    }
+}
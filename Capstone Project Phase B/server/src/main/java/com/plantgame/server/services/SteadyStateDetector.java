@@ -0,0 +1,168 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.Plant;
+import com.plantgame.server.models.PlantProfile;
+import com.plantgame.server.utils.EnvironmentContext;
+import com.plantgame.server.utils.EnvironmentUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service that classifies plants as dormant for the offline simulation. A dormant plant is in a
+ * steady state: running it through the moisture, fertilizer, growth, disease and shade tent
+ * services would not change any of its attributes, so both the simulation and the write can be
+ * skipped until the time at which its state can next change.
+ * <p>
+ * A plant is dormant when all of the following hold:
+ * - It has reached its maximum scale, so it no longer grows.
+ * - It has no disease, so there is no disease progress and no shade tent effect.
+ * - It has no fertilizer applied and its nutrient level and remaining effect time are zero.
+ * - Its moisture level is pinned at 0% or 100% with nothing that moves it in the current hour.
+ * <p>
+ * The dormancy then extends hour by hour through the user's cached EnvironmentTable, for as long as
+ * the moisture stays steady and no disease rule of the plant can hold, since a disease check in
+ * such an hour cannot change the plant. It ends at the start of the first hour in which either may
+ * change, the end of the stored forecast, or one catch-up limit of the SimulationCadencePolicy from
+ * now, whichever comes first. The checks skipped meanwhile are replayed hour by hour by
+ * DiseaseService when the plant is next simulated. If a rule can hold in the current hour, the
+ * dormancy ends at the earlier of the next hourly disease check and the next weather hour.
+ * <p>
+ * Hourly checks that are already overdue (the plant slept through them) must not be able to start
+ * a disease either, otherwise the plant is simulated now.
+ * <p>
+ * The service also remembers users whose plants are all dormant, so the scheduler can skip
+ * querying them at all until the earliest of their plants wakes up. The entry is cleared as soon
+ * as the user is seen playing or saves the game, since either may change the garden.
+ */
+@Service
+public class SteadyStateDetector {
+
+    @Autowired
+    private MoistureService moistureService;
+
+    @Autowired
+    private DiseaseService diseaseService;
+
+    @Autowired
+    private EnvironmentUtils environmentUtils;
+
+    @Autowired
+    private SimulationCadencePolicy simulationCadencePolicy;
+
+    private static final long DISEASE_CHECK_INTERVAL_MILLIS = 3600_000L; // Same interval as DiseaseService
+
+    private final Map<String, Instant> dormantUsers = new ConcurrentHashMap<>();
+
+    /**
+     * Determines until when a plant is dormant, looking ahead through the hours of the stored forecast.
+     *
+     * @param plant the plant to classify
+     * @param profile the compiled profile of the plant's type and location
+     * @param environment the environment of the current tick, providing the user's environment table
+     * @return the time until which the plant's state cannot change, or null if the plant must be simulated now
+     */
+    public Instant getDormantUntil(Plant plant, PlantProfile profile, EnvironmentContext environment) {
+        if (!plant.getReachedMaxScale() || plant.getLastGrowthUpdateEpoch() == null) {
+            return null;
+        }
+        if (plant.getDisease() != null && !plant.getDisease().isEmpty()) {
+            return null;
+        }
+        if (plant.getFertilizerName() != null || plant.getNutrientLevel() != 0 || plant.getRemainingEffectTime() != 0) {
+            return null;
+        }
+        Long lastDiseaseCheck = plant.getLastDiseaseCheckEpoch();
+        if (lastDiseaseCheck == null) {
+            return null;
+        }
+
+        if (!moistureService.isMoistureSteady(plant, profile, environment)) {
+            return null;
+        }
+
+        long now = environment.getTime();
+        long maxCatchUp = simulationCadencePolicy.getMaxCatchUpMillis();
+        long nextDiseaseCheck = lastDiseaseCheck + DISEASE_CHECK_INTERVAL_MILLIS;
+        long currentHourStart = environment.getNextWeatherHour().toEpochMilli() - DISEASE_CHECK_INTERVAL_MILLIS;
+        // Overdue checks are replayed when the plant is next simulated, so no hour since the last check may start a disease
+        for (long time = Math.max(nextDiseaseCheck, now - maxCatchUp); time < currentHourStart; time += DISEASE_CHECK_INTERVAL_MILLIS) {
+            EnvironmentContext pastHour = environmentUtils.createHourContext(environment, time + 1);
+            if (pastHour != null && canStartDisease(plant, profile, pastHour)) {
+                return null;
+            }
+        }
+
+        Instant dormantUntil = environment.getNextWeatherHour();
+        if (canStartDisease(plant, profile, environment)) {
+            if (nextDiseaseCheck <= now) {
+                return null;
+            }
+            return Instant.ofEpochMilli(Math.min(nextDiseaseCheck, dormantUntil.toEpochMilli()));
+        }
+
+        while (dormantUntil.toEpochMilli() < now + maxCatchUp) {
+            EnvironmentContext hour = environmentUtils.createHourContext(environment, dormantUntil.toEpochMilli() + 1);
+            if (hour == null || !moistureService.isMoistureSteady(plant, profile, hour) || canStartDisease(plant, profile, hour)) {
+                break;
+            }
+            dormantUntil = hour.getNextWeatherHour();
+        }
+        return dormantUntil.isAfter(Instant.now()) ? dormantUntil : null;
+    }
+
+    /**
+     * Checks whether a disease check of a plant may start a disease under the conditions of an hour.
+     *
+     * @param plant the plant
+     * @param profile the compiled profile of the plant's type and location
+     * @param environment the environment of the hour
+     * @return true if a disease rule of the plant can hold in that hour
+     */
+    private boolean canStartDisease(Plant plant, PlantProfile profile, EnvironmentContext environment) {
+        float effectiveMoisture = moistureService.getEffectiveMoisture(plant, profile, environment);
+        return diseaseService.canStartDisease(plant, profile, environment, effectiveMoisture);
+    }
+
+    /**
+     * Records that all the plants of a user are dormant until the given time.
+     *
+     * @param username the username of the user
+     * @param dormantUntil the earliest time at which one of the user's plants can change
+     */
+    public void markUserDormant(String username, Instant dormantUntil) {
+        dormantUsers.put(username, dormantUntil);
+    }
+
+    /**
+     * Checks whether all the plants of a user are known to be dormant right now.
+     * Expired entries are removed.
+     *
+     * @param username the username of the user
+     * @return true if the user's plants can be skipped in this run
+     */
+    public boolean isUserDormant(String username) {
+        Instant dormantUntil = dormantUsers.get(username);
+        if (dormantUntil == null) {
+            return false;
+        }
+        if (dormantUntil.isAfter(Instant.now())) {
+            return true;
+        }
+        dormantUsers.remove(username, dormantUntil);
+        return false;
+    }
+
+    /**
+     * Forgets the dormancy of a user, so the user's plants are simulated again in the next run.
+     * Called whenever the user's garden may have changed.
+     *
+     * @param username the username of the user
+     */
+    public void clearUser(String username) {
+        dormantUsers.remove(username);
+    }
+}
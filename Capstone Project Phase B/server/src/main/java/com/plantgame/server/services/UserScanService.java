@@ -0,0 +1,200 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Service that enumerates the Users table for scheduled jobs using a DynamoDB parallel scan.
+ * <p>
+ * The table is split into "user.scan.segments" segments (Segment/TotalSegments). Each segment
+ * is scanned on its own "userScanExecutor" worker and its users are streamed page by page to
+ * the caller's consumer, so enumeration time drops with the segment count and the full user
+ * list is never held in memory.
+ * <p>
+ * When "user.discovery.mode" is "index", the users due for offline simulation are instead read
+ * from the sparse "simulation-index" secondary index (partition key "simulationBucket", sort key
+ * "lastActiveTimeEpoch", all attributes projected). Login, logout and the heartbeat flush place a user
+ * in one of "user.discovery.buckets" buckets, and every bucket is queried on its own worker for
+ * the users active within the last "user.discovery.retention-days" days. Users who quit long ago
+ * fall outside the key condition, so most runs cost no read capacity for them. To keep their gardens
+ * on the daily tier of SimulationCadencePolicy, a run scans the whole table instead once every
+ * "user.discovery.stale-scan-interval-ms" (1 day by default), including the first run after startup.
+ * The bucket count must not be changed while the index is in use, or users stay in their old
+ * bucket until their next login or heartbeat.
+ */
+@Service
+public class UserScanService {
+
+    @Autowired
+    private DynamoDbTable<User> userTable;
+
+    @Autowired
+    @Qualifier("userScanExecutor")
+    private Executor userScanExecutor;
+
+    @Value("${user.scan.segments:4}")
+    private int totalSegments;
+
+    @Value("${user.discovery.mode:scan}")
+    private String discoveryMode;
+
+    @Value("${user.discovery.buckets:4}")
+    private int simulationBuckets;
+
+    @Value("${user.discovery.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${user.discovery.stale-scan-interval-ms:86400000}")
+    private long staleScanIntervalMillis;
+
+    private volatile long lastFullScan;
+
+    private static final String SIMULATION_INDEX_NAME = "simulation-index";
+
+    /**
+     * Scans every user in the Users table and hands each one to the given consumer.
+     * The consumer is called concurrently from several segment workers, so it must be thread-safe.
+     * The method returns once every segment has been fully scanned.
+     *
+     * @param consumer the callback invoked for each scanned user
+     * @return the number of users scanned
+     * @throws RuntimeException the first error raised by a segment, such as a DynamoDbException
+     */
+    public long forEachUser(Consumer<User> consumer) {
+        int segments = Math.max(totalSegments, 1);
+        AtomicLong scannedUsers = new AtomicLong();
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (int segment = 0; segment < segments; segment++) {
+            int currentSegment = segment;
+            tasks.add(() -> scanSegment(currentSegment, segments, consumer, scannedUsers));
+        }
+        runAll(tasks);
+        return scannedUsers.get();
+    }
+
+    /**
+     * Hands every user who may need an offline simulation to the given consumer. With the "index"
+     * discovery mode only the users of the "simulation-index" who were active within the retention
+     * period are read, except for one run per stale scan interval, which scans the whole table so the
+     * users idle for longer are still simulated. Otherwise the whole table is scanned as in {@link #forEachUser}.
+     * The consumer is called concurrently from several workers, so it must be thread-safe.
+     *
+     * @param consumer the callback invoked for each user
+     * @return the number of users read
+     * @throws RuntimeException the first error raised by a worker, such as a DynamoDbException
+     */
+    public long forEachUserDueForSimulation(Consumer<User> consumer) {
+        if (!"index".equalsIgnoreCase(discoveryMode)) {
+            return forEachUser(consumer);
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastFullScan >= staleScanIntervalMillis) {
+            long scannedUsers = forEachUser(consumer);
+            lastFullScan = now;
+            return scannedUsers;
+        }
+
+        int buckets = Math.max(simulationBuckets, 1);
+        long activeSince = now - TimeUnit.DAYS.toMillis(retentionDays);
+        AtomicLong readUsers = new AtomicLong();
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            String currentBucket = String.valueOf(bucket);
+            tasks.add(() -> queryBucket(currentBucket, activeSince, consumer, readUsers));
+        }
+        runAll(tasks);
+        return readUsers.get();
+    }
+
+    /**
+     * Returns the "simulation-index" bucket of a user. The bucket is derived from the username,
+     * so every write path assigns the same bucket without reading the user first.
+     *
+     * @param username the username of the user
+     * @return the bucket of the user, between "0" and the bucket count minus one
+     */
+    public String simulationBucketFor(String username) {
+        return String.valueOf(Math.floorMod(username.hashCode(), Math.max(simulationBuckets, 1)));
+    }
+
+    /**
+     * Runs the given tasks concurrently on the "userScanExecutor" pool and waits for all of them.
+     *
+     * @param tasks the tasks to run
+     * @throws RuntimeException the first error raised by a task
+     */
+    private void runAll(List<Runnable> tasks) {
+        List<CompletableFuture<Void>> futures = tasks.stream()
+                .map(task -> CompletableFuture.runAsync(task, userScanExecutor))
+                .toList();
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queries a single bucket of the "simulation-index" for the users active since the given time,
+     * passing each user to the consumer as its page arrives.
+     *
+     * @param bucket the bucket to query
+     * @param activeSince the earliest last activity time to include, in epoch milliseconds
+     * @param consumer the callback invoked for each user
+     * @param readUsers the counter of users read across all buckets
+     */
+    private void queryBucket(String bucket, long activeSince, Consumer<User> consumer, AtomicLong readUsers) {
+        DynamoDbIndex<User> simulationIndex = userTable.index(SIMULATION_INDEX_NAME);
+        Key key = Key.builder().partitionValue(bucket).sortValue(activeSince).build();
+        simulationIndex.query(QueryConditional.sortGreaterThanOrEqualTo(key))
+                .forEach(page -> page.items().forEach(user -> {
+                    readUsers.incrementAndGet();
+                    consumer.accept(user);
+                }));
+    }
+
+    /**
+     * Scans a single segment of the Users table, passing each user to the consumer as its page arrives.
+     *
+     * @param segment the zero-based segment to scan
+     * @param segments the total number of segments the table is split into
+     * @param consumer the callback invoked for each scanned user
+     * @param scannedUsers the counter of users scanned across all segments
+     */
+    private void scanSegment(int segment, int segments, Consumer<User> consumer, AtomicLong scannedUsers) {
+        ScanEnhancedRequest request = ScanEnhancedRequest.builder()
+                .segment(segment)
+                .totalSegments(segments)
+                .build();
+        userTable.scan(request)
+                .items()
+                .forEach(user -> {
+                    scannedUsers.incrementAndGet();
+                    consumer.accept(user);
+                });
+    }
+}
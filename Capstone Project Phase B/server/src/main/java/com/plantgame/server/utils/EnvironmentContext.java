@@ -0,0 +1,111 @@
+package com.plantgame.server.utils;
+
+import com.plantgame.server.models.GameProgress;
+
+import java.time.Instant;
+
+/**
+ * The environment of a single user for one simulation step: the user's game progress (device
+ * toggles) and the weather of the step's hour in the user's time zone.
+ * <p>
+ * A context is built once per user per tick by {@link EnvironmentUtils#createContext} from the
+ * already-loaded GameProgress and passed through all the simulation services, so that none of
+ * them has to read the GameProgress item again for every plant. The weather and the effective
+ * environment of every location are read from the user's precomputed EnvironmentTable at the
+ * column of the current hour. A context is immutable and safe to share between threads.
+ * <p>
+ * A context also carries the time at which its step ends and the number of 5-minute ticks the step
+ * stands for. A regular step is a single tick ending now. The catch-up simulation (see
+ * {@link EnvironmentUtils#createSegments}) splits the time since a user's previous simulation into one
+ * step per weather hour, and the services scale their per-tick rates by the step's tick count.
+ */
+public class EnvironmentContext {
+    private final GameProgress progress;
+    private final EnvironmentTable table;
+    private final int hour;
+    private final Instant nextWeatherHour;
+    private final long time;
+    private final float elapsedTicks;
+
+    /** The length of one simulation tick, the interval of the offline plant update runs. */
+    public static final long TICK_MILLIS = 5 * 60 * 1000;
+
+    EnvironmentContext(GameProgress progress, EnvironmentTable table, int hour, Instant nextWeatherHour,
+                       long time, float elapsedTicks) {
+        this.progress = progress;
+        this.table = table;
+        this.hour = hour;
+        this.nextWeatherHour = nextWeatherHour;
+        this.time = time;
+        this.elapsedTicks = elapsedTicks;
+    }
+
+    public GameProgress getProgress() {
+        return progress;
+    }
+
+    public String getUsername() {
+        return progress.getUsername();
+    }
+
+    public EnvironmentTable getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the column of the current hour in the environment table.
+     *
+     * @return the hour index
+     */
+    public int getHour() {
+        return hour;
+    }
+
+    public float getTemperatureC() {
+        return table.getTemperatureC(hour);
+    }
+
+    public int getHumidity() {
+        return table.getHumidity(hour);
+    }
+
+    /**
+     * Returns the natural light level of the current hour, the sum of direct and diffuse radiation in wm2.
+     *
+     * @return the natural light level
+     */
+    public float getLightLevel() {
+        return table.getLightLevel(hour);
+    }
+
+    public float getPrecipitationMm() {
+        return table.getPrecipitationMm(hour);
+    }
+
+    /**
+     * Returns the time at which the simulation step ends, which the services record as the time of their update.
+     *
+     * @return the end of the step in epoch milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the number of 5-minute ticks the simulation step stands for.
+     *
+     * @return the number of elapsed ticks, 1 for a regular step and possibly fractional for a catch-up step
+     */
+    public float getElapsedTicks() {
+        return elapsedTicks;
+    }
+
+    /**
+     * Returns the start of the next weather hour, after which the weather of this context no longer applies.
+     *
+     * @return the start of the next weather hour
+     */
+    public Instant getNextWeatherHour() {
+        return nextWeatherHour;
+    }
+}
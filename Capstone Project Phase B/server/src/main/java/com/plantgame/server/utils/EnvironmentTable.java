@@ -0,0 +1,234 @@
+package com.plantgame.server.utils;
+
+import com.plantgame.server.models.GameProgress;
+import com.plantgame.server.models.HourlyWeatherEntry;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed environment of a single user for every hour of the stored forecast.
+ * <p>
+ * The effective temperature, humidity and light level of a plant only depend on the hourly
+ * weather, the device toggles in GameProgress and the plant's location type, not on the plant
+ * itself. The table therefore holds one row per location type (House, GreenHouse and outdoors)
+ * and one column per forecast hour, so the simulation reads the values with array indexes
+ * instead of recomputing them for every plant.
+ * <p>
+ * A table is immutable. It is rebuilt only when its fingerprint changes, i.e. when the weather
+ * is refreshed or a toggle that affects the environment is switched.
+ */
+public class EnvironmentTable {
+    public static final int HOUSE = 0;
+    public static final int GREENHOUSE = 1;
+    public static final int OUTDOOR = 2;
+    private static final int LOCATION_COUNT = 3;
+
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00");
+
+    private final String fingerprint;
+    private final ZoneId zone;
+    private final Map<String, Integer> hourIndexes;
+
+    private final float[] temperatureC;
+    private final int[] humidity;
+    private final float[] lightLevel;
+    private final float[] precipitationMm;
+
+    private final float[][] effectiveTemperature;
+    private final float[][] effectiveHumidity;
+    private final float[][] effectiveLightLevel;
+
+    private EnvironmentTable(GameProgress progress, ZoneId zone) {
+        List<HourlyWeatherEntry> hourlyWeather = progress.getHourlyWeather();
+        int hours = hourlyWeather.size();
+
+        this.fingerprint = fingerprint(progress);
+        this.zone = zone;
+        this.hourIndexes = new HashMap<>(hours * 2);
+        this.temperatureC = new float[hours];
+        this.humidity = new int[hours];
+        this.lightLevel = new float[hours];
+        this.precipitationMm = new float[hours];
+        this.effectiveTemperature = new float[LOCATION_COUNT][hours];
+        this.effectiveHumidity = new float[LOCATION_COUNT][hours];
+        this.effectiveLightLevel = new float[LOCATION_COUNT][hours];
+
+        for (int hour = 0; hour < hours; hour++) {
+            HourlyWeatherEntry entry = hourlyWeather.get(hour);
+            hourIndexes.putIfAbsent(entry.getTime(), hour);
+            temperatureC[hour] = (float) entry.getTemperatureC();
+            humidity[hour] = entry.getHumidity();
+            lightLevel[hour] = (float) (entry.getDirectRadiationWm2() + entry.getDiffuseRadiationWm2());
+            precipitationMm[hour] = (float) entry.getPrecipitationMm();
+
+            for (int location = 0; location < LOCATION_COUNT; location++) {
+                effectiveTemperature[location][hour] = computeEffectiveTemperature(location, temperatureC[hour], progress);
+                effectiveHumidity[location][hour] = computeEffectiveHumidity(location, humidity[hour], progress);
+                effectiveLightLevel[location][hour] = computeEffectiveLightLevel(location, lightLevel[hour], progress);
+            }
+        }
+    }
+
+    /**
+     * Builds the table for the hourly weather and device toggles of a user's game progress.
+     *
+     * @param progress the user's game progress; must hold at least one hourly weather entry
+     * @param zone the user's time zone, in which the hourly weather times are expressed
+     * @return the precomputed environment table
+     */
+    public static EnvironmentTable build(GameProgress progress, ZoneId zone) {
+        return new EnvironmentTable(progress, zone);
+    }
+
+    /**
+     * Computes the fingerprint of the inputs of a table: the weather update time and size, and the
+     * toggles that change the effective environment. Two progresses with the same fingerprint
+     * produce the same table.
+     *
+     * @param progress the user's game progress
+     * @return the fingerprint
+     */
+    public static String fingerprint(GameProgress progress) {
+        int toggles = (progress.getHouseLightsOn() ? 1 : 0)
+                | (progress.getHouseAirConditionersOn() ? 2 : 0)
+                | (progress.getGreenHouseLightsOn() ? 4 : 0)
+                | (progress.getGreenHouseFansOn() ? 8 : 0);
+        int hours = progress.getHourlyWeather() != null ? progress.getHourlyWeather().size() : 0;
+        return progress.getLastWeatherUpdate() + "|" + hours + "|" + toggles;
+    }
+
+    /**
+     * Maps a planting location type to its row in the table. Every location type other than
+     * House and GreenHouse uses the outdoor environment.
+     *
+     * @param locationType the planting location type of a plant
+     * @return the location index
+     */
+    public static int locationIndex(String locationType) {
+        return switch (locationType) {
+            case "House" -> HOUSE;
+            case "GreenHouse" -> GREENHOUSE;
+            default -> OUTDOOR;
+        };
+    }
+
+    /**
+     * Finds the column of the hour that starts at the given time, falling back to the first
+     * forecast hour if the hour is not part of the forecast.
+     *
+     * @param hourStart the start of an hour in the user's time zone
+     * @return the hour index
+     */
+    public int hourIndexAt(ZonedDateTime hourStart) {
+        return hourIndexes.getOrDefault(hourStart.format(HOUR_FORMAT), 0);
+    }
+
+    /**
+     * Finds the column of the hour that starts at the given time.
+     *
+     * @param hourStart the start of an hour in the user's time zone
+     * @return the hour index, or -1 if the hour is not part of the forecast
+     */
+    public int findHourIndex(ZonedDateTime hourStart) {
+        return hourIndexes.getOrDefault(hourStart.format(HOUR_FORMAT), -1);
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public float getTemperatureC(int hour) {
+        return temperatureC[hour];
+    }
+
+    public int getHumidity(int hour) {
+        return humidity[hour];
+    }
+
+    public float getLightLevel(int hour) {
+        return lightLevel[hour];
+    }
+
+    public float getPrecipitationMm(int hour) {
+        return precipitationMm[hour];
+    }
+
+    public float getEffectiveTemperature(int location, int hour) {
+        return effectiveTemperature[location][hour];
+    }
+
+    public float getEffectiveHumidity(int location, int hour) {
+        return effectiveHumidity[location][hour];
+    }
+
+    public float getEffectiveLightLevel(int location, int hour) {
+        return effectiveLightLevel[location][hour];
+    }
+
+    /**
+     * Calculates the effective humidity of a location, adjusted for air conditioners in the house
+     * and the enclosed climate of the greenhouse.
+     */
+    private static float computeEffectiveHumidity(int location, int humidity, GameProgress progress) {
+        return switch (location) {
+            case HOUSE -> {
+                float humidityModifier = 0.7f;
+                float adjustedHumidity = (float) humidity * (progress.getHouseAirConditionersOn() ? humidityModifier : 1f);
+                yield 30f + (adjustedHumidity / 100f) * (60f - 30f);
+            }
+            case GREENHOUSE -> 60f + ((float) humidity / 100f) * (90f - 60f);
+            default -> (float) humidity;
+        };
+    }
+
+    /**
+     * Calculates the effective temperature of a location, adjusted for the insulation and air
+     * conditioning of the house and the heating and fans of the greenhouse.
+     */
+    private static float computeEffectiveTemperature(int location, float temperatureC, GameProgress progress) {
+        return switch (location) {
+            case HOUSE -> {
+                float insulationFactor = 0.5f;
+                float baseIndoorTemp = 22f;
+                float coolingEffect = 4f;
+                float tempDifference = temperatureC - 20f;
+                float temperature = baseIndoorTemp + tempDifference * insulationFactor;
+                if (progress.getHouseAirConditionersOn()) {
+                    temperature -= coolingEffect;
+                }
+                yield temperature;
+            }
+            case GREENHOUSE -> {
+                float temperatureIncrease = 5f;
+                float fansCoolingTemperature = 5f;
+                float temperature = temperatureC + temperatureIncrease;
+                if (progress.getGreenHouseFansOn()) {
+                    temperature -= fansCoolingTemperature;
+                }
+                yield temperature;
+            }
+            default -> temperatureC;
+        };
+    }
+
+    /**
+     * Calculates the effective light level of a location, combining the natural light that reaches
+     * it with the artificial lights of the house and the greenhouse.
+     */
+    private static float computeEffectiveLightLevel(int location, float lightLevel, GameProgress progress) {
+        return switch (location) {
+            case HOUSE -> (progress.getHouseLightsOn() ? 500f : 0f) + (lightLevel * 0.3f);
+            case GREENHOUSE -> (progress.getGreenHouseLightsOn() ? 500f : 0f) + (lightLevel * 0.8f);
+            default -> lightLevel;
+        };
+    }
+}
@@ -2,30 +2,123 @@ package com.plantgame.server.utils;
 
 import com.plantgame.server.models.GameProgress;
 import com.plantgame.server.models.Plant;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.Key;
-import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Utility class for managing environmental calculations and adjustments
  * based on game progress and plant conditions. Provides methods to calculate
  * effective humidity, temperature, and light levels for plants.
  * <p>
- * This class interacts with the GameProgress entity to retrieve user-specific
- * environmental adjustments and settings.
+ * The effective values are precomputed per user in an EnvironmentTable (one row per location
+ * type, one column per forecast hour) and read by index through the EnvironmentContext of the
+ * current tick, so no database access or per-plant math is needed.
+ * <p>
+ * Tables are cached per user and rebuilt only when the weather or a relevant toggle changes.
+ * The cache holds at most "environment.table-cache.max-entries" users and evicts the least
+ * recently used one.
  * <p>
  * Annotations:
  * - @Component: Marks this class as a Spring-managed component.
- * - @Autowired: Injects dependencies such as the DynamoDbTable for
- *   accessing GameProgress data.
  */
 @Component
 public class EnvironmentUtils {
 
-    @Autowired
-    private DynamoDbTable<GameProgress> gameProgressTable;
+    @Value("${environment.table-cache.max-entries:10000}")
+    private int maxCachedTables;
+
+    private final Map<String, EnvironmentTable> tableCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, EnvironmentTable> eldest) {
+            return size() > maxCachedTables;
+        }
+    });
+
+    /**
+     * Creates the environment context of a user for the current hour. The user's time zone is taken
+     * from the offset of lastWeatherUpdate (UTC if it cannot be parsed), and the forecast hour matching
+     * the current hour is selected, falling back to the first hour.
+     *
+     * @param progress the user's game progress, including the hourly weather and the device toggles
+     * @return the environment context, or null if the progress holds no weather data
+     */
+    public EnvironmentContext createContext(GameProgress progress) {
+        if (progress == null || progress.getHourlyWeather() == null || progress.getHourlyWeather().isEmpty()) {
+            return null;
+        }
+
+        EnvironmentTable table = getTable(progress);
+        ZonedDateTime currentHourStart = ZonedDateTime.now(table.getZone()).truncatedTo(ChronoUnit.HOURS);
+        return new EnvironmentContext(progress, table, table.hourIndexAt(currentHourStart),
+                currentHourStart.plusHours(1).toInstant(), System.currentTimeMillis(), 1f);
+    }
+
+    /**
+     * Creates the environment contexts that cover a period of time one weather hour at a time, for
+     * the catch-up simulation. The period is split at the hour boundaries of the user's time zone,
+     * and each segment reads the stored weather of its own hour. Hours that are not part of the stored
+     * forecast use the weather of the current hour, as a regular tick would.
+     * <p>
+     * The number of segments depends on the hours elapsed, not on the number of 5-minute ticks.
+     *
+     * @param progress the user's game progress, including the hourly weather and the device toggles
+     * @param from the start of the period in epoch milliseconds
+     * @param to the end of the period in epoch milliseconds
+     * @return the contexts of the segments in chronological order; empty if the progress holds no
+     *         weather data or the period is empty
+     */
+    public List<EnvironmentContext> createSegments(GameProgress progress, long from, long to) {
+        List<EnvironmentContext> segments = new ArrayList<>();
+        if (progress == null || progress.getHourlyWeather() == null || progress.getHourlyWeather().isEmpty() || to <= from) {
+            return segments;
+        }
+
+        EnvironmentTable table = getTable(progress);
+        int currentHour = table.hourIndexAt(ZonedDateTime.now(table.getZone()).truncatedTo(ChronoUnit.HOURS));
+        long segmentStart = from;
+        while (segmentStart < to) {
+            ZonedDateTime hourStart = Instant.ofEpochMilli(segmentStart).atZone(table.getZone()).truncatedTo(ChronoUnit.HOURS);
+            Instant nextHour = hourStart.plusHours(1).toInstant();
+            long segmentEnd = Math.min(nextHour.toEpochMilli(), to);
+            int hour = table.findHourIndex(hourStart);
+            segments.add(new EnvironmentContext(progress, table, hour >= 0 ? hour : currentHour, nextHour,
+                    segmentEnd, (float) (segmentEnd - segmentStart) / EnvironmentContext.TICK_MILLIS));
+            segmentStart = segmentEnd;
+        }
+        return segments;
+    }
+
+    /**
+     * Creates the environment context of the weather hour that contains the given time, reusing the
+     * table of an existing context. Used to look at the conditions of other hours than the current
+     * step, such as the hours of missed disease checks or the hours a dormant plant sleeps through.
+     *
+     * @param environment a context of the same user, providing the environment table
+     * @param time a time in epoch milliseconds; the hour is the one that contains the millisecond before it,
+     *             so a time on an hour boundary belongs to the hour that ends there
+     * @return the context of the hour, ending at the given time and standing for a single tick, or null if the
+     *         hour is not part of the stored forecast
+     */
+    public EnvironmentContext createHourContext(EnvironmentContext environment, long time) {
+        EnvironmentTable table = environment.getTable();
+        ZonedDateTime hourStart = Instant.ofEpochMilli(time - 1).atZone(table.getZone()).truncatedTo(ChronoUnit.HOURS);
+        int hour = table.findHourIndex(hourStart);
+        if (hour < 0) {
+            return null;
+        }
+        return new EnvironmentContext(environment.getProgress(), table, hour, hourStart.plusHours(1).toInstant(), time, 1f);
+    }
 
     /**
      * Calculates the effective humidity experienced by a plant based on its planting location
@@ -33,22 +126,14 @@ public class EnvironmentUtils {
      *
      * @param plant the Plant object representing the plant for which the effective humidity is calculated.
      *              It provides the planting location type and other contextual information.
-     * @param humidity the current environmental humidity as a percentage (0 to 100%).
+     * @param environment the environment of the current tick, providing the environmental humidity
+     *                    as a percentage (0 to 100%) and the user's device toggles.
      * @return the calculated effective humidity as a float, adjusted based on the plant's location
      *         and environmental factors such as air conditioners in the case of indoor settings.
      */
-    public float getEffectiveHumidity(Plant plant, int humidity) {
-        GameProgress progress = loadProgress(plant.getUsername());
-
-        return switch (plant.getPlantingLocationType()) {
-            case "House" -> {
-                float humidityModifier = 0.7f;
-                float adjustedHumidity = (float) humidity * (progress.getHouseAirConditionersOn() ? humidityModifier : 1f);
-                yield 30f + (adjustedHumidity / 100f) * (60f - 30f);
-            }
-            case "GreenHouse" -> 60f + ((float) humidity / 100f) * (90f - 60f);
-            default -> (float) humidity;
-        };
+    public float getEffectiveHumidity(Plant plant, EnvironmentContext environment) {
+        int location = EnvironmentTable.locationIndex(plant.getPlantingLocationType());
+        return environment.getTable().getEffectiveHumidity(location, environment.getHour());
     }
 
     /**
@@ -57,36 +142,14 @@ public class EnvironmentUtils {
      *
      * @param plant the Plant object representing the plant for which the effective temperature is calculated.
      *              It provides information about the planting location type and other contextual data.
-     * @param temperatureC the current environmental temperature in degrees Celsius.
+     * @param environment the environment of the current tick, providing the environmental temperature
+     *                    in degrees Celsius and the user's device toggles.
      * @return the calculated effective temperature as a float, adjusted based on the plant's location
      *         and environmental factors such as air conditioning or fans.
      */
-    public float getEffectiveTemperature(Plant plant, float temperatureC) {
-        GameProgress progress = loadProgress(plant.getUsername());
-
-        return switch (plant.getPlantingLocationType()) {
-            case "House" -> {
-                float insulationFactor = 0.5f;
-                float baseIndoorTemp = 22f;
-                float coolingEffect = 4f;
-                float tempDifference = temperatureC - 20f;
-                float temperature = baseIndoorTemp + tempDifference * insulationFactor;
-                if (progress.getHouseAirConditionersOn()) {
-                    temperature -= coolingEffect;
-                }
-                yield temperature;
-            }
-            case "GreenHouse" -> {
-                float temperatureIncrease = 5f;
-                float fansCoolingTemperature = 5f;
-                float temperature = temperatureC + temperatureIncrease;
-                if (progress.getGreenHouseFansOn()) {
-                    temperature -= fansCoolingTemperature;
-                }
-                yield temperature;
-            }
-            default -> temperatureC;
-        };
+    public float getEffectiveTemperature(Plant plant, EnvironmentContext environment) {
+        int location = EnvironmentTable.locationIndex(plant.getPlantingLocationType());
+        return environment.getTable().getEffectiveTemperature(location, environment.getHour());
     }
 
     /**
@@ -95,47 +158,40 @@ public class EnvironmentUtils {
      *
      * @param plant the Plant object representing the plant for which the effective light level is calculated.
      *              It provides the planting location type and other contextual information such as the user's settings.
-     * @param lightLevel the current environmental light level as a float. Represents natural light in the environment.
+     * @param environment the environment of the current tick, providing the natural light level
+     *                    and the user's device toggles.
      * @return the effective light level as a float, adjusted based on the planting location type
      *         and whether artificial lights are turned on in the respective areas.
      */
-    public float getEffectiveLightLevel(Plant plant, float lightLevel) {
-        GameProgress progress = loadProgress(plant.getUsername());
-
-        return switch (plant.getPlantingLocationType()) {
-            case "House" -> (progress.getHouseLightsOn() ? 500f : 0f) + (lightLevel * 0.3f);
-            case "GreenHouse" -> (progress.getGreenHouseLightsOn() ? 500f : 0f) + (lightLevel * 0.8f);
-            default -> lightLevel;
-        };
+    public float getEffectiveLightLevel(Plant plant, EnvironmentContext environment) {
+        int location = EnvironmentTable.locationIndex(plant.getPlantingLocationType());
+        return environment.getTable().getEffectiveLightLevel(location, environment.getHour());
     }
 
     /**
-     * Loads the game progress for a specified user from the database. If no progress is found
-     * for the user, a new default GameProgress instance is created and returned.
-     * Handles exceptions by creating and returning a default GameProgress instance.
+     * Returns the cached environment table of a user, building a new one if there is none yet or
+     * the weather or toggles changed since it was built.
      *
-     * @param username the username of the player for whom the game progress should be loaded.
-     *                 Cannot be null or empty.
-     * @return the GameProgress object representing the user's game state, either retrieved
-     *         from the database or a new default instance if no data exists or an error occurs.
+     * @param progress the user's game progress
+     * @return the user's environment table
      */
-    private GameProgress loadProgress(String username) {
-        try {
-            Key key = Key.builder().partitionValue(username).sortValue("default").build();
-            GameProgress progress = gameProgressTable.getItem(key);
-            if (progress == null) {
-                progress = new GameProgress();
-                progress.setUsername(username);
-                progress.setProgressId("default");
-            }
-            return progress;
-        } catch (DynamoDbException e) {
-            System.err.println("Error loading GameProgress for username " + username + ": " + e.getMessage());
+    private EnvironmentTable getTable(GameProgress progress) {
+        String fingerprint = EnvironmentTable.fingerprint(progress);
+        EnvironmentTable table = tableCache.get(progress.getUsername());
+        if (table == null || !table.getFingerprint().equals(fingerprint)) {
+            table = EnvironmentTable.build(progress, parseZone(progress));
+            tableCache.put(progress.getUsername(), table);
+        }
+        return table;
+    }
 
-            GameProgress defaultProgress = new GameProgress();
-            defaultProgress.setUsername(username);
-            defaultProgress.setProgressId("default");
-            return defaultProgress;
+    private ZoneId parseZone(GameProgress progress) {
+        try {
+            ZonedDateTime lastUpdate = ZonedDateTime.parse(progress.getLastWeatherUpdate(), DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            return lastUpdate.getZone();
+        } catch (Exception e) {
+            System.err.println("Error parsing lastWeatherUpdate timezone for user " + progress.getUsername() + ": " + e.getMessage());
+            return ZoneId.of("UTC");
         }
     }
-}
\ No newline at end of file
+}
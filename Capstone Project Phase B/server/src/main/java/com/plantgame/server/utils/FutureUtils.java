@@ -0,0 +1,38 @@
+package com.plantgame.server.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Utility methods for waiting on the futures returned by the asynchronous repositories.
+ */
+public final class FutureUtils {
+
+    private FutureUtils() {}
+
+    /**
+     * Waits for a future and returns its result. A failed future rethrows its original exception,
+     * such as a DynamoDbException, so callers handle it as if the call ran synchronously.
+     *
+     * @param future the future to wait for
+     * @return the result of the future
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * Returns the original exception of a failed future, without its CompletionException wrapper.
+     *
+     * @param error the exception a future failed with
+     * @return the runtime exception that caused the failure
+     */
+    public static RuntimeException unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+    }
+}
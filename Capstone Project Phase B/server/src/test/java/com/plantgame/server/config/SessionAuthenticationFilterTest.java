@@ -0,0 +1,116 @@
+package com.plantgame.server.config;
+
+import com.plantgame.server.models.User;
+import com.plantgame.server.repositories.UserRepository;
+import com.plantgame.server.services.SessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionAuthenticationFilterTest {
+    private static final String USERNAME = "alice";
+
+    private final SessionAuthenticationFilter filter = new SessionAuthenticationFilter();
+    private final SessionService sessionService = new SessionService();
+    @SuppressWarnings("unchecked")
+    private final DynamoDbAsyncTable<User> userTable = mock(DynamoDbAsyncTable.class);
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = new UserRepository();
+        ReflectionTestUtils.setField(userRepository, "userAsyncTable", userTable);
+        ReflectionTestUtils.setField(sessionService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(sessionService, "maxSessions", 100);
+        ReflectionTestUtils.setField(sessionService, "sessionTtlMillis", 60000L);
+        ReflectionTestUtils.setField(sessionService, "unknownTokenTtlMillis", 10000L);
+        ReflectionTestUtils.setField(sessionService, "signedTokensEnabled", true);
+        ReflectionTestUtils.setField(sessionService, "signedTokenSecret", "test-secret");
+        ReflectionTestUtils.setField(sessionService, "signedTokenTtlMillis", 60000L);
+        ReflectionTestUtils.setField(filter, "sessionService", sessionService);
+    }
+
+    @Test
+    void cachedSessionAuthenticatesWithoutReadingUsers() throws Exception {
+        String token = sessionService.issueToken(USERNAME);
+        sessionService.cacheSession(token, user(token));
+
+        MockHttpServletRequest request = filter(token, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(USERNAME, ((User) request.getAttribute(SessionAuthenticationFilter.AUTHENTICATED_USER)).getUsername());
+        verify(userTable, never()).getItem(any(Key.class));
+    }
+
+    @Test
+    void expiredCacheEntryIsResolvedAgain() throws Exception {
+        ReflectionTestUtils.setField(sessionService, "sessionTtlMillis", -1L);
+        String token = sessionService.issueToken(USERNAME);
+        sessionService.cacheSession(token, user(token));
+        when(userTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(user(token)));
+
+        MockHttpServletRequest request = filter(token, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNotNull(request.getAttribute(SessionAuthenticationFilter.AUTHENTICATED_USER));
+        verify(userTable, times(1)).getItem(any(Key.class));
+    }
+
+    @Test
+    void loggedOutTokenIsNotAuthenticated() throws Exception {
+        String token = sessionService.issueToken(USERNAME);
+        sessionService.cacheSession(token, user(token));
+        when(userTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(user(null)));
+
+        sessionService.revokeToken(token);
+        sessionService.invalidateUser(USERNAME);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletRequest request = filter(token, new MockHttpServletResponse(), chain);
+
+        assertNull(request.getAttribute(SessionAuthenticationFilter.AUTHENTICATED_USER));
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void databaseErrorIsAnsweredWith503() throws Exception {
+        String token = sessionService.issueToken(USERNAME);
+        when(userTable.getItem(any(Key.class))).thenReturn(CompletableFuture.failedFuture(DynamoDbException.builder().message("throttled").build()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter(token, response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("{\"message\":\"Database error\"}", response.getContentAsString());
+        assertNull(chain.getRequest());
+    }
+
+    private MockHttpServletRequest filter(String token, MockHttpServletResponse response, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", token);
+        filter.doFilterInternal(request, response, chain);
+        return request;
+    }
+
+    private static User user(String token) {
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setToken(token);
+        return user;
+    }
+}
@@ -0,0 +1,181 @@
+package com.plantgame.server.controllers;
+
+import com.plantgame.server.models.Plant;
+import com.plantgame.server.models.User;
+import com.plantgame.server.services.BatchWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which plants GameController.savePlants writes: only new or changed plants are put, plants
+ * missing from the request are deleted, and a save with any write left over fails as a whole.
+ */
+class GameControllerTest {
+    private static final String TABLE = "Plants";
+
+    private final GameController gameController = new GameController();
+    private final BatchWriter batchWriter = new BatchWriter();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final List<WriteRequest> written = Collections.synchronizedList(new ArrayList<>());
+    private final Set<String> failingPlantIds = Collections.synchronizedSet(new HashSet<>());
+    private final User user = new User();
+
+    @BeforeEach
+    void setUp() {
+        user.setUsername("alice");
+        ReflectionTestUtils.setField(batchWriter, "batchWriteExecutor", executor);
+        ReflectionTestUtils.setField(batchWriter, "maxConcurrentBatches", 2);
+        ReflectionTestUtils.setField(batchWriter, "maxConcurrentUpdates", 2);
+        ReflectionTestUtils.setField(batchWriter, "maxRetries", 2);
+        ReflectionTestUtils.setField(batchWriter, "baseBackoffMillis", 1L);
+        ReflectionTestUtils.setField(batchWriter, "maxBackoffMillis", 2L);
+        ReflectionTestUtils.setField(batchWriter, "dynamoDbAsyncClient", new DynamoDbAsyncClient() {
+            @Override
+            public CompletableFuture<BatchWriteItemResponse> batchWriteItem(BatchWriteItemRequest request) {
+                List<WriteRequest> unprocessed = new ArrayList<>();
+                for (WriteRequest writeRequest : request.requestItems().get(TABLE)) {
+                    if (failingPlantIds.contains(plantId(writeRequest))) {
+                        unprocessed.add(writeRequest);
+                    } else {
+                        written.add(writeRequest);
+                    }
+                }
+                return CompletableFuture.completedFuture(BatchWriteItemResponse.builder()
+                        .unprocessedItems(unprocessed.isEmpty() ? Map.of() : Map.of(TABLE, unprocessed))
+                        .build());
+            }
+
+            @Override
+            public String serviceName() {
+                return "dynamodb";
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        ReflectionTestUtils.setField(gameController, "batchWriter", batchWriter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void unchangedPlantsAreNotWritten() {
+        ResponseEntity<Map<String, Object>> response = save(List.of(plantData("plant-1"), plantData("plant-2")),
+                List.of(plantData("plant-1"), plantData("plant-2")));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    void changeToTheSaveTimeAloneIsNotWritten() {
+        Map<String, Object> saved = plantData("plant-1");
+        saved.put("lastGrowthUpdate", "2025-05-01T12:30:00Z");
+
+        ResponseEntity<Map<String, Object>> response = save(List.of(saved), List.of(plantData("plant-1")));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertTrue(written.isEmpty());
+    }
+
+    @Test
+    void changedPlantsArePut() {
+        Map<String, Object> saved = plantData("plant-2");
+        saved.put("moistureLevel", 40);
+
+        ResponseEntity<Map<String, Object>> response = save(List.of(plantData("plant-1"), saved),
+                List.of(plantData("plant-1"), plantData("plant-2")));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(1, written.size());
+        assertNotNull(written.get(0).putRequest());
+        assertEquals("plant-2", plantId(written.get(0)));
+    }
+
+    @Test
+    void plantsMissingFromTheRequestAreDeleted() {
+        ResponseEntity<Map<String, Object>> response = save(List.of(plantData("plant-1")),
+                List.of(plantData("plant-1"), plantData("plant-2")));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(1, written.size());
+        assertNull(written.get(0).putRequest());
+        assertEquals("alice", written.get(0).deleteRequest().key().get("username").s());
+        assertEquals("plant-2", plantId(written.get(0)));
+    }
+
+    @Test
+    void partialBatchFailureFailsTheWholeSave() {
+        failingPlantIds.add("plant-2");
+
+        ResponseEntity<Map<String, Object>> response = save(
+                List.of(plantData("plant-1"), plantData("plant-2"), plantData("plant-3")), List.of());
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals(Map.of("message", "Error saving plants"), response.getBody());
+        assertEquals(2, written.size());
+    }
+
+    private ResponseEntity<Map<String, Object>> save(List<Map<String, Object>> plantsData, List<Map<String, Object>> storedData) {
+        List<Plant> storedPlants = new ArrayList<>();
+        for (Map<String, Object> data : storedData) {
+            storedPlants.add(ReflectionTestUtils.invokeMethod(gameController, "createPlant", user, data));
+        }
+        return ReflectionTestUtils.invokeMethod(gameController, "savePlants", user, plantsData,
+                CompletableFuture.completedFuture(storedPlants));
+    }
+
+    private static String plantId(WriteRequest writeRequest) {
+        return writeRequest.putRequest() != null
+                ? writeRequest.putRequest().item().get("plantId").s()
+                : writeRequest.deleteRequest().key().get("plantId").s();
+    }
+
+    /**
+     * Creates the request data of a plant as the client sends it.
+     */
+    private static Map<String, Object> plantData(String plantId) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("plantId", plantId);
+        data.put("plantName", "Monstera");
+        data.put("plantingLocationType", "House");
+        data.put("position", Map.of("x", 1.5, "y", 0, "z", -2));
+        data.put("scale", 0.8);
+        data.put("moistureLevel", 75);
+        data.put("lastGrowthUpdate", "2025-05-01T12:00:00Z");
+        data.put("lastDiseaseCheck", "2025-05-01T11:00:00Z");
+        data.put("disease", null);
+        data.put("diseaseProgress", 0);
+        data.put("diseaseSlowingGrowthFactor", 1);
+        data.put("plantableArea", "area-1");
+        data.put("reachedMaxScale", false);
+        return data;
+    }
+}
@@ -0,0 +1,163 @@
+package com.plantgame.server.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the built-in disease catalog (disease-catalog.properties) compiled by DiseaseRule
+ * behaves exactly like the per-species switches DiseaseService used before diseases were compiled
+ * into rules.
+ */
+class DiseaseRuleTest {
+    private static final Map<String, Float> THRESHOLDS = Map.of(
+            "rootRotMoistureThreshold", 85f,
+            "spiderMitesHumidityThreshold", 30f,
+            "leafBlightHumidityThreshold", 75f,
+            "leafScorchLightThreshold", 800f,
+            "mealybugsHumidityThreshold", 40f,
+            "scaleHumidityThreshold", 35f,
+            "fungalLeafSpotMoistureThreshold", 65f,
+            "leafSpotMoistureThreshold", 70f,
+            "leafBurnLightThreshold", 600f,
+            "diseaseProgressRate", 0.05f
+    );
+
+    private static final float[] MOISTURES = {0f, 40f, 60f, 60.5f, 65f, 66f, 70f, 71f, 85f, 86f, 100f};
+    private static final float[] HUMIDITIES = {0f, 29f, 30f, 34f, 35f, 39f, 40f, 50f, 51f, 70f, 71f, 75f, 76f, 100f};
+    private static final float[] TEMPERATURES = {10f, 25f, 25.5f, 35f};
+    private static final float[] LIGHT_LEVELS = {0f, 600f, 601f, 800f, 801f, 1200f};
+
+    /**
+     * The diseases of each species in the order the baseline switch checked them, with the chance
+     * of starting, the growth slowdown at full progress, and the condition, transcribed from the
+     * baseline DiseaseService. Ground-only diseases additionally required a Ground planting location
+     * to start, but not to progress.
+     */
+    private static final Map<String, List<BaselineDisease>> BASELINE = Map.of(
+            "ElephantEar", List.of(
+                    new BaselineDisease("RootRot", 0.05f, 0.5f, false, (m, h, t, l) -> m > threshold("rootRotMoistureThreshold")),
+                    new BaselineDisease("LeafBlight", 0.03f, 0.25f, false, (m, h, t, l) -> h > threshold("leafBlightHumidityThreshold") && m > 60f),
+                    new BaselineDisease("SpiderMites", 0.04f, 0.2f, false, (m, h, t, l) -> h < threshold("spiderMitesHumidityThreshold"))),
+            "FicusLyrata", List.of(
+                    new BaselineDisease("RootRot", 0.05f, 0.5f, false, (m, h, t, l) -> m > threshold("rootRotMoistureThreshold")),
+                    new BaselineDisease("SpiderMites", 0.04f, 0.3f, false, (m, h, t, l) -> h < threshold("spiderMitesHumidityThreshold")),
+                    new BaselineDisease("LeafScorch", 0.03f, 0.2f, true, (m, h, t, l) -> l > threshold("leafScorchLightThreshold"))),
+            "Monstera", List.of(
+                    new BaselineDisease("RootRot", 0.05f, 0.5f, false, (m, h, t, l) -> m > threshold("rootRotMoistureThreshold")),
+                    new BaselineDisease("SpiderMites", 0.04f, 0.3f, false, (m, h, t, l) -> h < threshold("spiderMitesHumidityThreshold")),
+                    new BaselineDisease("Mealybugs", 0.03f, 0.3f, false, (m, h, t, l) -> h < threshold("mealybugsHumidityThreshold"))),
+            "Orchid", List.of(
+                    new BaselineDisease("RootRot", 0.05f, 0.5f, false, (m, h, t, l) -> m > threshold("rootRotMoistureThreshold")),
+                    new BaselineDisease("SpiderMites", 0.04f, 0.3f, false, (m, h, t, l) -> h < threshold("spiderMitesHumidityThreshold")),
+                    new BaselineDisease("Scale", 0.03f, 0.35f, false, (m, h, t, l) -> h < threshold("scaleHumidityThreshold")),
+                    new BaselineDisease("FungalLeafSpot", 0.03f, 0.2f, false, (m, h, t, l) -> h > 70f && m > threshold("fungalLeafSpotMoistureThreshold"))),
+            "Sansevieria", List.of(
+                    new BaselineDisease("Mealybugs", 0.02f, 0.2f, false, (m, h, t, l) -> h > threshold("mealybugsHumidityThreshold") && t > 25f),
+                    new BaselineDisease("RootRot", 0.06f, 0.5f, false, (m, h, t, l) -> m > threshold("rootRotMoistureThreshold")),
+                    new BaselineDisease("LeafSpot", 0.03f, 0.3f, false, (m, h, t, l) -> m > threshold("leafSpotMoistureThreshold") && h > 50f)),
+            "Spathiphyllum", List.of(
+                    new BaselineDisease("RootRot", 0.05f, 0.5f, false, (m, h, t, l) -> m > threshold("rootRotMoistureThreshold")),
+                    new BaselineDisease("LeafBurn", 0.03f, 0.2f, true, (m, h, t, l) -> l > threshold("leafBurnLightThreshold")),
+                    new BaselineDisease("SpiderMites", 0.04f, 0.3f, false, (m, h, t, l) -> h < threshold("spiderMitesHumidityThreshold")))
+    );
+
+    @Test
+    void builtInCatalogMatchesBaselineOrderAndChances() {
+        BASELINE.forEach((plantName, expected) -> {
+            DiseaseRule[] rules = DiseaseRule.compile(plantType(plantName));
+
+            assertEquals(expected.stream().map(BaselineDisease::name).toList(),
+                    Arrays.stream(rules).map(DiseaseRule::getDisease).toList(), plantName);
+            for (int i = 0; i < rules.length; i++) {
+                BaselineDisease disease = expected.get(i);
+                String context = plantName + " " + disease.name();
+                assertEquals(disease.probability(), rules[i].getProbability(), context);
+                assertEquals(1f, rules[i].getSlowingGrowthFactor(0f), context);
+                assertEquals(1f - disease.slowdown(), rules[i].getSlowingGrowthFactor(1f), context);
+                assertEquals(1f - 0.5f * disease.slowdown(), rules[i].getSlowingGrowthFactor(0.5f), context);
+            }
+        });
+    }
+
+    @Test
+    void builtInCatalogMatchesBaselineConditions() {
+        BASELINE.forEach((plantName, expected) -> {
+            DiseaseRule[] rules = DiseaseRule.compile(plantType(plantName));
+            for (int i = 0; i < rules.length; i++) {
+                BaselineDisease disease = expected.get(i);
+                for (float moisture : MOISTURES) {
+                    for (float humidity : HUMIDITIES) {
+                        for (float temperature : TEMPERATURES) {
+                            for (float light : LIGHT_LEVELS) {
+                                boolean holds = disease.condition().holds(moisture, humidity, temperature, light);
+                                String context = plantName + " " + disease.name() + " at moisture " + moisture + ", humidity " +
+                                        humidity + ", temperature " + temperature + ", light " + light;
+                                assertEquals(holds, rules[i].conditionHolds(moisture, humidity, temperature, light), context);
+                                assertEquals(holds, rules[i].canStart(true, moisture, humidity, temperature, light), context);
+                                assertEquals(holds && !disease.groundOnly(),
+                                        rules[i].canStart(false, moisture, humidity, temperature, light), context);
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    void unknownPlantTypeHasNoRules() {
+        assertEquals(0, DiseaseRule.compile(plantType("Cactus")).length);
+    }
+
+    @Test
+    void dataDrivenSettingsReplaceTheBuiltInCatalog() {
+        PlantType plantType = plantType("Monstera");
+        plantType.setDiseaseThresholds(Map.of(
+                "Rust.humidity.above", 80f,
+                "Rust.probability", 0.1f,
+                "Rust.slowdown", 0.4f));
+
+        DiseaseRule[] rules = DiseaseRule.compile(plantType);
+
+        assertEquals(1, rules.length);
+        assertEquals("Rust", rules[0].getDisease());
+        assertEquals(0.1f, rules[0].getProbability());
+        assertTrue(rules[0].conditionHolds(50f, 81f, 20f, 0f));
+    }
+
+    @Test
+    void missingLegacyThresholdGivesAClauseThatNeverHolds() {
+        PlantType plantType = plantType("Monstera");
+        plantType.setDiseaseThresholds(Map.of());
+
+        DiseaseRule[] rules = DiseaseRule.compile(plantType);
+
+        assertEquals(3, rules.length);
+        assertFalse(rules[0].conditionHolds(100f, 50f, 20f, 0f));
+    }
+
+    private static float threshold(String key) {
+        return THRESHOLDS.get(key);
+    }
+
+    private static PlantType plantType(String plantName) {
+        PlantType plantType = new PlantType();
+        plantType.setPlantName(plantName);
+        plantType.setDiseaseThresholds(THRESHOLDS);
+        return plantType;
+    }
+
+    private interface Condition {
+        boolean holds(float moisture, float humidity, float temperature, float light);
+    }
+
+    private record BaselineDisease(String name, float probability, float slowdown, boolean groundOnly, Condition condition) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.plantgame.server.models;
+
+import com.plantgame.server.utils.EnvironmentTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a compiled PlantProfile resolves the same settings as reading them through the
+ * PlantType maps, as the simulation services did before profiles were compiled.
+ * <p>
+ * Both paths read every setting the growth, moisture and fertilizer services and the disease
+ * progress use for one plant in one tick.
+ */
+class PlantProfileTest {
+    private static final String[] LOCATION_TYPES = {"House", "GreenHouse", "Ground"};
+
+    private final Map<String, PlantType> plantTypes = new HashMap<>();
+    private final Map<String, PlantProfile[]> plantProfiles = new HashMap<>();
+
+    PlantProfileTest() {
+        String[] names = {"ElephantEar", "FicusLyrata", "Monstera", "Orchid", "Sansevieria", "Spathiphyllum"};
+        for (int i = 0; i < names.length; i++) {
+            PlantType plantType = plantType(names[i], i);
+            plantTypes.put(names[i], plantType);
+            plantProfiles.put(names[i], PlantProfile.compile(plantType));
+        }
+    }
+
+    @Test
+    void compiledProfileResolvesSameValuesAsPlantType() {
+        for (PlantType plantType : plantTypes.values()) {
+            for (String locationType : LOCATION_TYPES) {
+                PlantProfile profile = plantProfiles.get(plantType.getPlantName())[EnvironmentTable.locationIndex(locationType)];
+                assertEquals(resolveFromPlantType(plantType, locationType), resolveFromProfile(profile),
+                        plantType.getPlantName() + " in " + locationType);
+            }
+        }
+    }
+
+    /**
+     * Resolves the settings of one plant the way PlantGrowthService, MoistureService, FertilizerService
+     * and DiseaseService did before profiles were compiled.
+     */
+    private static float resolveFromPlantType(PlantType plantType, String locationType) {
+        Map<String, LocationData> locationValues = plantType.getLocationValues();
+        LocationData locationData = locationValues.getOrDefault(locationType, locationValues.get("Ground"));
+        Map<String, Float> defaultValues = plantType.getDefaultValues();
+
+        float minTemperature = locationData.getMinTemperature() != null ? locationData.getMinTemperature() : defaultValues.get("minTemperature");
+        float maxTemperature = locationData.getMaxTemperature() != null ? locationData.getMaxTemperature() : defaultValues.get("maxTemperature");
+        float minHumidity = locationData.getMinHumidity() != null ? locationData.getMinHumidity() : defaultValues.get("minHumidity");
+        float maxHumidity = locationData.getMaxHumidity() != null ? locationData.getMaxHumidity() : defaultValues.get("maxHumidity");
+        float minLight = locationData.getMinLight() != null ? locationData.getMinLight() : defaultValues.get("minLight");
+        float maxLight = locationData.getMaxLight() != null ? locationData.getMaxLight() : defaultValues.get("maxLight");
+
+        float moistureMinHumidity = locationData.getMinHumidity() != null ? locationData.getMinHumidity() : 0f;
+        float moistureMaxHumidity = locationData.getMaxHumidity() != null ? locationData.getMaxHumidity() : 100f;
+
+        float temperatureWeight = plantType.getTemperatureWeight() != null ? plantType.getTemperatureWeight() : 0.25f;
+        float humidityWeight = plantType.getHumidityWeight() != null ? plantType.getHumidityWeight() : 0.25f;
+        float lightWeight = plantType.getLightWeight() != null ? plantType.getLightWeight() : 0.25f;
+        float waterWeight = plantType.getWaterWeight() != null ? plantType.getWaterWeight() : 0.25f;
+
+        Map<String, Float> thresholds = plantType.getDiseaseThresholds();
+        float diseaseProgressRate = thresholds.getOrDefault("diseaseProgressRate", 0f);
+
+        return minTemperature + maxTemperature + minHumidity + maxHumidity + minLight + maxLight
+                + moistureMinHumidity + moistureMaxHumidity
+                + plantType.getOptimalMoisture() + plantType.getMoistureRange()
+                + temperatureWeight + humidityWeight + lightWeight + waterWeight
+                + plantType.getNutrientDepletionRate() + plantType.getFertilizerGrowthBoost()
+                + diseaseProgressRate;
+    }
+
+    private static float resolveFromProfile(PlantProfile profile) {
+        return profile.getMinTemperature() + profile.getMaxTemperature() + profile.getMinHumidity()
+                + profile.getMaxHumidity() + profile.getMinLight() + profile.getMaxLight()
+                + profile.getMoistureMinHumidity() + profile.getMoistureMaxHumidity()
+                + profile.getOptimalMoisture() + profile.getMoistureRange()
+                + profile.getTemperatureWeight() + profile.getHumidityWeight() + profile.getLightWeight() + profile.getWaterWeight()
+                + profile.getNutrientDepletionRate() + profile.getFertilizerGrowthBoost()
+                + profile.getDiseaseProgressRate();
+    }
+
+    private static PlantType plantType(String name, int variant) {
+        LocationData ground = new LocationData();
+        ground.setMinTemperature(15f + variant);
+        ground.setMaxTemperature(30f + variant);
+        ground.setMinHumidity(40f);
+        ground.setMaxHumidity(80f);
+
+        LocationData house = new LocationData();
+        house.setMinTemperature(18f);
+        house.setMaxTemperature(27f);
+        house.setMinLight(200f);
+
+        Map<String, LocationData> locationValues = new HashMap<>();
+        locationValues.put("Ground", ground);
+        locationValues.put("House", house);
+
+        Map<String, Float> defaultValues = new HashMap<>();
+        defaultValues.put("minTemperature", 10f);
+        defaultValues.put("maxTemperature", 35f);
+        defaultValues.put("minHumidity", 30f);
+        defaultValues.put("maxHumidity", 90f);
+        defaultValues.put("minLight", 100f);
+        defaultValues.put("maxLight", 1000f + variant);
+
+        Map<String, Float> diseaseThresholds = new HashMap<>();
+        diseaseThresholds.put("diseaseProgressRate", 0.01f * (variant + 1));
+        diseaseThresholds.put("rootRotMoistureThreshold", 85f);
+        diseaseThresholds.put("spiderMitesHumidityThreshold", 30f);
+
+        PlantType plantType = new PlantType();
+        plantType.setPlantName(name);
+        plantType.setOptimalMoisture(60f);
+        plantType.setMoistureRange(20f);
+        plantType.setLocationValues(locationValues);
+        plantType.setDefaultValues(defaultValues);
+        plantType.setDiseaseThresholds(diseaseThresholds);
+        plantType.setPreferredFertilizerType("Balanced");
+        plantType.setNutrientDepletionRate(0.5f);
+        plantType.setFertilizerGrowthBoost(1.2f);
+        plantType.setTemperatureWeight(0.3f);
+        plantType.setLightWeight(variant % 2 == 0 ? null : 0.2f);
+        return plantType;
+    }
+}
@@ -0,0 +1,194 @@
+package com.plantgame.server.models;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlantTest {
+    private static final String TABLE = "Plants";
+
+    @Test
+    void unchangedPlantProducesNoUpdate() {
+        Plant plant = plant();
+        plant.markPersisted();
+
+        assertNull(plant.toUpdateItemRequest(TABLE));
+    }
+
+    @Test
+    void settingSameValueAgainProducesNoUpdate() {
+        Plant plant = plant();
+        plant.markPersisted();
+        plant.setScale(plant.getScale());
+        plant.setDisease("RootRot");
+
+        assertNull(plant.toUpdateItemRequest(TABLE));
+    }
+
+    @Test
+    void changedAttributesAreSet() {
+        Plant plant = plant();
+        plant.markPersisted();
+        plant.setScale(1.5);
+
+        UpdateItemRequest request = plant.toUpdateItemRequest(TABLE);
+
+        assertEquals(TABLE, request.tableName());
+        assertEquals("SET #scale = :scale", request.updateExpression());
+        assertEquals("attribute_exists(plantId)", request.conditionExpression());
+        assertEquals(Map.of("#scale", "scale"), request.expressionAttributeNames());
+        assertEquals(Map.of(":scale", AttributeValue.builder().n("1.5").build()), request.expressionAttributeValues());
+        assertEquals(Map.of(
+                "username", AttributeValue.builder().s("alice").build(),
+                "plantId", AttributeValue.builder().s("plant-1").build()
+        ), request.key());
+    }
+
+    @Test
+    void attributesThatBecameNullAreRemoved() {
+        Plant plant = plant();
+        plant.markPersisted();
+        plant.setDisease(null);
+
+        UpdateItemRequest request = plant.toUpdateItemRequest(TABLE);
+
+        assertEquals("REMOVE #disease", request.updateExpression());
+        assertEquals(Map.of("#disease", "disease"), request.expressionAttributeNames());
+        assertTrue(request.expressionAttributeValues().isEmpty());
+    }
+
+    @Test
+    void setAndRemoveAreCombinedInOneExpression() {
+        Plant plant = plant();
+        plant.markPersisted();
+        plant.setMoistureLevel(40f);
+        plant.setFertilizerName("Balanced");
+        plant.setDisease(null);
+
+        UpdateItemRequest request = plant.toUpdateItemRequest(TABLE);
+        String[] parts = request.updateExpression().split(" REMOVE ");
+
+        assertEquals(2, parts.length);
+        assertTrue(parts[0].startsWith("SET "));
+        assertEquals(Set.of("#moistureLevel = :moistureLevel", "#fertilizerName = :fertilizerName"), clauses(parts[0].substring(4)));
+        assertEquals(Set.of("#disease"), clauses(parts[1]));
+        assertEquals(Map.of(
+                ":moistureLevel", AttributeValue.builder().n("40.0").build(),
+                ":fertilizerName", AttributeValue.builder().s("Balanced").build()
+        ), request.expressionAttributeValues());
+    }
+
+    @Test
+    void plantNeverPersistedSetsEveryAttributeExceptTheKey() {
+        Plant plant = plant();
+
+        UpdateItemRequest request = plant.toUpdateItemRequest(TABLE);
+        Set<String> expectedNames = plant.toAttributeMap().keySet().stream()
+                .filter(name -> !name.equals("username") && !name.equals("plantId"))
+                .collect(Collectors.toSet());
+
+        assertTrue(request.updateExpression().startsWith("SET "));
+        assertFalse(request.updateExpression().contains("REMOVE"));
+        assertEquals(expectedNames, Set.copyOf(request.expressionAttributeNames().values()));
+        assertEquals(expectedNames.size(), request.expressionAttributeValues().size());
+    }
+
+    @Test
+    void markPersistedResetsTheDiff() {
+        Plant plant = plant();
+        plant.markPersisted();
+        plant.setScale(2.0);
+        plant.markPersisted();
+
+        assertNull(plant.toUpdateItemRequest(TABLE));
+    }
+
+    @Test
+    void isoTimestampOfAnOlderItemIsMigratedToEpochMillis() {
+        Plant plant = new Plant();
+        plant.setLastGrowthUpdate("2023-11-14T22:13:20Z");
+        plant.setLastDiseaseCheck("2023-11-14T21:13:20Z");
+
+        assertEquals(Long.valueOf(1_700_000_000_000L), plant.getLastGrowthUpdateEpoch());
+        assertEquals(Long.valueOf(1_699_996_400_000L), plant.getLastDiseaseCheckEpoch());
+    }
+
+    @Test
+    void epochMillisAreFormattedAsIsoTimestamp() {
+        Plant plant = new Plant();
+        plant.setLastGrowthUpdateEpoch(1_700_000_000_000L);
+        plant.setLastDiseaseCheckEpoch(1_700_000_000_500L);
+
+        assertEquals("2023-11-14T22:13:20Z", plant.getLastGrowthUpdate());
+        assertEquals("2023-11-14T22:13:20.500Z", plant.getLastDiseaseCheck());
+    }
+
+    @Test
+    void settingOneFormReplacesTheOther() {
+        Plant plant = new Plant();
+        plant.setLastGrowthUpdate("2023-11-14T22:13:20Z");
+        assertEquals(Long.valueOf(1_700_000_000_000L), plant.getLastGrowthUpdateEpoch());
+
+        plant.setLastGrowthUpdateEpoch(1_700_000_060_000L);
+        assertEquals("2023-11-14T22:14:20Z", plant.getLastGrowthUpdate());
+
+        plant.setLastGrowthUpdate("2023-11-14T22:15:20Z");
+        assertEquals(Long.valueOf(1_700_000_120_000L), plant.getLastGrowthUpdateEpoch());
+    }
+
+    @Test
+    void unparsableTimestampHasNoEpochMillis() {
+        Plant plant = new Plant();
+        plant.setLastDiseaseCheck("yesterday");
+
+        assertNull(plant.getLastDiseaseCheckEpoch());
+        assertEquals("yesterday", plant.getLastDiseaseCheck());
+    }
+
+    @Test
+    void bothFormsAreStoredAndUpdatedTogether() {
+        Plant plant = plant();
+        Map<String, AttributeValue> item = plant.toAttributeMap();
+        assertEquals(AttributeValue.builder().s("2023-11-14T22:13:20Z").build(), item.get("lastGrowthUpdate"));
+        assertEquals(AttributeValue.builder().n("1700000000000").build(), item.get("lastGrowthUpdateEpoch"));
+
+        plant.markPersisted();
+        plant.setLastGrowthUpdateEpoch(1_700_000_060_000L);
+        UpdateItemRequest request = plant.toUpdateItemRequest(TABLE);
+
+        assertEquals(Set.of("lastGrowthUpdate", "lastGrowthUpdateEpoch"), Set.copyOf(request.expressionAttributeNames().values()));
+        assertEquals(Map.of(
+                ":lastGrowthUpdate", AttributeValue.builder().s("2023-11-14T22:14:20Z").build(),
+                ":lastGrowthUpdateEpoch", AttributeValue.builder().n("1700000060000").build()
+        ), request.expressionAttributeValues());
+    }
+
+    private static Set<String> clauses(String expression) {
+        return Arrays.stream(expression.split(", ")).collect(Collectors.toSet());
+    }
+
+    private static Plant plant() {
+        Plant plant = new Plant();
+        plant.setUsername("alice");
+        plant.setPlantId("plant-1");
+        plant.setPlantName("Monstera");
+        plant.setPlantingLocationType("House");
+        plant.setScale(1.0);
+        plant.setMoistureLevel(55f);
+        plant.setDisease("RootRot");
+        plant.setDiseaseProgress(0.2f);
+        plant.setDiseaseSlowingGrowthFactor(0.9f);
+        plant.setLastGrowthUpdateEpoch(1_700_000_000_000L);
+        return plant;
+    }
+}
@@ -0,0 +1,283 @@
+package com.plantgame.server.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchWriterTest {
+    private static final String TABLE = "Plants";
+
+    private final BatchWriter batchWriter = new BatchWriter();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(batchWriter, "batchWriteExecutor", executor);
+        ReflectionTestUtils.setField(batchWriter, "maxConcurrentBatches", 2);
+        ReflectionTestUtils.setField(batchWriter, "maxConcurrentUpdates", 2);
+        ReflectionTestUtils.setField(batchWriter, "maxRetries", 3);
+        ReflectionTestUtils.setField(batchWriter, "baseBackoffMillis", 1L);
+        ReflectionTestUtils.setField(batchWriter, "maxBackoffMillis", 2L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void writeAllRetriesUnprocessedItems() {
+        List<WriteRequest> requests = writeRequests(5);
+        List<List<WriteRequest>> calls = useBatchWriteClient((call, pending) -> call == 1
+                ? unprocessed(pending.subList(3, 5))
+                : unprocessed(List.of()));
+
+        BatchWriter.Result result = batchWriter.writeAll(TABLE, requests);
+
+        assertEquals(2, calls.size());
+        assertEquals(requests.subList(3, 5), calls.get(1));
+        assertEquals(5L, result.getItemsWritten());
+        assertEquals(0L, result.getItemsFailed());
+        assertEquals(1L, result.getRetries());
+        assertTrue(result.isSuccessful());
+    }
+
+    @Test
+    void writeAllRetriesThrottledBatches() {
+        List<WriteRequest> requests = writeRequests(4);
+        List<List<WriteRequest>> calls = useBatchWriteClient((call, pending) -> {
+            if (call <= 2) {
+                throw ProvisionedThroughputExceededException.builder().message("throttled").build();
+            }
+            return unprocessed(List.of());
+        });
+
+        BatchWriter.Result result = batchWriter.writeAll(TABLE, requests);
+
+        assertEquals(3, calls.size());
+        assertEquals(requests, calls.get(2));
+        assertEquals(4L, result.getItemsWritten());
+        assertEquals(2L, result.getRetries());
+        assertTrue(result.isSuccessful());
+    }
+
+    @Test
+    void writeAllGivesUpAfterMaxRetries() {
+        List<WriteRequest> requests = writeRequests(3);
+        List<List<WriteRequest>> calls = useBatchWriteClient((call, pending) -> call == 1
+                ? unprocessed(pending.subList(1, pending.size()))
+                : unprocessed(pending));
+
+        BatchWriter.Result result = batchWriter.writeAll(TABLE, requests);
+
+        assertEquals(4, calls.size());
+        assertEquals(1L, result.getItemsWritten());
+        assertEquals(2L, result.getItemsFailed());
+        assertEquals(3L, result.getRetries());
+        assertFalse(result.isSuccessful());
+    }
+
+    @Test
+    void writeAllFailsBatchOnNonRetryableError() {
+        List<List<WriteRequest>> calls = useBatchWriteClient((call, pending) -> {
+            throw DynamoDbException.builder().message("validation error").build();
+        });
+
+        BatchWriter.Result result = batchWriter.writeAll(TABLE, writeRequests(3));
+
+        assertEquals(1, calls.size());
+        assertEquals(0L, result.getItemsWritten());
+        assertEquals(3L, result.getItemsFailed());
+        assertEquals(0L, result.getRetries());
+    }
+
+    @Test
+    void writeAllSplitsRequestsIntoBatchesOf25() {
+        List<List<WriteRequest>> calls = useBatchWriteClient((call, pending) -> unprocessed(List.of()));
+
+        BatchWriter.Result result = batchWriter.writeAll(TABLE, writeRequests(60));
+
+        assertEquals(3, calls.size());
+        assertEquals(60, calls.stream().mapToInt(List::size).sum());
+        assertTrue(calls.stream().allMatch(batch -> batch.size() <= BatchWriter.MAX_BATCH_SIZE));
+        assertEquals(60L, result.getItemsWritten());
+        assertEquals(3L, result.getBatches());
+    }
+
+    @Test
+    void updateAllRetriesThrottlingAndReportsFailedKeys() {
+        UpdateItemRequest throttledOnce = updateRequest("throttled-once");
+        UpdateItemRequest alwaysThrottled = updateRequest("always-throttled");
+        UpdateItemRequest invalid = updateRequest("invalid");
+        UpdateItemRequest deleted = updateRequest("deleted");
+        UpdateItemRequest plain = updateRequest("plain");
+        AtomicInteger throttledOnceCalls = new AtomicInteger();
+        ReflectionTestUtils.setField(batchWriter, "dynamoDbAsyncClient", new FakeDynamoDbAsyncClient() {
+            @Override
+            public CompletableFuture<UpdateItemResponse> updateItem(UpdateItemRequest request) {
+                if (request == throttledOnce && throttledOnceCalls.incrementAndGet() == 1 || request == alwaysThrottled) {
+                    return CompletableFuture.failedFuture(ProvisionedThroughputExceededException.builder().message("throttled").build());
+                }
+                if (request == invalid) {
+                    return CompletableFuture.failedFuture(DynamoDbException.builder().message("validation error").build());
+                }
+                if (request == deleted) {
+                    return CompletableFuture.failedFuture(ConditionalCheckFailedException.builder().message("condition failed").build());
+                }
+                return CompletableFuture.completedFuture(UpdateItemResponse.builder().build());
+            }
+        });
+
+        BatchWriter.Result result = batchWriter.updateAll(List.of(throttledOnce, alwaysThrottled, invalid, deleted, plain));
+
+        assertEquals(2, throttledOnceCalls.get());
+        assertEquals(2L, result.getItemsWritten());
+        assertEquals(2L, result.getItemsFailed());
+        assertEquals(4L, result.getRetries());
+        assertEquals(Set.of(alwaysThrottled.key(), invalid.key()), Set.copyOf(result.getFailedUpdateKeys()));
+    }
+
+    @Test
+    void updateAllSendsEachUpdateOnItsOwnWithBoundedConcurrency() {
+        List<CompletableFuture<UpdateItemResponse>> inFlight = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ReflectionTestUtils.setField(batchWriter, "dynamoDbAsyncClient", new FakeDynamoDbAsyncClient() {
+            @Override
+            public CompletableFuture<UpdateItemResponse> updateItem(UpdateItemRequest request) {
+                CompletableFuture<UpdateItemResponse> response = new CompletableFuture<>();
+                inFlight.add(response);
+                long pending = inFlight.stream().filter(future -> !future.isDone()).count();
+                maxInFlight.accumulateAndGet((int) pending, Math::max);
+                // Complete the update on another thread shortly after it was sent
+                executor.execute(() -> response.complete(UpdateItemResponse.builder().build()));
+                return response;
+            }
+        });
+        List<UpdateItemRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(updateRequest("plant-" + i));
+        }
+
+        BatchWriter.Result result = batchWriter.updateAll(requests);
+
+        assertEquals(10, inFlight.size());
+        assertTrue(maxInFlight.get() <= 2);
+        assertEquals(10L, result.getItemsWritten());
+        assertEquals(10L, result.getBatches());
+        assertTrue(result.isSuccessful());
+    }
+
+    @Test
+    void mergeCombinesCountsAndFailedKeys() {
+        ReflectionTestUtils.setField(batchWriter, "dynamoDbAsyncClient", new FakeDynamoDbAsyncClient() {
+            @Override
+            public CompletableFuture<UpdateItemResponse> updateItem(UpdateItemRequest request) {
+                return CompletableFuture.failedFuture(DynamoDbException.builder().message("validation error").build());
+            }
+        });
+        List<UpdateItemRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            requests.add(updateRequest("plant-" + i));
+        }
+
+        BatchWriter.Result result = batchWriter.updateAll(requests.subList(0, 20));
+        result.merge(batchWriter.updateAll(requests.subList(20, 30)));
+
+        assertEquals(30L, result.getBatches());
+        assertEquals(30L, result.getItemsFailed());
+        assertEquals(30, result.getFailedUpdateKeys().size());
+        assertTrue(result.getFailedUpdateKeys().containsAll(requests.stream().map(UpdateItemRequest::key).toList()));
+    }
+
+    /**
+     * Replaces the client with one that answers BatchWriteItem calls with the given handler, which
+     * receives the number of the call (starting at 1) and the requests sent. An exception thrown by
+     * the handler fails the call.
+     *
+     * @return the requests sent by each call, in order
+     */
+    private List<List<WriteRequest>> useBatchWriteClient(BiFunction<Integer, List<WriteRequest>, BatchWriteItemResponse> handler) {
+        List<List<WriteRequest>> calls = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger callCount = new AtomicInteger();
+        ReflectionTestUtils.setField(batchWriter, "dynamoDbAsyncClient", new FakeDynamoDbAsyncClient() {
+            @Override
+            public CompletableFuture<BatchWriteItemResponse> batchWriteItem(BatchWriteItemRequest request) {
+                List<WriteRequest> pending = request.requestItems().get(TABLE);
+                calls.add(pending);
+                try {
+                    return CompletableFuture.completedFuture(handler.apply(callCount.incrementAndGet(), pending));
+                } catch (DynamoDbException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+        });
+        return calls;
+    }
+
+    private static BatchWriteItemResponse unprocessed(List<WriteRequest> requests) {
+        return BatchWriteItemResponse.builder()
+                .unprocessedItems(requests.isEmpty() ? Map.of() : Map.of(TABLE, requests))
+                .build();
+    }
+
+    private static List<WriteRequest> writeRequests(int count) {
+        List<WriteRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(WriteRequest.builder()
+                    .putRequest(PutRequest.builder().item(Map.of("plantId", AttributeValue.builder().s("plant-" + i).build())).build())
+                    .build());
+        }
+        return requests;
+    }
+
+    private static UpdateItemRequest updateRequest(String plantId) {
+        return UpdateItemRequest.builder()
+                .tableName(TABLE)
+                .key(Map.of(
+                        "username", AttributeValue.builder().s("alice").build(),
+                        "plantId", AttributeValue.builder().s(plantId).build()
+                ))
+                .updateExpression("SET #scale = :scale")
+                .expressionAttributeNames(Map.of("#scale", "scale"))
+                .expressionAttributeValues(Map.of(":scale", AttributeValue.builder().n("1.0").build()))
+                .build();
+    }
+
+    private abstract static class FakeDynamoDbAsyncClient implements DynamoDbAsyncClient {
+        @Override
+        public String serviceName() {
+            return "dynamodb";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.FertilizerType;
+import com.plantgame.server.models.LocationData;
+import com.plantgame.server.models.PlantType;
+import com.plantgame.server.repositories.PlantTypeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheServiceTest {
+    private final CacheService cacheService = new CacheService();
+    @SuppressWarnings("unchecked")
+    private final DynamoDbAsyncTable<PlantType> plantTypeTable = mock(DynamoDbAsyncTable.class);
+
+    @BeforeEach
+    void setUp() {
+        PlantTypeRepository plantTypeRepository = new PlantTypeRepository();
+        ReflectionTestUtils.setField(plantTypeRepository, "plantTypeAsyncTable", plantTypeTable);
+        ReflectionTestUtils.setField(cacheService, "plantTypeRepository", plantTypeRepository);
+        ReflectionTestUtils.setField(cacheService, "negativeTtlMillis", 60000L);
+    }
+
+    @Test
+    void lookupsOfCachedTypesCountOnTheirEntries() {
+        cacheService.cachePlantType(plantType("Monstera"));
+        cacheService.cacheFertilizerType(fertilizerType("Balanced"));
+
+        assertNotNull(cacheService.getPlantProfile("Monstera", "House"));
+        assertNotNull(cacheService.getPlantProfile("Monstera", "Ground"));
+        assertNotNull(cacheService.getPlantType("Monstera"));
+        assertNotNull(cacheService.getFertilizerType("Balanced"));
+
+        assertEquals(3L, cacheService.getEntryStats().get("PlantType:Monstera").getHits());
+        assertEquals(1L, cacheService.getEntryStats().get("FertilizerType:Balanced").getHits());
+        assertEquals(4L, cacheService.getTotalHits());
+        assertEquals(0L, cacheService.getTotalMisses());
+    }
+
+    @Test
+    void countersSurviveReplacingTheCachedType() {
+        cacheService.cachePlantType(plantType("Monstera"));
+        cacheService.getPlantProfile("Monstera", "House");
+
+        cacheService.cachePlantType(plantType("Monstera"));
+        cacheService.getPlantProfile("Monstera", "House");
+
+        assertEquals(2L, cacheService.getEntryStats().get("PlantType:Monstera").getHits());
+    }
+
+    @Test
+    void plantTypeThatCannotBeCompiledCountsAsMiss() {
+        PlantType plantType = plantType("Broken");
+        plantType.setLocationValues(Map.of());
+        cacheService.cachePlantType(plantType);
+
+        assertNull(cacheService.getPlantProfile("Broken", "House"));
+
+        assertEquals(0L, cacheService.getEntryStats().get("PlantType:Broken").getHits());
+        assertEquals(1L, cacheService.getEntryStats().get("PlantType:Broken").getMisses());
+    }
+
+    @Test
+    void loadAfterMissCountsTheLookupOnce() {
+        when(plantTypeTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(plantType("Monstera")));
+
+        assertNotNull(cacheService.loadPlantProfile("Monstera", "House"));
+        assertEquals(0L, cacheService.getTotalHits());
+        assertEquals(1L, cacheService.getTotalMisses());
+
+        assertNotNull(cacheService.loadPlantProfile("Monstera", "House"));
+        assertEquals(1L, cacheService.getTotalHits());
+        assertEquals(1L, cacheService.getTotalMisses());
+        verify(plantTypeTable, times(1)).getItem(any(Key.class));
+    }
+
+    @Test
+    void unknownNamesAreCountedWithoutKeepingThem() {
+        when(plantTypeTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        for (int i = 0; i < 100; i++) {
+            assertNull(cacheService.loadPlantProfile("Unknown" + i, "House"));
+            assertNull(cacheService.getFertilizerType("Unknown" + i));
+        }
+
+        assertTrue(cacheService.getEntryStats().isEmpty());
+        assertEquals(200L, cacheService.getTotalMisses());
+    }
+
+    @Test
+    void absentNameIsNotReadAgainWithinTheNegativeTtl() {
+        when(plantTypeTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertNull(cacheService.loadPlantProfile("Cactus", "House"));
+        assertNull(cacheService.loadPlantProfile("Cactus", "House"));
+
+        verify(plantTypeTable, times(1)).getItem(any(Key.class));
+        assertEquals(2L, cacheService.getTotalMisses());
+    }
+
+    static PlantType plantType(String name) {
+        LocationData ground = new LocationData();
+        ground.setMinTemperature(15f);
+        ground.setMaxTemperature(30f);
+        ground.setMinHumidity(40f);
+        ground.setMaxHumidity(80f);
+
+        Map<String, Float> defaultValues = new HashMap<>();
+        defaultValues.put("minTemperature", 10f);
+        defaultValues.put("maxTemperature", 35f);
+        defaultValues.put("minHumidity", 30f);
+        defaultValues.put("maxHumidity", 90f);
+        defaultValues.put("minLight", 100f);
+        defaultValues.put("maxLight", 1000f);
+
+        PlantType plantType = new PlantType();
+        plantType.setPlantName(name);
+        plantType.setOptimalMoisture(60f);
+        plantType.setMoistureRange(20f);
+        plantType.setLocationValues(Map.of("Ground", ground));
+        plantType.setDefaultValues(defaultValues);
+        plantType.setDiseaseThresholds(Map.of("diseaseProgressRate", 0.05f));
+        plantType.setNutrientDepletionRate(0.5f);
+        plantType.setFertilizerGrowthBoost(1.2f);
+        return plantType;
+    }
+
+    private static FertilizerType fertilizerType(String name) {
+        FertilizerType fertilizerType = new FertilizerType();
+        fertilizerType.setFertilizerName(name);
+        return fertilizerType;
+    }
+}
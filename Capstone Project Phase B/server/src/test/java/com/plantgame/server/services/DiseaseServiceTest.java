@@ -0,0 +1,103 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.Plant;
+import com.plantgame.server.models.PlantProfile;
+import com.plantgame.server.utils.EnvironmentContext;
+import com.plantgame.server.utils.EnvironmentTable;
+import com.plantgame.server.utils.EnvironmentUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static com.plantgame.server.services.SteadyStateDetectorTest.CALM;
+import static com.plantgame.server.services.SteadyStateDetectorTest.HUMID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks how missed hourly checks are replayed, with the plant type of SteadyStateDetectorTest:
+ * Rust always starts at a check in a humid hour and never in a calm one.
+ */
+class DiseaseServiceTest {
+    private static final long HOUR = 3600_000L;
+
+    private final EnvironmentUtils environmentUtils = new EnvironmentUtils();
+    private final MoistureService moistureService = new MoistureService();
+    private final DiseaseService diseaseService = new DiseaseService();
+    private final SimulationCadencePolicy simulationCadencePolicy = new SimulationCadencePolicy();
+    private final PlantProfile profile = PlantProfile.compile(SteadyStateDetectorTest.plantType())[EnvironmentTable.HOUSE];
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(simulationCadencePolicy, "dormantIntervalMillis", 24 * HOUR);
+        SteadyStateDetectorTest.wire(environmentUtils, moistureService, diseaseService, simulationCadencePolicy);
+    }
+
+    @Test
+    void missedCheckInAHumidHourStartsTheDisease() {
+        EnvironmentContext environment = environmentUtils.createContext(SteadyStateDetectorTest.progress(hour -> hour == -2 ? HUMID : CALM, -30, 30));
+        Plant plant = SteadyStateDetectorTest.plant(environment.getTime() - 5 * HOUR - 60_000L);
+
+        check(plant, environment);
+
+        assertEquals("Rust", plant.getDisease());
+        assertEquals(Long.valueOf(environment.getTime()), plant.getLastDiseaseCheckEpoch());
+    }
+
+    @Test
+    void missedChecksInCalmHoursStartNothing() {
+        EnvironmentContext environment = environmentUtils.createContext(SteadyStateDetectorTest.progress(hour -> CALM, -30, 30));
+        Plant plant = SteadyStateDetectorTest.plant(environment.getTime() - 5 * HOUR - 60_000L);
+
+        check(plant, environment);
+
+        assertNull(plant.getDisease());
+        assertEquals(Long.valueOf(environment.getTime()), plant.getLastDiseaseCheckEpoch());
+    }
+
+    @Test
+    void diseaseThatStartsAtAMissedCheckProgressesAtTheLaterOnes() {
+        EnvironmentContext environment = environmentUtils.createContext(SteadyStateDetectorTest.progress(hour -> HUMID, -30, 30));
+        Plant plant = SteadyStateDetectorTest.plant(environment.getTime() - 5 * HOUR - 60_000L);
+
+        check(plant, environment);
+
+        // The first of the five checks starts the disease, and the four later ones advance it
+        assertEquals("Rust", plant.getDisease());
+        assertEquals(0.2f, plant.getDiseaseProgress(), 1e-6f);
+        assertEquals(0.9f, plant.getDiseaseSlowingGrowthFactor(), 1e-6f);
+    }
+
+    @Test
+    void diseaseProgressesOnlyAtChecksWhoseConditionHolds() {
+        EnvironmentContext environment = environmentUtils.createContext(SteadyStateDetectorTest.progress(hour -> hour >= -1 ? HUMID : CALM, -30, 30));
+        Plant plant = diseased(environment.getTime() - 5 * HOUR - 60_000L);
+
+        check(plant, environment);
+
+        assertEquals(0.1f, plant.getDiseaseProgress(), 1e-6f);
+    }
+
+    @Test
+    void checksBeyondTheCatchUpLimitAreDropped() {
+        ReflectionTestUtils.setField(simulationCadencePolicy, "dormantIntervalMillis", 3 * HOUR);
+        EnvironmentContext environment = environmentUtils.createContext(SteadyStateDetectorTest.progress(hour -> HUMID, -30, 30));
+        Plant plant = diseased(environment.getTime() - 10 * HOUR);
+
+        check(plant, environment);
+
+        assertEquals(0.15f, plant.getDiseaseProgress(), 1e-6f);
+        assertEquals(Long.valueOf(environment.getTime()), plant.getLastDiseaseCheckEpoch());
+    }
+
+    private void check(Plant plant, EnvironmentContext environment) {
+        diseaseService.checkForDisease(plant, profile, environment, moistureService.getEffectiveMoisture(plant, profile, environment));
+    }
+
+    private static Plant diseased(long lastDiseaseCheck) {
+        Plant plant = SteadyStateDetectorTest.plant(lastDiseaseCheck);
+        plant.setDisease("Rust");
+        plant.setDiseaseProgress(0f);
+        return plant;
+    }
+}
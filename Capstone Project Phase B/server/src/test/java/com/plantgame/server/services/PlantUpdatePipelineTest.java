@@ -0,0 +1,140 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.Plant;
+import com.plantgame.server.models.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlantUpdatePipelineTest {
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final List<Plant> failedPlants = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void failingWriterPassesPlantsToFailureHandlerAndFinishes() throws Exception {
+        AtomicInteger writeAttempts = new AtomicInteger();
+        PlantUpdatePipeline pipeline = new PlantUpdatePipeline(2, 4, 2, batch -> {
+            writeAttempts.incrementAndGet();
+            throw new OutOfMemoryError("simulated writer failure");
+        }, failedPlants::addAll);
+        Thread writer = startWriter(pipeline);
+
+        pipeline.submitUser(user("alice"), user -> CompletableFuture.completedFuture(plants(user, 5)));
+        pipeline.submitUser(user("bob"), user -> CompletableFuture.completedFuture(plants(user, 3)));
+        finishWithin(pipeline);
+
+        writer.join(TIMEOUT_MILLIS);
+        assertFalse(writer.isAlive(), "writer should stop at the end of the stream");
+        assertTrue(writeAttempts.get() > 0);
+        assertEquals(8, failedPlants.size());
+        assertEquals(8L, pipeline.getPlantsFailed());
+        assertEquals(8L, pipeline.getPlantsSimulated());
+        assertEquals(0L, pipeline.getBatchesWritten());
+    }
+
+    @Test
+    void interruptedWriterDrainsRemainingPlantsWithoutWriting() throws Exception {
+        AtomicInteger plantsWritten = new AtomicInteger();
+        AtomicBoolean interruptRestored = new AtomicBoolean();
+        PlantUpdatePipeline pipeline = new PlantUpdatePipeline(1, 2, 2, batch -> plantsWritten.addAndGet(batch.size()),
+                failedPlants::addAll);
+        Thread writer = new Thread(() -> {
+            pipeline.runWriter();
+            interruptRestored.set(Thread.currentThread().isInterrupted());
+        });
+        writer.start();
+        awaitBlocked(writer);
+        writer.interrupt();
+
+        pipeline.submitUser(user("alice"), user -> CompletableFuture.completedFuture(plants(user, 6)));
+        finishWithin(pipeline);
+
+        writer.join(TIMEOUT_MILLIS);
+        assertFalse(writer.isAlive(), "writer should stop at the end of the stream");
+        assertTrue(interruptRestored.get(), "the interrupt should be restored when the writer returns");
+        assertEquals(0, plantsWritten.get());
+        assertEquals(6, failedPlants.size());
+    }
+
+    @Test
+    void failingFailureHandlerDoesNotStopWriter() throws Exception {
+        PlantUpdatePipeline pipeline = new PlantUpdatePipeline(1, 2, 1, batch -> {
+            throw new IllegalStateException("simulated writer failure");
+        }, plants -> {
+            throw new IllegalStateException("simulated handler failure");
+        });
+        Thread writer = startWriter(pipeline);
+
+        pipeline.submitUser(user("alice"), user -> CompletableFuture.completedFuture(plants(user, 4)));
+        finishWithin(pipeline);
+
+        writer.join(TIMEOUT_MILLIS);
+        assertFalse(writer.isAlive(), "writer should stop at the end of the stream");
+        assertEquals(4L, pipeline.getPlantsFailed());
+    }
+
+    @Test
+    void successfulRunWritesEveryPlant() throws Exception {
+        List<Plant> written = Collections.synchronizedList(new ArrayList<>());
+        PlantUpdatePipeline pipeline = new PlantUpdatePipeline(2, 4, 3, written::addAll, failedPlants::addAll);
+        Thread writer = startWriter(pipeline);
+
+        pipeline.submitUser(user("alice"), user -> CompletableFuture.completedFuture(plants(user, 7)));
+        pipeline.submitUser(user("bob"), user -> CompletableFuture.failedFuture(new IllegalStateException("query failed")));
+        finishWithin(pipeline);
+
+        writer.join(TIMEOUT_MILLIS);
+        assertFalse(writer.isAlive(), "writer should stop at the end of the stream");
+        assertEquals(7, written.size());
+        assertEquals(0, failedPlants.size());
+        assertEquals(1L, pipeline.getUsersSimulated());
+    }
+
+    private static Thread startWriter(PlantUpdatePipeline pipeline) {
+        Thread writer = new Thread(pipeline::runWriter);
+        writer.start();
+        return writer;
+    }
+
+    private static void finishWithin(PlantUpdatePipeline pipeline) throws Exception {
+        Thread finisher = new Thread(pipeline::finish);
+        finisher.start();
+        finisher.join(TIMEOUT_MILLIS);
+        assertFalse(finisher.isAlive(), "finish should not block");
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(Thread.State.WAITING, thread.getState());
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+
+    private static List<Plant> plants(User user, int count) {
+        List<Plant> plants = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Plant plant = new Plant();
+            plant.setUsername(user.getUsername());
+            plant.setPlantId(user.getUsername() + "-" + i);
+            plants.add(plant);
+        }
+        return plants;
+    }
+}
@@ -0,0 +1,133 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PresenceServiceTest {
+    private final PresenceService presenceService = new PresenceService();
+    private final RecordingBatchWriter batchWriter = new RecordingBatchWriter();
+    private final DynamoDbClient dynamoDbClient = mock(DynamoDbClient.class);
+
+    @BeforeEach
+    void setUp() {
+        UserScanService userScanService = new UserScanService();
+        ReflectionTestUtils.setField(userScanService, "simulationBuckets", 4);
+        ReflectionTestUtils.setField(presenceService, "batchWriter", batchWriter);
+        ReflectionTestUtils.setField(presenceService, "dynamoDbClient", dynamoDbClient);
+        ReflectionTestUtils.setField(presenceService, "userScanService", userScanService);
+    }
+
+    @Test
+    void flushAfterSeveralHeartbeatsWritesTheLatestTimeOnce() {
+        presenceService.recordHeartbeat(user("alice"), 1_000L);
+        presenceService.recordHeartbeat(user("alice"), 3_000L);
+        presenceService.recordHeartbeat(user("alice"), 2_000L);
+
+        presenceService.flush();
+
+        assertEquals(1, batchWriter.calls.size());
+        assertEquals(1, batchWriter.calls.get(0).size());
+        assertEquals("3000", epochOf(batchWriter.calls.get(0).get(0)));
+
+        presenceService.flush();
+        assertEquals(1, batchWriter.calls.size());
+    }
+
+    @Test
+    void failedUpdatesAreQueuedForTheNextFlush() {
+        presenceService.recordHeartbeat(user("alice"), 1_000L);
+        presenceService.recordHeartbeat(user("bob"), 2_000L);
+        batchWriter.failingUsers.add("alice");
+
+        presenceService.flush();
+        batchWriter.failingUsers.clear();
+        presenceService.flush();
+
+        assertEquals(2, batchWriter.calls.size());
+        assertEquals(1, batchWriter.calls.get(1).size());
+        assertEquals("alice", batchWriter.calls.get(1).get(0).key().get("username").s());
+        assertEquals("1000", epochOf(batchWriter.calls.get(1).get(0)));
+    }
+
+    @Test
+    void newerHeartbeatWinsOverAFailedUpdate() {
+        presenceService.recordHeartbeat(user("alice"), 1_000L);
+        batchWriter.failingUsers.add("alice");
+        batchWriter.onUpdate = () -> presenceService.recordHeartbeat(user("alice"), 5_000L);
+
+        presenceService.flush();
+        batchWriter.failingUsers.clear();
+        batchWriter.onUpdate = null;
+        presenceService.flush();
+
+        assertEquals("5000", epochOf(batchWriter.calls.get(1).get(0)));
+    }
+
+    @Test
+    void markOfflineReportsWhetherTheUserWasPlaying() {
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder().build());
+        assertTrue(presenceService.markOffline(user("alice")));
+
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.builder().message("The conditional request failed").build());
+        User user = user("alice");
+        assertFalse(presenceService.markOffline(user));
+        assertFalse(user.getIsPlaying());
+    }
+
+    private static String epochOf(UpdateItemRequest request) {
+        return request.expressionAttributeValues().get(":epoch").n();
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setIsPlaying(true);
+        return user;
+    }
+
+    /**
+     * BatchWriter that records the updates it is given instead of sending them, and fails the
+     * updates of the given users.
+     */
+    private static class RecordingBatchWriter extends BatchWriter {
+        private final List<List<UpdateItemRequest>> calls = new ArrayList<>();
+        private final Set<String> failingUsers = new HashSet<>();
+        private Runnable onUpdate;
+
+        @Override
+        public Result updateAll(List<UpdateItemRequest> updateRequests) {
+            calls.add(List.copyOf(updateRequests));
+            if (onUpdate != null) {
+                onUpdate.run();
+            }
+            Result result = new Result();
+            for (UpdateItemRequest request : updateRequests) {
+                if (failingUsers.contains(request.key().get("username").s())) {
+                    result.recordFailedUpdate(request);
+                } else {
+                    result.recordWrittenUpdate();
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.User;
+import com.plantgame.server.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SessionServiceTest {
+    private static final String USERNAME = "alice";
+
+    private final SessionService sessionService = new SessionService();
+    private final UserRepository userRepository = new UserRepository();
+    @SuppressWarnings("unchecked")
+    private final DynamoDbAsyncTable<User> userTable = mock(DynamoDbAsyncTable.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userRepository, "userAsyncTable", userTable);
+        ReflectionTestUtils.setField(sessionService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(sessionService, "maxSessions", 100);
+        ReflectionTestUtils.setField(sessionService, "sessionTtlMillis", 60000L);
+        ReflectionTestUtils.setField(sessionService, "unknownTokenTtlMillis", 10000L);
+        ReflectionTestUtils.setField(sessionService, "signedTokensEnabled", true);
+        ReflectionTestUtils.setField(sessionService, "signedTokenSecret", "test-secret");
+        ReflectionTestUtils.setField(sessionService, "signedTokenTtlMillis", 60000L);
+    }
+
+    @Test
+    void validTokenIsResolvedOnceAndThenServedFromCache() {
+        String token = sessionService.issueToken(USERNAME);
+        when(userTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(user(token)));
+
+        User first = sessionService.getUserByToken(token);
+        User second = sessionService.getUserByToken(token);
+
+        assertNotNull(first);
+        assertEquals(USERNAME, second.getUsername());
+        verify(userTable, times(1)).getItem(any(Key.class));
+    }
+
+    @Test
+    void tamperedSignatureIsRejectedWithoutReadingUsers() {
+        String token = sessionService.issueToken(USERNAME);
+        String[] parts = token.split("\\.");
+        byte[] signature = Base64.getUrlDecoder().decode(parts[2]);
+        signature[0] ^= 1;
+        String tampered = parts[0] + "." + parts[1] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+
+        assertNull(sessionService.getUserByToken(tampered));
+        verify(userTable, never()).getItem(any(Key.class));
+    }
+
+    @Test
+    void tamperedUsernameOrExpiryIsRejected() {
+        String token = sessionService.issueToken(USERNAME);
+        String[] parts = token.split("\\.");
+        String otherUser = Base64.getUrlEncoder().withoutPadding().encodeToString("mallory".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(sessionService.getUserByToken(otherUser + "." + parts[1] + "." + parts[2]));
+        assertNull(sessionService.getUserByToken(parts[0] + "." + (Long.parseLong(parts[1]) + 1) + "." + parts[2]));
+        verify(userTable, never()).getItem(any(Key.class));
+    }
+
+    @Test
+    void tokenSignedWithAnotherSecretIsRejected() {
+        String token = sessionService.issueToken(USERNAME);
+        SessionService otherInstance = new SessionService();
+        ReflectionTestUtils.setField(otherInstance, "userRepository", userRepository);
+        ReflectionTestUtils.setField(otherInstance, "maxSessions", 100);
+        ReflectionTestUtils.setField(otherInstance, "signedTokensEnabled", true);
+        ReflectionTestUtils.setField(otherInstance, "signedTokenSecret", "another-secret");
+
+        assertNull(otherInstance.getUserByToken(token));
+        verify(userTable, never()).getItem(any(Key.class));
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertNull(sessionService.getUserByToken("a.b"));
+        assertNull(sessionService.getUserByToken("a.b.c"));
+        assertNull(sessionService.getUserByToken("a.notanumber.c.d"));
+        verify(userTable, never()).getItem(any(Key.class));
+    }
+
+    @Test
+    void expiredTokenIsRejectedWithoutReadingUsers() {
+        ReflectionTestUtils.setField(sessionService, "signedTokenTtlMillis", -1000L);
+        String token = sessionService.issueToken(USERNAME);
+        when(userTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(user(token)));
+
+        assertNull(sessionService.getUserByToken(token));
+        verify(userTable, never()).getItem(any(Key.class));
+    }
+
+    @Test
+    void revokedTokenIsRejectedEvenThoughItWasCached() {
+        String token = sessionService.issueToken(USERNAME);
+        when(userTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(user(token)));
+        assertNotNull(sessionService.getUserByToken(token));
+
+        sessionService.revokeToken(token);
+
+        assertNull(sessionService.getUserByToken(token));
+        verify(userTable, times(1)).getItem(any(Key.class));
+    }
+
+    @Test
+    void tokenNoLongerStoredForUserIsRejected() {
+        String token = sessionService.issueToken(USERNAME);
+        when(userTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(user(null)));
+
+        assertNull(sessionService.getUserByToken(token));
+    }
+
+    @Test
+    void lookupInFlightDuringLogoutIsNotCached() throws Exception {
+        String token = sessionService.issueToken(USERNAME);
+        CompletableFuture<User> pendingRead = new CompletableFuture<>();
+        when(userTable.getItem(any(Key.class))).thenReturn(pendingRead);
+
+        CompletableFuture<User> lookup = CompletableFuture.supplyAsync(() -> sessionService.getUserByToken(token));
+        while (pendingRead.getNumberOfDependents() == 0) {
+            Thread.sleep(1);
+        }
+        sessionService.invalidateUser(USERNAME);
+        pendingRead.complete(user(token));
+
+        assertNotNull(lookup.get(5, TimeUnit.SECONDS));
+        sessionService.getUserByToken(token);
+        verify(userTable, times(2)).getItem(any(Key.class));
+    }
+
+    @Test
+    void unknownTokenIsNotReadAgainWithinTheNegativeTtl() {
+        String token = sessionService.issueToken(USERNAME);
+        when(userTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(user(null)));
+
+        assertNull(sessionService.getUserByToken(token));
+        assertNull(sessionService.getUserByToken(token));
+
+        verify(userTable, times(1)).getItem(any(Key.class));
+    }
+
+    @Test
+    void unknownTokenIsReadAgainOnceTheNegativeTtlHasPassed() {
+        ReflectionTestUtils.setField(sessionService, "unknownTokenTtlMillis", -1L);
+        String token = sessionService.issueToken(USERNAME);
+        when(userTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(user(null)));
+
+        assertNull(sessionService.getUserByToken(token));
+        assertNull(sessionService.getUserByToken(token));
+
+        verify(userTable, times(2)).getItem(any(Key.class));
+    }
+
+    @Test
+    void loginClearsTheUnknownEntryOfItsToken() {
+        String token = sessionService.issueToken(USERNAME);
+        when(userTable.getItem(any(Key.class))).thenReturn(CompletableFuture.completedFuture(user(null)));
+        assertNull(sessionService.getUserByToken(token));
+
+        sessionService.cacheSession(token, user(token));
+
+        assertNotNull(sessionService.getUserByToken(token));
+    }
+
+    @Test
+    void revokedUuidTokenIsRejectedWithoutQueryingTheIndex() {
+        ReflectionTestUtils.setField(sessionService, "signedTokensEnabled", false);
+        String token = sessionService.issueToken(USERNAME);
+
+        sessionService.revokeToken(token);
+
+        assertNull(sessionService.getUserByToken(token));
+        verify(userTable, never()).index(any());
+    }
+
+    @Test
+    void startupFailsWhenSignedTokensAreEnabledWithoutSecret() {
+        ReflectionTestUtils.setField(sessionService, "signedTokenSecret", "");
+
+        assertThrows(IllegalStateException.class, sessionService::validateSignedTokenConfiguration);
+    }
+
+    private static User user(String token) {
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setToken(token);
+        return user;
+    }
+}
@@ -0,0 +1,123 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the simulation tiers and the catch-up limit of SimulationCadencePolicy with its default settings.
+ */
+class SimulationCadencePolicyTest {
+    private static final long HOUR = 3600_000L;
+    private static final long DAY = 24 * HOUR;
+
+    private final SimulationCadencePolicy simulationCadencePolicy = new SimulationCadencePolicy();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(simulationCadencePolicy, "awayAfterMillis", DAY);
+        ReflectionTestUtils.setField(simulationCadencePolicy, "dormantAfterMillis", 7 * DAY);
+        ReflectionTestUtils.setField(simulationCadencePolicy, "awayIntervalMillis", HOUR);
+        ReflectionTestUtils.setField(simulationCadencePolicy, "dormantIntervalMillis", DAY);
+        ReflectionTestUtils.setField(simulationCadencePolicy, "simulationMode", "background");
+        ReflectionTestUtils.setField(simulationCadencePolicy, "staleAfterMillis", DAY);
+    }
+
+    @Test
+    void recentlyActiveUserIsSimulatedEveryTick() {
+        assertEquals(SimulationCadencePolicy.BASE_TICK_MILLIS, simulationCadencePolicy.getInterval(user(2 * HOUR)));
+    }
+
+    @Test
+    void awayUserIsSimulatedEveryAwayInterval() {
+        assertEquals(HOUR, simulationCadencePolicy.getInterval(user(2 * DAY)));
+    }
+
+    @Test
+    void dormantUserIsSimulatedEveryDormantInterval() {
+        assertEquals(DAY, simulationCadencePolicy.getInterval(user(8 * DAY)));
+    }
+
+    @Test
+    void userWithoutActivityTimeIsTreatedAsDormant() {
+        User user = new User();
+        user.setUsername("alice");
+
+        assertEquals(DAY, simulationCadencePolicy.getInterval(user));
+    }
+
+    @Test
+    void onReadModeSimulatesNoTierMoreOftenThanTheStaleAge() {
+        ReflectionTestUtils.setField(simulationCadencePolicy, "simulationMode", "on-read");
+
+        assertTrue(simulationCadencePolicy.isOnReadMode());
+        assertEquals(DAY, simulationCadencePolicy.getInterval(user(2 * HOUR)));
+        assertEquals(DAY, simulationCadencePolicy.getInterval(user(2 * DAY)));
+    }
+
+    @Test
+    void userIsDueOnceItsIntervalHasAlmostPassed() {
+        User user = user(2 * DAY);
+        assertTrue(simulationCadencePolicy.isDue(user));
+
+        simulationCadencePolicy.startSimulation("alice", System.currentTimeMillis() - HOUR + SimulationCadencePolicy.BASE_TICK_MILLIS);
+        assertFalse(simulationCadencePolicy.isDue(user));
+
+        simulationCadencePolicy.startSimulation("alice", System.currentTimeMillis() - HOUR + SimulationCadencePolicy.BASE_TICK_MILLIS / 4);
+        assertTrue(simulationCadencePolicy.isDue(user));
+    }
+
+    @Test
+    void forgottenUserIsDueRightAway() {
+        User user = user(2 * DAY);
+        simulationCadencePolicy.recordSkipped("alice");
+        assertFalse(simulationCadencePolicy.isDue(user));
+
+        simulationCadencePolicy.clearUser("alice");
+        assertTrue(simulationCadencePolicy.isDue(user));
+    }
+
+    @Test
+    void firstSimulationCatchesUpFromThePlantTimestamps() {
+        assertNull(simulationCadencePolicy.startSimulation("alice", System.currentTimeMillis()));
+    }
+
+    @Test
+    void catchUpStartsAtThePreviousSimulation() {
+        long now = System.currentTimeMillis();
+        simulationCadencePolicy.startSimulation("alice", now - 3 * HOUR);
+
+        assertEquals(Long.valueOf(now - 3 * HOUR), simulationCadencePolicy.startSimulation("alice", now));
+    }
+
+    @Test
+    void catchUpReachesBackAtMostOneDormantInterval() {
+        long now = System.currentTimeMillis();
+        simulationCadencePolicy.startSimulation("alice", now - 5 * DAY);
+
+        assertEquals(Long.valueOf(now - DAY), simulationCadencePolicy.startSimulation("alice", now));
+        assertEquals(now - DAY, simulationCadencePolicy.clampCatchUpStart(now - 30 * DAY, now));
+        assertEquals(now - HOUR, simulationCadencePolicy.clampCatchUpStart(now - HOUR, now));
+    }
+
+    @Test
+    void catchUpLimitIsAtLeastOneTick() {
+        ReflectionTestUtils.setField(simulationCadencePolicy, "dormantIntervalMillis", 0L);
+        long now = System.currentTimeMillis();
+
+        assertEquals(now - SimulationCadencePolicy.BASE_TICK_MILLIS, simulationCadencePolicy.clampCatchUpStart(now - DAY, now));
+    }
+
+    private static User user(long awayMillis) {
+        User user = new User();
+        user.setUsername("alice");
+        user.setLastActiveTimeEpoch(System.currentTimeMillis() - awayMillis);
+        return user;
+    }
+}
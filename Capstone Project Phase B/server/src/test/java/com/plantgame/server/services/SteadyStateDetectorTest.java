@@ -0,0 +1,188 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.GameProgress;
+import com.plantgame.server.models.HourlyWeatherEntry;
+import com.plantgame.server.models.Plant;
+import com.plantgame.server.models.PlantProfile;
+import com.plantgame.server.models.PlantType;
+import com.plantgame.server.utils.EnvironmentContext;
+import com.plantgame.server.utils.EnvironmentTable;
+import com.plantgame.server.utils.EnvironmentUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the dormancy of a healthy, fully grown House plant at 100% moisture. Its only disease rule
+ * holds when the effective humidity of the house is above 55% (a raw humidity above 83%), and the
+ * plant starts to dry out when the raw humidity is below 33%.
+ */
+class SteadyStateDetectorTest {
+    static final int CALM = 50;
+    static final int HUMID = 90;
+    static final int DRY = 20;
+    private static final long HOUR = 3600_000L;
+
+    private final SteadyStateDetector steadyStateDetector = new SteadyStateDetector();
+    private final EnvironmentUtils environmentUtils = new EnvironmentUtils();
+    private final MoistureService moistureService = new MoistureService();
+    private final DiseaseService diseaseService = new DiseaseService();
+    private final SimulationCadencePolicy simulationCadencePolicy = new SimulationCadencePolicy();
+    private final PlantProfile profile = PlantProfile.compile(plantType())[EnvironmentTable.HOUSE];
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(simulationCadencePolicy, "dormantIntervalMillis", 24 * HOUR);
+        wire(environmentUtils, moistureService, diseaseService, simulationCadencePolicy);
+        ReflectionTestUtils.setField(steadyStateDetector, "moistureService", moistureService);
+        ReflectionTestUtils.setField(steadyStateDetector, "diseaseService", diseaseService);
+        ReflectionTestUtils.setField(steadyStateDetector, "environmentUtils", environmentUtils);
+        ReflectionTestUtils.setField(steadyStateDetector, "simulationCadencePolicy", simulationCadencePolicy);
+    }
+
+    @Test
+    void dormancyExtendsToTheFirstHourInWhichARuleCanHold() {
+        EnvironmentContext environment = environmentUtils.createContext(progress(hour -> hour == 5 ? HUMID : CALM, -30, 30));
+        Plant plant = plant(environment.getTime() - 10 * 60_000L);
+
+        assertEquals(hourStart(environment, 5), steadyStateDetector.getDormantUntil(plant, profile, environment));
+    }
+
+    @Test
+    void dormancyExtendsToTheFirstHourInWhichMoistureChanges() {
+        EnvironmentContext environment = environmentUtils.createContext(progress(hour -> hour == 3 ? DRY : CALM, -30, 30));
+        Plant plant = plant(environment.getTime() - 10 * 60_000L);
+
+        assertEquals(hourStart(environment, 3), steadyStateDetector.getDormantUntil(plant, profile, environment));
+    }
+
+    @Test
+    void dormancyEndsAtTheNextCheckWhenARuleCanHoldNow() {
+        EnvironmentContext environment = environmentUtils.createContext(progress(hour -> hour == 0 ? HUMID : CALM, -30, 30));
+        long lastDiseaseCheck = environment.getTime() - 59 * 60_000L;
+        Plant plant = plant(lastDiseaseCheck);
+
+        Instant expected = Instant.ofEpochMilli(Math.min(lastDiseaseCheck + HOUR, environment.getNextWeatherHour().toEpochMilli()));
+        assertEquals(expected, steadyStateDetector.getDormantUntil(plant, profile, environment));
+    }
+
+    @Test
+    void overdueCheckInAnHourInWhichARuleCouldHoldEndsTheDormancy() {
+        EnvironmentContext environment = environmentUtils.createContext(progress(hour -> hour == -2 ? HUMID : CALM, -30, 30));
+        Plant plant = plant(environment.getTime() - 3 * HOUR);
+
+        assertNull(steadyStateDetector.getDormantUntil(plant, profile, environment));
+    }
+
+    @Test
+    void overdueChecksInCalmHoursKeepThePlantDormant() {
+        EnvironmentContext environment = environmentUtils.createContext(progress(hour -> CALM, -30, 30));
+        Plant plant = plant(environment.getTime() - 6 * HOUR);
+
+        assertTrue(steadyStateDetector.getDormantUntil(plant, profile, environment).isAfter(environment.getNextWeatherHour()));
+    }
+
+    @Test
+    void dormancyEndsAtTheEndOfTheStoredForecast() {
+        EnvironmentContext environment = environmentUtils.createContext(progress(hour -> CALM, -30, 4));
+        Plant plant = plant(environment.getTime() - 10 * 60_000L);
+
+        assertEquals(hourStart(environment, 5), steadyStateDetector.getDormantUntil(plant, profile, environment));
+    }
+
+    @Test
+    void dormancyEndsAtTheCatchUpLimit() {
+        ReflectionTestUtils.setField(simulationCadencePolicy, "dormantIntervalMillis", 6 * HOUR);
+        EnvironmentContext environment = environmentUtils.createContext(progress(hour -> CALM, -30, 30));
+        Plant plant = plant(environment.getTime() - 10 * 60_000L);
+
+        Instant dormantUntil = steadyStateDetector.getDormantUntil(plant, profile, environment);
+
+        assertTrue(!dormantUntil.isBefore(Instant.ofEpochMilli(environment.getTime() + 6 * HOUR)));
+        assertTrue(dormantUntil.isBefore(Instant.ofEpochMilli(environment.getTime() + 7 * HOUR)));
+    }
+
+    /**
+     * Wires the services that the disease and moisture checks depend on.
+     */
+    static void wire(EnvironmentUtils environmentUtils, MoistureService moistureService, DiseaseService diseaseService,
+                     SimulationCadencePolicy simulationCadencePolicy) {
+        ReflectionTestUtils.setField(environmentUtils, "maxCachedTables", 100);
+        ReflectionTestUtils.setField(moistureService, "environmentUtils", environmentUtils);
+        ReflectionTestUtils.setField(diseaseService, "environmentUtils", environmentUtils);
+        ReflectionTestUtils.setField(diseaseService, "moistureService", moistureService);
+        ReflectionTestUtils.setField(diseaseService, "simulationCadencePolicy", simulationCadencePolicy);
+    }
+
+    /**
+     * Creates a plant type with a single disease, Rust, which always starts at a check whose
+     * effective humidity is above 55%.
+     */
+    static PlantType plantType() {
+        PlantType plantType = CacheServiceTest.plantType("Monstera");
+        Map<String, Float> thresholds = new HashMap<>();
+        thresholds.put("Rust.humidity.above", 55f);
+        thresholds.put("Rust.probability", 1f);
+        thresholds.put("Rust.slowdown", 0.5f);
+        thresholds.put("diseaseProgressRate", 0.05f);
+        plantType.setDiseaseThresholds(thresholds);
+        return plantType;
+    }
+
+    /**
+     * Creates a game progress in UTC whose forecast covers the given hours around the current one.
+     *
+     * @param humidityAt the raw humidity of an hour, by its offset from the current hour
+     * @param firstHour the offset of the first forecast hour
+     * @param lastHour the offset of the last forecast hour
+     */
+    static GameProgress progress(IntUnaryOperator humidityAt, int firstHour, int lastHour) {
+        ZonedDateTime currentHour = ZonedDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        List<HourlyWeatherEntry> hourlyWeather = new ArrayList<>();
+        for (int hour = firstHour; hour <= lastHour; hour++) {
+            HourlyWeatherEntry entry = new HourlyWeatherEntry();
+            entry.setTime(currentHour.plusHours(hour).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00")));
+            entry.setTemperatureC(20);
+            entry.setHumidity(humidityAt.applyAsInt(hour));
+            hourlyWeather.add(entry);
+        }
+
+        GameProgress progress = new GameProgress();
+        progress.setUsername("alice");
+        progress.setLastWeatherUpdate(currentHour.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        progress.setHourlyWeather(hourlyWeather);
+        return progress;
+    }
+
+    static Plant plant(long lastDiseaseCheck) {
+        Plant plant = new Plant();
+        plant.setUsername("alice");
+        plant.setPlantId("plant-1");
+        plant.setPlantName("Monstera");
+        plant.setPlantingLocationType("House");
+        plant.setReachedMaxScale(true);
+        plant.setMoistureLevel(100f);
+        plant.setLastGrowthUpdateEpoch(lastDiseaseCheck);
+        plant.setLastDiseaseCheckEpoch(lastDiseaseCheck);
+        return plant;
+    }
+
+    private static Instant hourStart(EnvironmentContext environment, int hour) {
+        return environment.getNextWeatherHour().plusMillis((hour - 1) * HOUR);
+    }
+}
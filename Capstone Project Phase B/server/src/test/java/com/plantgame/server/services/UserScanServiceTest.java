@@ -0,0 +1,144 @@
+package com.plantgame.server.services;
+
+import com.plantgame.server.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks how UserScanService discovers the users due for simulation in the "index" mode: each bucket of
+ * the "simulation-index" is queried for the users active within the retention period, and the whole table
+ * is scanned instead on the first run and once per stale scan interval.
+ */
+class UserScanServiceTest {
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final int BUCKETS = 4;
+    private static final int SEGMENTS = 2;
+    private static final long RETENTION_DAYS = 30;
+
+    private final UserScanService userScanService = new UserScanService();
+    @SuppressWarnings("unchecked")
+    private final DynamoDbTable<User> userTable = mock(DynamoDbTable.class);
+    @SuppressWarnings("unchecked")
+    private final DynamoDbIndex<User> simulationIndex = mock(DynamoDbIndex.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userScanService, "userTable", userTable);
+        ReflectionTestUtils.setField(userScanService, "userScanExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(userScanService, "totalSegments", SEGMENTS);
+        ReflectionTestUtils.setField(userScanService, "discoveryMode", "index");
+        ReflectionTestUtils.setField(userScanService, "simulationBuckets", BUCKETS);
+        ReflectionTestUtils.setField(userScanService, "retentionDays", RETENTION_DAYS);
+        ReflectionTestUtils.setField(userScanService, "staleScanIntervalMillis", DAY);
+
+        when(userTable.scan(any(ScanEnhancedRequest.class))).thenReturn(pages(user("scanned")));
+        when(userTable.index(anyString())).thenReturn(simulationIndex);
+        when(simulationIndex.query(any(QueryConditional.class))).thenReturn(pages(user("active")));
+    }
+
+    @Test
+    void firstRunScansTheWholeTable() {
+        AtomicInteger users = new AtomicInteger();
+
+        long readUsers = userScanService.forEachUserDueForSimulation(user -> users.incrementAndGet());
+
+        assertEquals(SEGMENTS, readUsers);
+        assertEquals(SEGMENTS, users.get());
+        verify(userTable, times(SEGMENTS)).scan(any(ScanEnhancedRequest.class));
+        verify(userTable, never()).index(anyString());
+    }
+
+    @Test
+    void laterRunsQueryEveryBucketForTheUsersActiveWithinTheRetentionPeriod() {
+        ReflectionTestUtils.setField(userScanService, "lastFullScan", System.currentTimeMillis());
+        List<User> users = new ArrayList<>();
+
+        long before = System.currentTimeMillis();
+        long readUsers = userScanService.forEachUserDueForSimulation(users::add);
+        long after = System.currentTimeMillis();
+
+        assertEquals(BUCKETS, readUsers);
+        assertEquals("active", users.get(0).getUsername());
+        verify(userTable, never()).scan(any(ScanEnhancedRequest.class));
+
+        ArgumentCaptor<QueryConditional> conditionals = ArgumentCaptor.forClass(QueryConditional.class);
+        verify(simulationIndex, times(BUCKETS)).query(conditionals.capture());
+        Set<AttributeValue> buckets = new HashSet<>();
+        for (QueryConditional conditional : conditionals.getAllValues()) {
+            Expression expression = conditional.expression(TableSchema.fromBean(User.class), "simulation-index");
+            assertTrue(expression.expression().contains(">="));
+            Collection<AttributeValue> values = expression.expressionValues().values();
+            long activeSince = values.stream()
+                    .filter(value -> value.n() != null)
+                    .mapToLong(value -> Long.parseLong(value.n()))
+                    .findFirst()
+                    .orElseThrow();
+            assertTrue(activeSince >= before - RETENTION_DAYS * DAY && activeSince <= after - RETENTION_DAYS * DAY);
+            values.stream().filter(value -> value.s() != null).forEach(buckets::add);
+        }
+        assertEquals(Set.of(AttributeValue.fromS("0"), AttributeValue.fromS("1"), AttributeValue.fromS("2"),
+                AttributeValue.fromS("3")), buckets);
+    }
+
+    @Test
+    void staleScanIntervalTriggersAnotherFullScan() {
+        ReflectionTestUtils.setField(userScanService, "lastFullScan", System.currentTimeMillis() - DAY - 1);
+
+        userScanService.forEachUserDueForSimulation(user -> { });
+        userScanService.forEachUserDueForSimulation(user -> { });
+
+        verify(userTable, times(SEGMENTS)).scan(any(ScanEnhancedRequest.class));
+        verify(simulationIndex, times(BUCKETS)).query(any(QueryConditional.class));
+    }
+
+    @Test
+    void scanModeNeverQueriesTheIndex() {
+        ReflectionTestUtils.setField(userScanService, "discoveryMode", "scan");
+        ReflectionTestUtils.setField(userScanService, "lastFullScan", System.currentTimeMillis());
+
+        userScanService.forEachUserDueForSimulation(user -> { });
+
+        verify(userTable, times(SEGMENTS)).scan(any(ScanEnhancedRequest.class));
+        verify(userTable, never()).index(anyString());
+    }
+
+    private static PageIterable<User> pages(User user) {
+        return PageIterable.create(() -> List.of(Page.create(List.of(user))).iterator());
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+}